@@ -0,0 +1,48 @@
+package com.shoplite.backend.benchmarks;
+
+import com.shoplite.backend.model.Cart;
+import com.shoplite.backend.model.CartItem;
+import com.shoplite.backend.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Cart#calculateTotalAmount()} is called on every cart mutation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int cartSize;
+
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        cart = new Cart();
+        for (int i = 0; i < cartSize; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setPrice(new BigDecimal("19.99").add(BigDecimal.valueOf(i, 2)));
+
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setQuantity(1 + i % 5);
+            cart.getItems().add(item);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalAmount() {
+        cart.calculateTotalAmount();
+        return cart.getTotalAmount();
+    }
+}
@@ -0,0 +1,71 @@
+package com.shoplite.backend.benchmarks;
+
+import com.shoplite.backend.config.JwtAuthenticationFilter;
+import com.shoplite.backend.service.CustomUserDetailsService;
+import com.shoplite.backend.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link JwtAuthenticationFilter}, with
+ * the user lookup stubbed out so only the filter's own cost is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = JwtBenchmark.newJwtUtil();
+        UserDetails user = new User(JwtBenchmark.EMAIL, "password", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userDetailsService", new StubUserDetailsService(user));
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        authorizationHeader = "Bearer " + jwtUtil.generateToken(JwtBenchmark.EMAIL);
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/user");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    static class StubUserDetailsService extends CustomUserDetailsService {
+        private final UserDetails user;
+
+        StubUserDetailsService(UserDetails user) {
+            this.user = user;
+        }
+
+        @Override
+        public UserDetails loadUserByUsername(String email) {
+            return user;
+        }
+    }
+}
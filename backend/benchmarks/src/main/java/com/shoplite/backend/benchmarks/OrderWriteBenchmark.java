@@ -0,0 +1,136 @@
+package com.shoplite.backend.benchmarks;
+
+import com.shoplite.backend.BackendApplication;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.Role;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.repository.RoleRepository;
+import com.shoplite.backend.repository.UserRepository;
+import com.shoplite.backend.service.OrderBatchWriter;
+import com.shoplite.backend.service.OrderDraft;
+import com.shoplite.backend.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders written per second by {@code clients} concurrent checkouts, one
+ * transaction per order ({@code sync}) against group commit through
+ * {@link OrderBatchWriter} ({@code batch}). Every invocation places
+ * {@link #ORDERS} orders spread over the clients, against a small catalog so
+ * checkouts contend for the same products.
+ *
+ * In-memory H2 has no commit fsync, so this measures the saved statements and
+ * round trips only; against PostgreSQL the gap grows with commit latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(OrderWriteBenchmark.ORDERS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderWriteBenchmark {
+
+    static final int ORDERS = 512;
+    private static final int PRODUCTS = 16;
+
+    @Param({"sync", "batch"})
+    private String mode;
+
+    @Param({"1", "16", "256"})
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderBatchWriter orderBatchWriter;
+    private ExecutorService executor;
+    private User user;
+    private List<Product> products;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+            .run(
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.jpa.show-sql=false",
+                "--stripe.api.key=benchmark",
+                "--file.upload.migrate-legacy=false",
+                "--logging.level.root=WARN",
+                "--orders.intake-mode=" + mode);
+        orderService = context.getBean(OrderService.class);
+        orderBatchWriter = context.getBean(OrderBatchWriter.class);
+
+        user = new User();
+        user.setEmail("order-write-benchmark@example.com");
+        user.setPassword("password");
+        user.setRoles(Set.of(context.getBean(RoleRepository.class).findByName(Role.ERole.ROLE_USER).orElseThrow()));
+        user = context.getBean(UserRepository.class).save(user);
+
+        products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Benchmark Product " + i);
+            product.setPrice(new BigDecimal("9.99"));
+            product.setStockQuantity(Integer.MAX_VALUE);
+            products.add(product);
+        }
+        products = context.getBean(ProductRepository.class).saveAll(products);
+
+        executor = Executors.newFixedThreadPool(clients);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int placeOrders() throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            tasks.add(() -> {
+                int placed = 0;
+                for (int i = client; i < ORDERS; i += clients) {
+                    placeOrder(products.get(i % PRODUCTS).getId());
+                    placed++;
+                }
+                return placed;
+            });
+        }
+        int placed = 0;
+        for (Future<Integer> result : executor.invokeAll(tasks)) {
+            placed += result.get();
+        }
+        return placed;
+    }
+
+    private void placeOrder(Long productId) {
+        Product product = new Product();
+        product.setId(productId);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(1);
+        if (orderBatchWriter.isEnabled()) {
+            orderBatchWriter.submit(new OrderDraft(user, List.of(item), "1 Benchmark Street", "Cash", null));
+        } else {
+            orderService.createOrder(user, new ArrayList<>(List.of(item)), "1 Benchmark Street", "Cash", null);
+        }
+    }
+}
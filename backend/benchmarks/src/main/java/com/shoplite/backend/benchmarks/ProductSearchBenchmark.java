@@ -0,0 +1,78 @@
+package com.shoplite.backend.benchmarks;
+
+import com.shoplite.backend.BackendApplication;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductService#searchByName} against a seeded in-memory H2 catalog,
+ * through the real Spring/JPA stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] WORDS = {"Smart", "Phone", "Laptop", "Pro", "Ultra", "Mini", "Desk", "Lamp", "Chair", "Book"};
+
+    @Param({"1000", "10000"})
+    private int catalogSize;
+
+    @Param({"phone", "zzz"})
+    private String keyword;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command-line style args so they override the profile's property files
+        context = new SpringApplicationBuilder(BackendApplication.class)
+            .run(
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.jpa.show-sql=false",
+                "--stripe.api.key=benchmark",
+                "--file.upload.migrate-legacy=false",
+                "--logging.level.root=WARN");
+        productService = context.getBean(ProductService.class);
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        List<Product> batch = new ArrayList<>();
+        for (int i = 0; i < catalogSize; i++) {
+            Product product = new Product();
+            product.setName(WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i);
+            product.setPrice(new BigDecimal("9.99"));
+            product.setStockQuantity(10);
+            batch.add(product);
+            if (batch.size() == 1000) {
+                productRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        productRepository.saveAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> searchByName() {
+        return productService.searchByName(keyword);
+    }
+}
@@ -0,0 +1,99 @@
+package com.shoplite.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.shoplite.backend.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the entity graphs the order and product endpoints return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int itemsPerOrder;
+
+    private ObjectMapper objectMapper;
+    private List<Order> orders;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        // Same modules Spring Boot registers (JavaTimeModule for LocalDateTime)
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Electronics");
+        category.setDescription("Electronic devices and gadgets");
+
+        products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("Product " + i);
+            product.setDescription("A reasonably long product description used to size the payload " + i);
+            product.setPrice(new BigDecimal("19.99"));
+            product.setImageUrl("http://localhost:8080/api/uploads/products/" + i + ".jpg");
+            product.setStockQuantity(100);
+            product.setCategory(category);
+            product.setCreatedAt(LocalDateTime.now());
+            product.setUpdatedAt(LocalDateTime.now());
+            products.add(product);
+        }
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("bench@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        user.setFirstName("Bench");
+        user.setLastName("User");
+
+        orders = new ArrayList<>();
+        for (int o = 0; o < 20; o++) {
+            Order order = new Order();
+            order.setId((long) o);
+            order.setUser(user);
+            order.setStatus(Order.OrderStatus.PENDING);
+            order.setShippingAddress("123 Test Street, Test City");
+            order.setPaymentMethod("Credit Card");
+            order.setCreatedAt(LocalDateTime.now());
+            order.setUpdatedAt(LocalDateTime.now());
+            BigDecimal total = BigDecimal.ZERO;
+            for (int i = 0; i < itemsPerOrder; i++) {
+                OrderItem item = new OrderItem();
+                item.setId((long) (o * itemsPerOrder + i));
+                item.setOrder(order);
+                item.setProduct(products.get(i % products.size()));
+                item.setQuantity(1);
+                item.setPriceAtPurchase(item.getProduct().getPrice());
+                order.getItems().add(item);
+                total = total.add(item.getPriceAtPurchase());
+            }
+            order.setTotalAmount(total);
+            orders.add(order);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeOrderHistory() throws Exception {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] serializeProductCatalog() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+}
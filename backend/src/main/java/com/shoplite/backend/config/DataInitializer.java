@@ -2,8 +2,8 @@ package com.shoplite.backend.config;
 
 import com.shoplite.backend.model.Role;
 import com.shoplite.backend.model.User;
-import com.shoplite.backend.repository.RoleRepository;
 import com.shoplite.backend.repository.UserRepository;
+import com.shoplite.backend.service.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,7 +17,7 @@ import java.util.Set;
 public class DataInitializer implements CommandLineRunner {
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleService roleService;
 
     @Autowired
     private UserRepository userRepository;
@@ -35,16 +35,16 @@ public class DataInitializer implements CommandLineRunner {
     }
     
     private void initializeRoles() {
-        if (roleRepository.count() == 0) {
+        if (roleService.findAll().isEmpty()) {
             // Create user role
             Role userRole = new Role();
             userRole.setName(Role.ERole.ROLE_USER);
-            roleRepository.save(userRole);
+            roleService.save(userRole);
             
             // Create admin role
             Role adminRole = new Role();
             adminRole.setName(Role.ERole.ROLE_ADMIN);
-            roleRepository.save(adminRole);
+            roleService.save(adminRole);
             
             System.out.println("Roles initialized");
         }
@@ -55,7 +55,7 @@ public class DataInitializer implements CommandLineRunner {
         
         if (!userRepository.existsByEmail(adminEmail)) {
             // Get admin role
-            Role adminRole = roleRepository.findByName(Role.ERole.ROLE_ADMIN)
+            Role adminRole = roleService.findByName(Role.ERole.ROLE_ADMIN)
                     .orElseThrow(() -> new RuntimeException("Error: Admin Role not found."));
             
             Set<Role> roles = new HashSet<>();
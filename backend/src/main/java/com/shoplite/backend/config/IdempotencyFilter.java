@@ -0,0 +1,189 @@
+package com.shoplite.backend.config;
+
+import com.shoplite.backend.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Honors the {@code Idempotency-Key} header on order and payment-intent
+ * creation. The first request with a key runs normally and its successful
+ * response is stored; retries with the same key and body get that response
+ * back without running the request again. Keys are scoped to the caller.
+ *
+ * Registered after the Spring Security chain so the caller is known.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Value("${idempotency.paths:/api/orders,/api/payments/create-payment-intent}")
+    private List<String> paths;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+            || request.getHeader(HEADER) == null
+            || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String caller = authentication != null ? authentication.getName() : "anonymous";
+        String id = sha256(caller.getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8));
+        String requestHash = sha256((request.getMethod() + " " + request.getRequestURI()).getBytes(StandardCharsets.UTF_8), body);
+
+        IdempotencyService.Attempt attempt = idempotencyService.begin(id, requestHash);
+        switch (attempt.decision()) {
+            case MISMATCH -> writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                HEADER + " was already used for a different request");
+            case IN_PROGRESS -> {
+                response.setHeader("Retry-After", "1");
+                writeError(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+            }
+            case REPLAY -> {
+                response.setStatus(attempt.record().getResponseStatus());
+                response.setHeader(REPLAYED_HEADER, "true");
+                if (attempt.record().getContentType() != null) {
+                    response.setContentType(attempt.record().getContentType());
+                }
+                byte[] stored = attempt.record().getResponseBody();
+                if (stored != null) {
+                    response.setContentLength(stored.length);
+                    response.getOutputStream().write(stored);
+                }
+            }
+            case PROCEED -> proceed(new CachedBodyRequest(request, body), response, filterChain, attempt);
+        }
+    }
+
+    private void proceed(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         IdempotencyService.Attempt attempt) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            // Only successes are stored; after a failure the order transaction rolled
+            // back, so releasing the key lets the client retry for real
+            if (wrapper.getStatus() >= 200 && wrapper.getStatus() < 300) {
+                idempotencyService.complete(attempt.record(), wrapper.getStatus(), wrapper.getContentType(),
+                    wrapper.getContentAsByteArray());
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyService.release(attempt.record());
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    private static String sha256(byte[] first, byte[] second) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(first);
+            digest.update((byte) 0);
+            digest.update(second);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Replays a body that was read up front to hash it.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
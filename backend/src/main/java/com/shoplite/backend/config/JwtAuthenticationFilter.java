@@ -2,6 +2,8 @@ package com.shoplite.backend.config;
 
 import com.shoplite.backend.service.CustomUserDetailsService;
 import com.shoplite.backend.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,10 +27,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) 
             throws ServletException, IOException {
         
+        // Time only the authentication work, not the rest of the chain
+        Timer.Sample sample = Timer.start(meterRegistry);
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
@@ -53,6 +60,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
         }
+        sample.stop(Timer.builder("shoplite.jwt.filter")
+            .description("JWT parsing, user lookup and validation")
+            .tag("authenticated", String.valueOf(username != null))
+            .publishPercentileHistogram()
+            .register(meterRegistry));
         
         filterChain.doFilter(request, response);
     }
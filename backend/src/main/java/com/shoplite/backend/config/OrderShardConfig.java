@@ -0,0 +1,45 @@
+package com.shoplite.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order sharding, on when {@code orders.shards.urls} lists the shard
+ * databases (comma-separated, all with the same credentials). Each shard gets
+ * a Hikari pool of {@code orders.shards.pool-size}; with
+ * {@code orders.shards.initialize-schema} the shard tables are created at
+ * startup, as for the embedded H2 shards of local runs.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.shards.urls")
+public class OrderShardConfig {
+
+    @Bean(destroyMethod = "close")
+    public OrderShards orderShards(@Value("${orders.shards.urls}") List<String> urls,
+                                   @Value("${orders.shards.username:}") String username,
+                                   @Value("${orders.shards.password:}") String password,
+                                   @Value("${orders.shards.pool-size:10}") int poolSize,
+                                   @Value("${orders.shards.initialize-schema:false}") boolean initializeSchema) {
+        List<HikariDataSource> dataSources = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url.trim()).username(username).password(password).build();
+            dataSource.setPoolName("orders-shard-" + dataSources.size());
+            dataSource.setMaximumPoolSize(poolSize);
+            if (initializeSchema) {
+                new ResourceDatabasePopulator(new ClassPathResource("db/shard/schema.sql")).execute(dataSource);
+            }
+            dataSources.add(dataSource);
+        }
+        return new OrderShards(dataSources);
+    }
+}
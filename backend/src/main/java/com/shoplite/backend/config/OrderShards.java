@@ -0,0 +1,71 @@
+package com.shoplite.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The databases that orders and their items are spread over, numbered in the
+ * order of {@code orders.shards.urls}. A user's orders all live on
+ * {@link #shardOf(long, int) one shard}, picked by hash of the user id.
+ */
+public class OrderShards implements AutoCloseable {
+
+    /**
+     * One shard. Its transactions are always new ones, independent of any
+     * transaction on the primary the caller may be in.
+     */
+    public record Shard(int index, HikariDataSource dataSource, JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate) {
+    }
+
+    private final List<Shard> shards;
+
+    public OrderShards(List<HikariDataSource> dataSources) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one order shard is required");
+        }
+        List<Shard> built = new ArrayList<>(dataSources.size());
+        for (HikariDataSource dataSource : dataSources) {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            built.add(new Shard(built.size(), dataSource, new JdbcTemplate(dataSource), transactionTemplate));
+        }
+        shards = List.copyOf(built);
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    public Shard get(int index) {
+        return shards.get(index);
+    }
+
+    public int count() {
+        return shards.size();
+    }
+
+    public Shard forUser(long userId) {
+        return shards.get(shardOf(userId, shards.size()));
+    }
+
+    /**
+     * The shard of a user among {@code count} shards. Ids are mixed first, so
+     * consecutive users spread evenly whatever the count.
+     */
+    public static int shardOf(long userId, int count) {
+        long mixed = userId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(mixed ^ (mixed >>> 32), count);
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(shard -> shard.dataSource().close());
+    }
+}
@@ -0,0 +1,117 @@
+package com.shoplite.backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Hibernate's own statistics are global, so they cannot say how many
+ * queries a single request issued; this can.
+ *
+ * Statements are also grouped by shape (the SQL with literals and IN lists
+ * collapsed), so the same query repeated once per row, the usual N+1
+ * signature, shows up as one shape with a high count. Recordings nest: a test
+ * can count across several requests while each request is counted on its own.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Override
+    public String inspect(String sql) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            String shape = shapeOf(sql);
+            for (Recording r = recording; r != null; r = r.parent) {
+                r.record(shape);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Start a recording on this thread. An enclosing recording keeps counting too.
+     */
+    public static Recording start() {
+        Recording recording = new Recording(CURRENT.get());
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    /**
+     * Stop the innermost recording on this thread and return it.
+     */
+    public static Recording stop() {
+        Recording recording = CURRENT.get();
+        if (recording == null) {
+            return new Recording(null);
+        }
+        if (recording.parent != null) {
+            CURRENT.set(recording.parent);
+        } else {
+            CURRENT.remove();
+        }
+        return recording;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * Statements seen between {@link #start()} and {@link #stop()}.
+     */
+    public static class Recording {
+
+        private final Recording parent;
+        private final Map<String, Integer> shapes = new HashMap<>();
+        private long count;
+
+        private Recording(Recording parent) {
+            this.parent = parent;
+        }
+
+        private void record(String shape) {
+            count++;
+            shapes.merge(shape, 1, Integer::sum);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public Map<String, Integer> getShapes() {
+            return Map.copyOf(shapes);
+        }
+
+        /**
+         * The shape issued most often, if any shape was issued more than once.
+         */
+        public Optional<Map.Entry<String, Integer>> mostRepeated() {
+            return shapes.entrySet().stream()
+                .filter(e -> e.getValue() > 1)
+                .max(Map.Entry.comparingByValue())
+                .map(e -> Map.entry(e.getKey(), e.getValue()));
+        }
+
+        /**
+         * Clear the count, e.g. after test fixtures have been loaded.
+         */
+        public void reset() {
+            count = 0;
+            shapes.clear();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.shoplite.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} methods of the application
+ * to the replica and everything else to the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so
+ * the connection is picked once the transaction's read-only flag is known.
+ *
+ * After a signed-in user's write commits, that user's reads go to the primary
+ * for {@code stickyMillis}, so they see their own change however far the
+ * replica lags.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    // Spring Data repositories run every call in a read-only transaction of their own
+    private static final String REPOSITORY_TRANSACTION_PREFIX = "org.springframework.data.";
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long stickyMillis;
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final Object writeMarker = new Object();
+
+    public ReadWriteRoutingDataSource(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Implicit repository transactions often read what the caller is about to write, and unnamed
+            // TransactionTemplates may need everything committed so far; both stay on the primary
+            String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            boolean declared = name != null && !name.startsWith(REPOSITORY_TRANSACTION_PREFIX);
+            return declared && !isSticky(user) ? Target.REPLICA : Target.PRIMARY;
+        }
+        if (user != null && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(writeMarker)) {
+            markAfterCommit(user);
+        }
+        return Target.PRIMARY;
+    }
+
+    private boolean isSticky(String user) {
+        Long until = user != null ? stickyUntil.get(user) : null;
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private void markAfterCommit(String user) {
+        TransactionSynchronizationManager.bindResource(writeMarker, user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long now = System.currentTimeMillis();
+                if (stickyUntil.size() > PURGE_THRESHOLD) {
+                    stickyUntil.values().removeIf(until -> until <= now);
+                }
+                stickyUntil.put(user, now + stickyMillis);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writeMarker);
+            }
+        });
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,76 @@
+package com.shoplite.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued, per endpoint, as
+ * {@code http.server.requests.statements}. When {@code sql.statement-budget}
+ * is set (the dev profile does), requests over budget are logged together
+ * with their most repeated statement, which is usually an N+1.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 0 disables the warning
+    @Value("${sql.statement-budget:0}")
+    private int statementBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountInspector.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCountInspector.Recording recording = QueryCountInspector.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("http.server.requests.statements")
+                .description("SQL statements issued per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(recording.getCount());
+
+            if (statementBudget > 0 && recording.getCount() > statementBudget) {
+                warnOverBudget(request.getMethod() + " " + uri, recording);
+            }
+        }
+    }
+
+    private void warnOverBudget(String endpoint, QueryCountInspector.Recording recording) {
+        recording.mostRepeated().ifPresentOrElse(
+            repeated -> log.warn("{} issued {} SQL statements (budget {}); repeated {} times: {}",
+                endpoint, recording.getCount(), statementBudget, repeated.getValue(), repeated.getKey()),
+            () -> log.warn("{} issued {} SQL statements (budget {})",
+                endpoint, recording.getCount(), statementBudget));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+}
@@ -1,8 +1,11 @@
 package com.shoplite.backend.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -24,6 +27,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+    
     @Bean
     public MvcRequestMatcher.Builder mvc(HandlerMappingIntrospector introspector) {
         return new MvcRequestMatcher.Builder(introspector);
@@ -36,7 +42,12 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(mvc.pattern("/api/auth/**")).permitAll()
+                // Catalog browsing is public
+                .requestMatchers(mvc.pattern(HttpMethod.GET, "/api/products/**"), mvc.pattern(HttpMethod.GET, "/api/categories/**"),
+                                 mvc.pattern(HttpMethod.GET, "/api/uploads/products/**")).permitAll()
                 .requestMatchers(mvc.pattern("/api-docs/**"), mvc.pattern("/swagger-ui/**"), mvc.pattern("/swagger-ui.html")).permitAll()
+                // Actuator listens on the loopback-bound management port only
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
                 .anyRequest().authenticated()
             );
         
@@ -53,6 +64,6 @@ public class SecurityConfig {
     
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.shoplite.backend.controller;
+
+import com.shoplite.backend.model.Cart;
+import com.shoplite.backend.model.CartItem;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.service.AuthService;
+import com.shoplite.backend.service.CartService;
+import com.shoplite.backend.service.StockReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cart")
+@CrossOrigin(origins = "*")
+@PreAuthorize("isAuthenticated()")
+public class CartController {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @GetMapping
+    public ResponseEntity<Cart> getCart(Authentication authentication) {
+        User user = authService.getCurrentUser(authentication);
+        return ResponseEntity.ok(cartService.getOrCreateCart(user));
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<?> addToCart(@RequestBody Map<String, Object> itemRequest, Authentication authentication) {
+        try {
+            User user = authService.getCurrentUser(authentication);
+            Long productId = Long.valueOf(itemRequest.get("productId").toString());
+            int quantity = Integer.parseInt(itemRequest.getOrDefault("quantity", 1).toString());
+
+            stockReservationService.prepare(productId);
+            CartItem item = cartService.addToCart(user, productId, quantity);
+            return ResponseEntity.ok(item);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error adding to cart: " + e.getMessage());
+        }
+    }
+
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<?> updateCartItem(@PathVariable Long productId, @RequestBody Map<String, Object> itemRequest,
+                                            Authentication authentication) {
+        try {
+            User user = authService.getCurrentUser(authentication);
+            int quantity = Integer.parseInt(itemRequest.get("quantity").toString());
+
+            stockReservationService.prepare(productId);
+            CartItem item = cartService.updateCartItemQuantity(user, productId, quantity);
+            return item != null ? ResponseEntity.ok(item) : ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error updating cart: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<?> removeFromCart(@PathVariable Long productId, Authentication authentication) {
+        try {
+            cartService.removeFromCart(authService.getCurrentUser(authentication), productId);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error removing from cart: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping
+    public ResponseEntity<?> clearCart(Authentication authentication) {
+        cartService.clearCart(authService.getCurrentUser(authentication));
+        return ResponseEntity.noContent().build();
+    }
+}
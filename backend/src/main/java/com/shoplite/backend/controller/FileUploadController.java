@@ -1,93 +1,212 @@
 package com.shoplite.backend.controller;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.shoplite.backend.model.StoredFile;
+import com.shoplite.backend.model.UploadSession;
+import com.shoplite.backend.service.ChunkedUploadService;
+import com.shoplite.backend.service.FileStorageService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/api/uploads")
 @CrossOrigin(origins = "*")
 public class FileUploadController {
 
-    @Value("${file.upload.dir:uploads}")
-    private String uploadDir;
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
 
     @PostMapping("/products")
     public ResponseEntity<?> uploadProductImage(@RequestParam("file") MultipartFile file) {
         try {
-            // Create the uploads directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
+            chunkedUploadService.validateContentType(file.getContentType());
+            chunkedUploadService.validateSize(file.getSize());
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            StoredFile stored;
+            try (InputStream in = new BufferedInputStream(file.getInputStream())) {
+                // The declared type is the client's word; check the bytes before storing them
+                chunkedUploadService.validateContent(in, file.getContentType());
+                // Hash while streaming to disk; identical content is stored only once
+                stored = fileStorageService.store(in, file.getContentType());
             }
-            String newFilename = UUID.randomUUID().toString() + fileExtension;
+            String newFilename = fileStorageService.publicFilename(stored, file.getOriginalFilename());
 
-            // Save the file
-            Path filePath = uploadPath.resolve(newFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            return ResponseEntity.ok(createUploadResponse(stored, newFilename));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Could not upload file: " + e.getMessage());
+        }
+    }
 
-            // Build the image URL
-            String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/api/uploads/products/")
-                    .path(newFilename)
-                    .toUriString();
+    /**
+     * Start a resumable upload. Expects filename, contentType and size; the
+     * declared size and type are checked before any bytes are accepted.
+     */
+    @PostMapping("/sessions")
+    public ResponseEntity<?> initChunkedUpload(@RequestBody Map<String, Object> request) {
+        try {
+            UploadSession session = chunkedUploadService.init(
+                    (String) request.get("filename"),
+                    (String) request.get("contentType"),
+                    Long.parseLong(request.get("size").toString()));
+            return ResponseEntity.status(HttpStatus.CREATED).body(createSessionResponse(session));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Could not start upload: " + e.getMessage());
+        }
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("filename", newFilename);
-            response.put("url", fileDownloadUri);
-            response.put("size", file.getSize());
-            response.put("contentType", file.getContentType());
+    /**
+     * Report which chunks have arrived so a client can resume after a disconnect.
+     */
+    @GetMapping("/sessions/{uploadId}")
+    public ResponseEntity<?> getChunkedUpload(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(createSessionResponse(chunkedUploadService.getSession(uploadId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
 
-            return ResponseEntity.ok(response);
+    /**
+     * Upload one chunk as a raw request body. The body is streamed straight to
+     * disk; Content-Length must match the expected chunk length.
+     */
+    @PutMapping(value = "/sessions/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> putChunk(@PathVariable String uploadId, @RequestParam("offset") long offset,
+                                      HttpServletRequest request) {
+        try {
+            UploadSession session = chunkedUploadService.putChunk(
+                    uploadId, offset, request.getContentLengthLong(), request.getInputStream());
+            return ResponseEntity.ok(createSessionResponse(session));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Could not upload file: " + e.getMessage());
+                    .body("Could not write chunk: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
         }
     }
 
+    @PostMapping("/sessions/{uploadId}/complete")
+    public ResponseEntity<?> completeChunkedUpload(@PathVariable String uploadId) {
+        try {
+            String originalFilename = chunkedUploadService.getSession(uploadId).getFilename();
+            StoredFile stored = chunkedUploadService.complete(uploadId);
+            return ResponseEntity.ok(createUploadResponse(stored, fileStorageService.publicFilename(stored, originalFilename)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Could not complete upload: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/sessions/{uploadId}")
+    public ResponseEntity<?> abortChunkedUpload(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Could not abort upload: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> createUploadResponse(StoredFile stored, String filename) {
+        // Build the image URL
+        String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path(FileStorageService.PUBLIC_PATH)
+                .path(filename)
+                .toUriString();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("filename", filename);
+        response.put("url", fileDownloadUri);
+        response.put("size", stored.getSize());
+        response.put("contentType", stored.getContentType());
+        response.put("sha256", stored.getSha256());
+        return response;
+    }
+
+    private Map<String, Object> createSessionResponse(UploadSession session) {
+        BitSet received = BitSet.valueOf(session.getReceivedChunks());
+        Map<String, Object> response = new HashMap<>();
+        response.put("uploadId", session.getId());
+        response.put("size", session.getSize());
+        response.put("chunkSize", session.getChunkSize());
+        response.put("chunkCount", session.getChunkCount());
+        response.put("receivedChunks", received.stream().boxed().collect(Collectors.toList()));
+        response.put("complete", received.cardinality() == session.getChunkCount());
+        return response;
+    }
+
     @GetMapping("/products/{filename:.+}")
     public ResponseEntity<?> downloadProductImage(@PathVariable String filename) {
         try {
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists()) {
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .contentType(MediaType.IMAGE_JPEG)
-                        .body(resource);
-            } else {
+            Optional<Path> filePath = fileStorageService.resolve(filename);
+            if (filePath.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
+            Resource resource = new UrlResource(filePath.get().toUri());
+
+            Optional<StoredFile> stored = fileStorageService.findByFilename(filename);
+            MediaType contentType = stored.map(StoredFile::getContentType)
+                    .map(MediaType::parseMediaType)
+                    .orElse(MediaType.IMAGE_JPEG);
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
+                    .contentType(contentType);
+            if (stored.isPresent()) {
+                // Content-addressed files never change, so clients may cache them forever
+                builder.eTag("\"" + stored.get().getSha256() + "\"")
+                        .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+            }
+            return builder.body(resource);
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Could not download file: " + e.getMessage());
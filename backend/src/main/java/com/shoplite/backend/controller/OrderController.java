@@ -3,19 +3,36 @@ package com.shoplite.backend.controller;
 import com.shoplite.backend.model.Order;
 import com.shoplite.backend.model.OrderItem;
 import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.Role;
 import com.shoplite.backend.model.User;
+import com.shoplite.backend.service.AuthService;
+import com.shoplite.backend.service.OrderArchiveService;
+import com.shoplite.backend.service.FlashSaleService;
+import com.shoplite.backend.service.OrderBatchWriter;
+import com.shoplite.backend.service.OrderDraft;
+import com.shoplite.backend.service.OrderExportService;
+import com.shoplite.backend.service.OrderIntakeService;
+import com.shoplite.backend.service.OrderReshardService;
 import com.shoplite.backend.service.OrderService;
+import com.shoplite.backend.service.OutOfStockException;
 import com.shoplite.backend.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
@@ -30,6 +47,27 @@ public class OrderController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private OrderBatchWriter orderBatchWriter;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private OrderReshardService orderReshardService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<Order>> getAllOrders() {
@@ -40,15 +78,62 @@ public class OrderController {
     @GetMapping("/user")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<Order>> getUserOrders(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+        User user = authService.getCurrentUser(authentication);
         List<Order> orders = orderService.findByUser(user);
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Stream all orders created between {@code from} and {@code to} (inclusive
+     * dates) as NDJSON or CSV, without holding the result set in memory.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+
+        LocalDate start = from != null ? from : LocalDate.of(1970, 1, 1);
+        LocalDate end = to != null ? to : LocalDate.now();
+        StreamingResponseBody body = out -> orderExportService.export(
+            start.atStartOfDay(), end.plusDays(1).atStartOfDay(), exportFormat, out);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders-" + start + "-to-" + end + "." + exportFormat.getExtension() + "\"")
+            .body(body);
+    }
+
+    /**
+     * Order history one page at a time; pass the returned nextCursor to get the next page.
+     */
+    @GetMapping("/user/history")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getUserOrderHistory(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int limit,
+                                                 Authentication authentication) {
+        User user = authService.getCurrentUser(authentication);
+        try {
+            return ResponseEntity.ok(orderService.findPageByUser(user, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+        User user = authService.getCurrentUser(authentication);
         Optional<Order> orderOpt = orderService.findById(id);
         
         if (orderOpt.isPresent()) {
@@ -56,7 +141,7 @@ public class OrderController {
             
             // Check if user owns the order or is an admin
             if (order.getUser().getId().equals(user.getId()) || 
-                user.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_ADMIN"))) {
+                user.getRoles().stream().anyMatch(r -> r.getName() == Role.ERole.ROLE_ADMIN)) {
                 return ResponseEntity.ok(order);
             } else {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
@@ -66,11 +151,31 @@ public class OrderController {
         return ResponseEntity.notFound().build();
     }
 
+    /**
+     * Lightweight status poll, mainly for orders accepted in async intake mode.
+     */
+    @GetMapping("/{id}/status")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getOrderStatus(@PathVariable Long id, Authentication authentication) {
+        User user = authService.getCurrentUser(authentication);
+        Optional<Order> orderOpt = orderService.findById(id);
+        if (orderOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Order order = orderOpt.get();
+        if (!order.getUser().getId().equals(user.getId()) &&
+            user.getRoles().stream().noneMatch(r -> r.getName() == Role.ERole.ROLE_ADMIN)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(orderIntakeService.getStatus(order));
+    }
+
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> createOrder(@RequestBody Map<String, Object> orderRequest, Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            User user = authService.getCurrentUser(authentication);
             
             // Extract order information
             String shippingAddress = (String) orderRequest.get("shippingAddress");
@@ -100,6 +205,34 @@ public class OrderController {
                 }
             }
             
+            // Flash-sale products are admitted from memory: sold out means no further work,
+            // and admitted orders skip the intake queue and batches, which would lock the hot row
+            if (items.stream().anyMatch(item -> flashSaleService.isActive(item.getProduct().getId()))) {
+                try {
+                    for (OrderItem item : items) {
+                        flashSaleService.checkAvailable(item.getProduct().getId(), item.getQuantity());
+                    }
+                    Order order = orderService.createOrder(user, items, shippingAddress, paymentMethod, paymentIntentId);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(order);
+                } catch (OutOfStockException e) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+                }
+            }
+
+            // In async intake mode stock is allocated later; the client polls the status URL
+            if (orderIntakeService.isAsync()) {
+                Order order = orderIntakeService.accept(user, items, shippingAddress, paymentMethod, paymentIntentId);
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/orders/" + order.getId() + "/status")
+                    .body(order);
+            }
+
+            // In batch mode the order is committed together with concurrent checkouts
+            if (orderBatchWriter.isEnabled()) {
+                Order order = orderBatchWriter.submit(new OrderDraft(user, items, shippingAddress, paymentMethod, paymentIntentId));
+                return ResponseEntity.status(HttpStatus.CREATED).body(order);
+            }
+
             // Create the order
             Order order = orderService.createOrder(user, items, shippingAddress, paymentMethod, paymentIntentId);
             return ResponseEntity.status(HttpStatus.CREATED).body(order);
@@ -109,6 +242,35 @@ public class OrderController {
         }
     }
 
+    /**
+     * Move sharded orders to the shard their user hashes to, after shards were
+     * added; with fromPrimary, also the orders kept from before sharding.
+     */
+    @PostMapping("/reshard")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reshard(@RequestParam(defaultValue = "false") boolean fromPrimary) {
+        try {
+            return ResponseEntity.ok(orderReshardService.reshard(fromPrimary));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Archive the delivered and cancelled orders created before the given
+     * date, by default those older than orders.archive.after-days.
+     */
+    @PostMapping("/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> archive(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before) {
+        try {
+            return ResponseEntity.ok(orderArchiveService.archive(
+                before != null ? before.atStartOfDay() : orderArchiveService.defaultCutoff()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> updateOrderStatus(@PathVariable Long id, @RequestBody Map<String, String> statusRequest) {
@@ -3,7 +3,6 @@ package com.shoplite.backend.controller;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,10 +12,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.stripe.Stripe;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
+import com.shoplite.backend.service.PaymentGateway;
+import com.shoplite.backend.service.PaymentGatewayException;
+import com.shoplite.backend.service.PaymentIntentInfo;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -26,38 +24,26 @@ import org.springframework.security.core.Authentication;
 @CrossOrigin(origins = "*")
 public class PaymentController {
 
-    @Value("${stripe.api.key}")
-    private String stripeApiKey;
+    @Autowired
+    private PaymentGateway paymentGateway;
 
     @PostMapping("/create-payment-intent")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> createPaymentIntent(@RequestBody Map<String, Object> paymentRequest, Authentication authentication) {
         try {
-            Stripe.apiKey = stripeApiKey;
-
             Long amount = Long.parseLong(paymentRequest.get("amount").toString());
             String currency = "usd";
 
-            PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                .setAmount(amount)
-                .setCurrency(currency)
-                .setAutomaticPaymentMethods(
-                    PaymentIntentCreateParams.AutomaticPaymentMethods
-                        .builder()
-                        .setEnabled(true)
-                        .build()
-                )
-                .build();
-
-            PaymentIntent paymentIntent = PaymentIntent.create(params);
+            PaymentIntentInfo paymentIntent = paymentGateway.createPaymentIntent(amount, currency);
             
             Map<String, Object> response = new HashMap<>();
             response.put("clientSecret", paymentIntent.getClientSecret());
+            response.put("paymentIntentId", paymentIntent.getId());
             response.put("amount", amount);
             response.put("currency", currency);
 
             return ResponseEntity.ok(response);
-        } catch (StripeException e) {
+        } catch (PaymentGatewayException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
@@ -73,9 +59,8 @@ public class PaymentController {
     public ResponseEntity<?> confirmPayment(@RequestBody Map<String, Object> confirmRequest, Authentication authentication) {
         try {
             String paymentIntentId = confirmRequest.get("paymentIntentId").toString();
-            Stripe.apiKey = stripeApiKey;
 
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
+            PaymentIntentInfo paymentIntent = paymentGateway.retrievePaymentIntent(paymentIntentId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("status", paymentIntent.getStatus());
@@ -84,7 +69,7 @@ public class PaymentController {
             response.put("currency", paymentIntent.getCurrency());
 
             return ResponseEntity.ok(response);
-        } catch (StripeException e) {
+        } catch (PaymentGatewayException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
@@ -94,4 +79,4 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
-}
\ No newline at end of file
+}
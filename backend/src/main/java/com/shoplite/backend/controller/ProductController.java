@@ -0,0 +1,246 @@
+package com.shoplite.backend.controller;
+
+import com.shoplite.backend.model.Category;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.service.CategoryService;
+import com.shoplite.backend.service.FlashSaleService;
+import com.shoplite.backend.service.ProductBulkUpdateService;
+import com.shoplite.backend.service.ProductService;
+import com.shoplite.backend.service.RelatedProductsService;
+import com.shoplite.backend.service.StockReservationService;
+import com.shoplite.backend.service.TopSellersService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/products")
+@CrossOrigin(origins = "*")
+public class ProductController {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TopSellersService topSellersService;
+
+    @Autowired
+    private RelatedProductsService relatedProductsService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+
+    @GetMapping
+    public ResponseEntity<List<Product>> getAllProducts() {
+        return ResponseEntity.ok(productService.findAll());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+        return productService.viewById(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Products frequently bought together with this one.
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<?> getRelatedProducts(@PathVariable Long id, @RequestParam(defaultValue = "6") int limit) {
+        try {
+            return ResponseEntity.ok(relatedProductsService.getRelated(id, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Units that can still be promised to a new cart: stock minus other carts' reservations.
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<?> getAvailability(@PathVariable Long id) {
+        return productService.findById(id)
+            .map(product -> ResponseEntity.ok(stockReservationService.getAvailability(id, product.getStockQuantity())))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/category/{categoryId}")
+    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
+        return ResponseEntity.ok(productService.findByCategoryId(categoryId));
+    }
+
+    /**
+     * Best sellers of the last hour, day or week, from in-memory sketches.
+     */
+    @GetMapping("/top-sellers")
+    public ResponseEntity<?> getTopSellers(@RequestParam(defaultValue = "day") String window,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(topSellersService.getTopSellers(TopSellersService.Window.parse(window), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam String keyword) {
+        return ResponseEntity.ok(productService.searchByName(keyword));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createProduct(@RequestBody Map<String, Object> productRequest) {
+        try {
+            Product product = new Product();
+            applyRequest(product, productRequest);
+            return ResponseEntity.status(HttpStatus.CREATED).body(productService.save(product));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error creating product: " + e.getMessage());
+        }
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Map<String, Object> productRequest) {
+        try {
+            Optional<Product> productOpt = productService.findById(id);
+            if (productOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            Product product = productOpt.get();
+            applyRequest(product, productRequest);
+            Product saved = productService.save(product);
+            // Carts can be promised new stock straight away
+            stockReservationService.reconcile(id);
+            return ResponseEntity.ok(saved);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error updating product: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> deleteProduct(@PathVariable Long id) {
+        try {
+            productService.deleteById(id);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error deleting product: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Change many products in one request: either every price in a category by a
+     * percentage ({@code categoryId}, {@code pricePercent}), or a list of
+     * {@code items} with an id and a new price and/or stockQuantity.
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> bulkUpdate(@RequestBody Map<String, Object> bulkRequest) {
+        try {
+            if (bulkRequest.get("categoryId") != null) {
+                Long categoryId = Long.valueOf(bulkRequest.get("categoryId").toString());
+                if (categoryService.findById(categoryId).isEmpty()) {
+                    return ResponseEntity.notFound().build();
+                }
+                BigDecimal percent = new BigDecimal(bulkRequest.get("pricePercent").toString());
+                return ResponseEntity.ok(productBulkUpdateService.repriceCategory(categoryId, percent));
+            }
+
+            List<ProductBulkUpdateService.Change> changes = new ArrayList<>();
+            for (Map<String, Object> item : (List<Map<String, Object>>) bulkRequest.get("items")) {
+                Object price = item.get("price");
+                Object stockQuantity = item.get("stockQuantity");
+                changes.add(new ProductBulkUpdateService.Change(
+                    Long.valueOf(item.get("id").toString()),
+                    price != null ? new BigDecimal(price.toString()) : null,
+                    stockQuantity != null ? Integer.valueOf(stockQuantity.toString()) : null));
+            }
+            for (ProductBulkUpdateService.Change change : changes) {
+                if (change.stockQuantity() != null && flashSaleService.isActive(change.id())) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("Stop the flash sale of product " + change.id() + " before changing its stock");
+                }
+            }
+            Map<String, Object> result = productBulkUpdateService.apply(changes);
+            // As with single edits, carts can be promised new stock straight away
+            for (ProductBulkUpdateService.Change change : changes) {
+                if (change.stockQuantity() != null) {
+                    stockReservationService.reconcile(change.id());
+                }
+            }
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error updating products: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/flash-sales")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getFlashSales() {
+        return ResponseEntity.ok(flashSaleService.getStatus());
+    }
+
+    /**
+     * Sell a product from an in-memory stock counter instead of locking its row per order.
+     */
+    @PostMapping("/{id}/flash-sale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startFlashSale(@PathVariable Long id) {
+        if (productService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(flashSaleService.start(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}/flash-sale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> stopFlashSale(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(flashSaleService.stop(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    private void applyRequest(Product product, Map<String, Object> productRequest) {
+        product.setName((String) productRequest.get("name"));
+        product.setDescription((String) productRequest.get("description"));
+        product.setPrice(new BigDecimal(productRequest.get("price").toString()));
+        product.setStockQuantity(Integer.parseInt(productRequest.get("stockQuantity").toString()));
+        product.setImageUrl((String) productRequest.get("imageUrl"));
+
+        Object categoryId = productRequest.get("categoryId");
+        if (categoryId != null) {
+            Category category = categoryService.findById(Long.valueOf(categoryId.toString()))
+                .orElseThrow(() -> new RuntimeException("Category not found with id: " + categoryId));
+            product.setCategory(category);
+        } else {
+            product.setCategory(null);
+        }
+    }
+}
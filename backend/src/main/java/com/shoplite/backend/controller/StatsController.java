@@ -0,0 +1,89 @@
+package com.shoplite.backend.controller;
+
+import com.shoplite.backend.service.ProductCounterService;
+import com.shoplite.backend.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    static final int MAX_DAYS = 366;
+    static final int MAX_TOP = 100;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private ProductCounterService productCounterService;
+
+    /**
+     * Sales for the admin dashboard between two dates, inclusive; the last 30 days by default.
+     */
+    @GetMapping("/sales")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getSalesStats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                           @RequestParam(defaultValue = "10") int top) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        String error = validate(start, end);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
+        if (top < 1 || top > MAX_TOP) {
+            return ResponseEntity.badRequest().body("top must be between 1 and " + MAX_TOP);
+        }
+        return ResponseEntity.ok(salesRollupService.getSalesStats(start, end, top));
+    }
+
+    /**
+     * Recompute the rollups of a date range from the orders.
+     */
+    @PostMapping("/sales/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildSalesStats(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        String error = validate(from, to);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
+        try {
+            salesRollupService.rebuild(from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok(Map.of("from", from, "to", to));
+    }
+
+    /**
+     * Most viewed products with their add-to-cart counts; counters reach the database every few seconds.
+     */
+    @GetMapping("/products")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getProductStats(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_TOP) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_TOP);
+        }
+        return ResponseEntity.ok(productCounterService.getMostViewed(limit));
+    }
+
+    private static String validate(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return "from must not be after to";
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            return "Date range must not exceed " + MAX_DAYS + " days";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order moved out of the live tables by {@code OrderArchiveService}: the
+ * order with its items as gzipped JSON, plus the columns it is found by.
+ */
+@Data
+@Entity
+@Table(name = "orders_archive")
+public class ArchivedOrder {
+    // The order's id, not generated
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Order.OrderStatus status;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Size of the JSON before compression
+    @Column(nullable = false)
+    private Integer rawBytes;
+
+    @Column(nullable = false, length = 16777216)
+    private byte[] payload;
+}
@@ -0,0 +1,41 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Outcome of a request sent with an Idempotency-Key. The row is inserted
+ * IN_FLIGHT before the request runs, which doubles as the lock against
+ * concurrent retries, and holds the response to replay once COMPLETED.
+ */
+@Data
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt"))
+public class IdempotencyRecord {
+    // SHA-256 of the caller and the client-supplied key
+    @Id
+    @Column(length = 64)
+    private String id;
+    
+    // SHA-256 of method, path and body, so a key cannot be reused for a different request
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    
+    private Integer responseStatus;
+    private String contentType;
+    
+    @Column(length = 1048576)
+    private byte[] responseBody;
+    
+    // Timestamps
+    private java.time.LocalDateTime createdAt;
+    private java.time.LocalDateTime expiresAt;
+    
+    public enum Status {
+        IN_FLIGHT, COMPLETED
+    }
+}
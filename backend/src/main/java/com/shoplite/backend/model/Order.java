@@ -8,10 +8,15 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_user_created", columnList = "user_id, createdAt DESC, id DESC"),
+    @Index(name = "idx_orders_created_at", columnList = "createdAt")
+})
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence ids let Hibernate batch order inserts; allocationSize matches the sequence increment
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne
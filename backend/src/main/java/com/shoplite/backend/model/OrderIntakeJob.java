@@ -0,0 +1,56 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Durable queue entry for an order accepted in async intake mode. Workers
+ * claim QUEUED jobs, allocate stock and move the order to PROCESSING.
+ */
+@Data
+@Entity
+@Table(name = "order_intake_jobs", indexes = @Index(name = "idx_order_intake_jobs_ready", columnList = "status, availableAt"))
+public class OrderIntakeJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true)
+    private Long orderId;
+    
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.QUEUED;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(length = 500)
+    private String lastError;
+    
+    // Not claimed before this time; pushed back after a failed attempt
+    private java.time.LocalDateTime availableAt;
+    private java.time.LocalDateTime claimedAt;
+    
+    // Timestamps
+    private java.time.LocalDateTime createdAt;
+    private java.time.LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = java.time.LocalDateTime.now();
+        updatedAt = createdAt;
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = java.time.LocalDateTime.now();
+    }
+    
+    public enum Status {
+        QUEUED, CLAIMED, DONE, FAILED
+    }
+}
@@ -0,0 +1,44 @@
+package com.shoplite.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * What an order list shows of an order, kept next to the order by
+ * {@code OrderSummaryService} so lists never load items or products.
+ */
+@Data
+@Entity
+@Table(name = "order_summaries", indexes = {
+    @Index(name = "idx_order_summaries_user_created", columnList = "user_id, createdAt DESC, order_id DESC")
+})
+public class OrderSummary {
+    // The order's id, not generated
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Order.OrderStatus status;
+
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+
+    // Units across all items
+    @Column(nullable = false)
+    private Integer itemCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,45 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * A domain event written in the same transaction as the change it describes.
+ * The outbox relay publishes unpublished rows in id order and then stamps
+ * {@code publishedAt}, so an event is delivered at least once and only if
+ * its transaction committed.
+ */
+@Data
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_published_id", columnList = "publishedAt, id"))
+public class OutboxEvent {
+    // Identity rather than a pooled sequence: a later transaction always gets a
+    // larger id, which keeps the events of one aggregate in order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // e.g. "Order" or "Product"
+    @Column(nullable = false, length = 50)
+    private String aggregateType;
+    
+    @Column(nullable = false)
+    private Long aggregateId;
+    
+    // e.g. "OrderCreated", "OrderStatusChanged", "StockChanged"
+    @Column(nullable = false, length = 50)
+    private String eventType;
+    
+    // JSON
+    @Column(nullable = false, length = 4000)
+    private String payload;
+    
+    // Timestamps
+    private java.time.LocalDateTime createdAt;
+    private java.time.LocalDateTime publishedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = java.time.LocalDateTime.now();
+    }
+}
@@ -0,0 +1,26 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running view and add-to-cart counts of a product. Written in batches by
+ * {@link com.shoplite.backend.service.ProductCounterService}, never per request.
+ */
+@Data
+@Entity
+@Table(name = "product_stats", indexes = @Index(name = "idx_product_stats_views", columnList = "views DESC"))
+public class ProductStats {
+    @Id
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Long views = 0L;
+    
+    @Column(nullable = false)
+    private Long addToCarts = 0L;
+    
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders, units and revenue for one day, kept up to date as orders are
+ * placed and cancelled. The fold job and rebuilds lock this row before
+ * touching the day's product and category rollups.
+ */
+@Data
+@Entity
+@Table(name = "sales_daily")
+public class SalesDaily {
+    @Id
+    @Column(name = "sales_day")
+    private LocalDate day;
+    
+    @Column(nullable = false)
+    private Long orders = 0L;
+    
+    @Column(nullable = false)
+    private Long units = 0L;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
@@ -0,0 +1,37 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders containing a category, units sold and revenue for one day.
+ * Products without a category are counted under category id 0.
+ */
+@Data
+@Entity
+@Table(name = "sales_daily_category", uniqueConstraints = @UniqueConstraint(columnNames = {"sales_day", "category_id"}))
+public class SalesDailyCategory {
+    public static final long UNCATEGORIZED = 0L;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "sales_day", nullable = false)
+    private LocalDate day;
+    
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+    
+    @Column(nullable = false)
+    private Long orders = 0L;
+    
+    @Column(nullable = false)
+    private Long units = 0L;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
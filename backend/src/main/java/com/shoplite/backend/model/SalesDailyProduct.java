@@ -0,0 +1,34 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders containing a product, units sold and revenue for one day.
+ */
+@Data
+@Entity
+@Table(name = "sales_daily_product", uniqueConstraints = @UniqueConstraint(columnNames = {"sales_day", "product_id"}))
+public class SalesDailyProduct {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "sales_day", nullable = false)
+    private LocalDate day;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Long orders = 0L;
+    
+    @Column(nullable = false)
+    private Long units = 0L;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
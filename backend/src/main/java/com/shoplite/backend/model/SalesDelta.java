@@ -0,0 +1,46 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A change to one rollup row, written with the order change that caused it
+ * and folded into {@link SalesDaily}, {@link SalesDailyProduct} or
+ * {@link SalesDailyCategory} later. Only ever inserted by checkouts, so they
+ * never wait on each other for a rollup row.
+ */
+@Data
+@Entity
+@Table(name = "sales_delta", indexes = @Index(name = "idx_sales_delta_day", columnList = "sales_day, id"))
+public class SalesDelta {
+    public enum Scope {
+        DAY, PRODUCT, CATEGORY
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "sales_day", nullable = false)
+    private LocalDate day;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Scope scope;
+    
+    // Product or category id; 0 for the day total
+    @Column(name = "key_id", nullable = false)
+    private Long keyId;
+    
+    @Column(nullable = false)
+    private Long orders;
+    
+    @Column(nullable = false)
+    private Long units;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+}
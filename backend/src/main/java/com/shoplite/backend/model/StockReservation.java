@@ -0,0 +1,41 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Units of a product held for a user's cart until {@code expiresAt}. Held
+ * units are still in the product's stock_quantity but no longer in its
+ * {@link StockShard}s, so nobody else can be promised them.
+ */
+@Data
+@Entity
+@Table(name = "stock_reservations",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "product_id"}),
+    indexes = @Index(name = "idx_stock_reservations_expires_at", columnList = "expiresAt"))
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,27 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One slice of a product's available-to-promise units: its stock minus what
+ * carts have reserved. Spread over several rows so that concurrent
+ * reservations of the same product update different rows.
+ */
+@Data
+@Entity
+@Table(name = "stock_shards", uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "shard"}))
+public class StockShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Integer shard;
+    
+    @Column(nullable = false)
+    private Integer available = 0;
+}
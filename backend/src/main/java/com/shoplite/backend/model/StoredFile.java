@@ -0,0 +1,39 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name = "stored_files")
+public class StoredFile {
+    @Id
+    @Column(length = 64)
+    private String sha256;
+    
+    // Path relative to file.upload.dir, e.g. "ab/cd/abcd..."
+    @Column(nullable = false)
+    private String storagePath;
+    
+    private String contentType;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    // Number of products whose imageUrl points at this content
+    @Column(nullable = false)
+    private Integer refCount = 0;
+    
+    // Timestamps
+    private java.time.LocalDateTime createdAt;
+    
+    // Last time this content was uploaded, including uploads deduplicated onto this row;
+    // the orphan grace period counts from here
+    private java.time.LocalDateTime lastStoredAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = java.time.LocalDateTime.now();
+        lastStoredAt = createdAt;
+    }
+}
@@ -0,0 +1,19 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Maps a legacy flat upload name (random UUID + extension) to the
+ * content-addressed file that now holds its bytes.
+ */
+@Data
+@Entity
+@Table(name = "stored_file_aliases")
+public class StoredFileAlias {
+    @Id
+    private String filename;
+    
+    @Column(nullable = false, length = 64)
+    private String sha256;
+}
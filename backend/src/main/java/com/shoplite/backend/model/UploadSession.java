@@ -0,0 +1,51 @@
+package com.shoplite.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Server-side state of a resumable chunked upload. The bytes live in a
+ * preallocated part file; this row only records which chunks have arrived.
+ */
+@Data
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    private String filename;
+    
+    @Column(nullable = false)
+    private String contentType;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    @Column(nullable = false)
+    private Integer chunkSize;
+    
+    // BitSet of received chunk indexes
+    @Column(nullable = false, length = 1024)
+    private byte[] receivedChunks = new byte[0];
+    
+    // Timestamps
+    private java.time.LocalDateTime createdAt;
+    private java.time.LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = java.time.LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = java.time.LocalDateTime.now();
+    }
+    
+    public int getChunkCount() {
+        return (int) ((size + chunkSize - 1) / chunkSize);
+    }
+}
@@ -0,0 +1,15 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    @Query("SELECT MAX(a.createdAt) FROM ArchivedOrder a")
+    LocalDateTime findLatestCreatedAt();
+}
@@ -0,0 +1,43 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Plain INSERT rather than save(), which would merge into a row a concurrent retry just claimed
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (id, request_hash, status, created_at, expires_at) " +
+                   "VALUES (:id, :requestHash, 'IN_FLIGHT', :createdAt, :expiresAt)", nativeQuery = true)
+    int insertInFlight(@Param("id") String id, @Param("requestHash") String requestHash,
+                       @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.responseStatus = :responseStatus, " +
+           "r.contentType = :contentType, r.responseBody = :responseBody " +
+           "WHERE r.id = :id AND r.createdAt = :createdAt")
+    int complete(@Param("id") String id, @Param("createdAt") LocalDateTime createdAt,
+                 @Param("status") IdempotencyRecord.Status status, @Param("responseStatus") int responseStatus,
+                 @Param("contentType") String contentType, @Param("responseBody") byte[] responseBody);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    // Removes the record only if it still is the attempt that created it
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.createdAt = :createdAt")
+    int deleteAttempt(@Param("id") String id, @Param("createdAt") LocalDateTime createdAt);
+}
@@ -0,0 +1,35 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.OrderIntakeJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderIntakeJobRepository extends JpaRepository<OrderIntakeJob, Long> {
+    Optional<OrderIntakeJob> findByOrderId(Long orderId);
+
+    @Query("SELECT j.id FROM OrderIntakeJob j WHERE j.status = 'QUEUED' AND j.availableAt <= :now ORDER BY j.id")
+    List<Long> findReadyIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Only one worker, on any node, can move a job out of QUEUED
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderIntakeJob j SET j.status = 'CLAIMED', j.claimedAt = :now, j.attempts = j.attempts + 1 " +
+           "WHERE j.id = :id AND j.status = 'QUEUED'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Jobs claimed by a node that died mid-allocation
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderIntakeJob j SET j.status = 'QUEUED' WHERE j.status = 'CLAIMED' AND j.claimedAt < :cutoff")
+    int requeueStale(@Param("cutoff") LocalDateTime cutoff);
+}
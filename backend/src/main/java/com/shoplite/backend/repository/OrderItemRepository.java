@@ -2,12 +2,47 @@ package com.shoplite.backend.repository;
 
 import com.shoplite.backend.model.Order;
 import com.shoplite.backend.model.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
+    List<OrderItem> findByOrderId(Long orderId);
+
+    @Query("SELECT i FROM OrderItem i JOIN FETCH i.product p LEFT JOIN FETCH p.category " +
+           "WHERE i.order IN :orders ORDER BY i.id")
+    List<OrderItem> findWithProductByOrderIn(@Param("orders") Collection<Order> orders);
+
+    // orderId, productId of every line of orders not cancelled, grouped by order; a forward-only cursor
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i.order.id, i.product.id FROM OrderItem i WHERE i.order.status <> " +
+           "com.shoplite.backend.model.Order$OrderStatus.CANCELLED ORDER BY i.order.id")
+    Stream<Object[]> streamOrderProducts();
+
+    // productId, orders, units, revenue over the orders placed in [from, to) and not cancelled
+    @Query("SELECT i.product.id, COUNT(DISTINCT o.id), SUM(i.quantity), SUM(i.priceAtPurchase * i.quantity) " +
+           "FROM OrderItem i JOIN i.order o WHERE o.createdAt >= :from AND o.createdAt < :to " +
+           "AND o.status <> com.shoplite.backend.model.Order$OrderStatus.CANCELLED GROUP BY i.product.id")
+    List<Object[]> sumByProduct(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // categoryId (0 when uncategorized), orders, units, revenue, as above
+    @Query("SELECT COALESCE(c.id, 0), COUNT(DISTINCT o.id), SUM(i.quantity), SUM(i.priceAtPurchase * i.quantity) " +
+           "FROM OrderItem i JOIN i.order o JOIN i.product p LEFT JOIN p.category c " +
+           "WHERE o.createdAt >= :from AND o.createdAt < :to " +
+           "AND o.status <> com.shoplite.backend.model.Order$OrderStatus.CANCELLED GROUP BY COALESCE(c.id, 0)")
+    List<Object[]> sumByCategory(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
\ No newline at end of file
@@ -2,12 +2,44 @@ package com.shoplite.backend.repository;
 
 import com.shoplite.backend.model.Order;
 import com.shoplite.backend.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUser(User user);
     List<Order> findByUserOrderByCreatedAtDesc(User user);
-}
\ No newline at end of file
+
+    // Loads items, products and categories in the same query instead of one query per order
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product p " +
+           "LEFT JOIN FETCH p.category WHERE o.user = :user ORDER BY o.createdAt DESC")
+    List<Order> findWithItemsByUser(@Param("user") User user);
+
+    // Forward-only cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o JOIN FETCH o.user WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.id")
+    Stream<Order> streamByCreatedAtRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // orders, revenue over the orders placed in [from, to) and not cancelled
+    @Query("SELECT COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.createdAt >= :from AND o.createdAt < :to " +
+           "AND o.status <> com.shoplite.backend.model.Order$OrderStatus.CANCELLED")
+    List<Object[]> sumBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Compare-and-set on status; returns 0 if the order has already moved on
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = LOCAL DATETIME WHERE o.id = :id AND o.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") Order.OrderStatus from, @Param("to") Order.OrderStatus to);
+}
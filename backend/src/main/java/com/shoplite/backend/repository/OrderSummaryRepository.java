@@ -0,0 +1,31 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    // Keyset pagination over (created_at, order_id), served by idx_order_summaries_user_created
+    @Query("SELECT s FROM OrderSummary s WHERE s.userId = :userId ORDER BY s.createdAt DESC, s.id DESC")
+    List<OrderSummary> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT s FROM OrderSummary s WHERE s.userId = :userId " +
+           "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) " +
+           "ORDER BY s.createdAt DESC, s.id DESC")
+    List<OrderSummary> findPageByUserIdAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OrderSummary s SET s.status = :status, s.updatedAt = LOCAL DATETIME WHERE s.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") Order.OrderStatus status);
+}
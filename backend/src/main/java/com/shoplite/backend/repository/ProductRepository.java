@@ -1,12 +1,50 @@
 package com.shoplite.backend.repository;
 
 import com.shoplite.backend.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategoryId(Long categoryId);
     List<Product> findByNameContainingIgnoreCase(String keyword);
-}
\ No newline at end of file
+
+    // The stored URL: pending changes to the product are not flushed first
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT p.imageUrl FROM Product p WHERE p.id = :id")
+    String findImageUrlById(@Param("id") Long id);
+
+    @Query("SELECT p.imageUrl FROM Product p WHERE p.imageUrl IS NOT NULL")
+    List<String> findAllImageUrls();
+
+    // Decrements only while enough stock is left, so concurrent orders cannot oversell
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = LOCAL DATETIME " +
+           "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id")
+    Integer findStockQuantityById(@Param("id") Long id);
+
+    // Unconditional; for writing back stock already taken elsewhere
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :delta, p.updatedAt = LOCAL DATETIME WHERE p.id = :id")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
+
+    // Writes back units already sold elsewhere, but never below zero
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = CASE WHEN p.stockQuantity > :quantity " +
+           "THEN p.stockQuantity - :quantity ELSE 0 END, p.updatedAt = LOCAL DATETIME WHERE p.id = :id")
+    int drainStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = :categoryId ORDER BY p.id")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+}
@@ -0,0 +1,16 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.ProductStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductStatsRepository extends JpaRepository<ProductStats, Long> {
+
+    @Query("SELECT s FROM ProductStats s ORDER BY s.views DESC, s.productId")
+    List<ProductStats> findMostViewed(Pageable pageable);
+}
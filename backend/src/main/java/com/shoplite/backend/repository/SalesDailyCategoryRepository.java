@@ -0,0 +1,31 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.SalesDailyCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDailyCategoryRepository extends JpaRepository<SalesDailyCategory, Long> {
+
+    @Modifying
+    @Query("UPDATE SalesDailyCategory r SET r.orders = r.orders + :orders, r.units = r.units + :units, " +
+           "r.revenue = r.revenue + :revenue WHERE r.day = :day AND r.categoryId = :categoryId")
+    int increment(@Param("day") LocalDate day, @Param("categoryId") Long categoryId, @Param("orders") long orders,
+                  @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("DELETE FROM SalesDailyCategory r WHERE r.day = :day")
+    int deleteByDay(@Param("day") LocalDate day);
+
+    // categoryId, orders, units, revenue
+    @Query("SELECT r.categoryId, SUM(r.orders), SUM(r.units), SUM(r.revenue) FROM SalesDailyCategory r " +
+           "WHERE r.day BETWEEN :from AND :to GROUP BY r.categoryId ORDER BY SUM(r.revenue) DESC")
+    List<Object[]> sumByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,32 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.SalesDailyProduct;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDailyProductRepository extends JpaRepository<SalesDailyProduct, Long> {
+
+    @Modifying
+    @Query("UPDATE SalesDailyProduct r SET r.orders = r.orders + :orders, r.units = r.units + :units, " +
+           "r.revenue = r.revenue + :revenue WHERE r.day = :day AND r.productId = :productId")
+    int increment(@Param("day") LocalDate day, @Param("productId") Long productId, @Param("orders") long orders,
+                  @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("DELETE FROM SalesDailyProduct r WHERE r.day = :day")
+    int deleteByDay(@Param("day") LocalDate day);
+
+    // productId, orders, units, revenue; best sellers first
+    @Query("SELECT r.productId, SUM(r.orders), SUM(r.units), SUM(r.revenue) FROM SalesDailyProduct r " +
+           "WHERE r.day BETWEEN :from AND :to GROUP BY r.productId ORDER BY SUM(r.revenue) DESC, r.productId")
+    List<Object[]> sumByProduct(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+}
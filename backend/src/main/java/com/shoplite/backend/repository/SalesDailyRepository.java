@@ -0,0 +1,24 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.SalesDaily;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SalesDailyRepository extends JpaRepository<SalesDaily, LocalDate> {
+
+    List<SalesDaily> findByDayBetweenOrderByDay(LocalDate from, LocalDate to);
+
+    // Serializes the fold job and rebuilds for the day
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM SalesDaily d WHERE d.day = :day")
+    Optional<SalesDaily> lockByDay(@Param("day") LocalDate day);
+}
@@ -0,0 +1,25 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.SalesDelta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDeltaRepository extends JpaRepository<SalesDelta, Long> {
+
+    @Query("SELECT DISTINCT d.day FROM SalesDelta d ORDER BY d.day")
+    List<LocalDate> findPendingDays();
+
+    List<SalesDelta> findByDayOrderById(LocalDate day, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM SalesDelta d WHERE d.day = :day")
+    int deleteByDay(@Param("day") LocalDate day);
+}
@@ -0,0 +1,47 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.userId = :userId AND r.productId = :productId")
+    Optional<StockReservation> lockByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.userId = :userId ORDER BY r.productId")
+    List<StockReservation> lockByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT r FROM StockReservation r WHERE r.expiresAt < :now ORDER BY r.productId, r.id")
+    List<StockReservation> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Deletes nothing if the reservation was renewed or checked out meanwhile
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.id = :id AND r.expiresAt < :now")
+    int deleteExpired(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT COALESCE(SUM(r.quantity), 0) FROM StockReservation r WHERE r.productId = :productId")
+    long sumQuantity(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    // stock_quantity and reserved units read in one statement, so both come from the same snapshot
+    @Query("SELECT p.stockQuantity, (SELECT COALESCE(SUM(r.quantity), 0) FROM StockReservation r WHERE r.productId = p.id) " +
+           "FROM Product p WHERE p.id = :productId")
+    List<Object[]> findStockAndReserved(@Param("productId") Long productId);
+}
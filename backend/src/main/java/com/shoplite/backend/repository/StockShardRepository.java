@@ -0,0 +1,46 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.StockShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockShardRepository extends JpaRepository<StockShard, Long> {
+
+    boolean existsByProductId(Long productId);
+
+    // Takes only from a shard that can cover the whole quantity
+    @Modifying
+    @Query("UPDATE StockShard s SET s.available = s.available - :quantity " +
+           "WHERE s.productId = :productId AND s.shard = :shard AND s.available >= :quantity")
+    int take(@Param("productId") Long productId, @Param("shard") int shard, @Param("quantity") int quantity);
+
+    @Query("SELECT s.available FROM StockShard s WHERE s.productId = :productId AND s.shard = :shard")
+    Integer findAvailable(@Param("productId") Long productId, @Param("shard") int shard);
+
+    @Modifying
+    @Query("UPDATE StockShard s SET s.available = s.available + :quantity WHERE s.productId = :productId AND s.shard = :shard")
+    int give(@Param("productId") Long productId, @Param("shard") int shard, @Param("quantity") int quantity);
+
+    // In shard order, the same order in which reservations gather from several shards
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockShard s WHERE s.productId = :productId ORDER BY s.shard")
+    List<StockShard> lockByProductId(@Param("productId") Long productId);
+
+    @Query("SELECT COALESCE(SUM(s.available), 0) FROM StockShard s WHERE s.productId = :productId")
+    long sumAvailable(@Param("productId") Long productId);
+
+    @Query("SELECT DISTINCT s.productId FROM StockShard s ORDER BY s.productId")
+    List<Long> findProductIds();
+
+    @Modifying
+    @Query("DELETE FROM StockShard s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,17 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.StoredFileAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StoredFileAliasRepository extends JpaRepository<StoredFileAlias, String> {
+
+    // The foreign key cascades on Postgres; this also covers schemas created without it
+    @Modifying
+    @Query("DELETE FROM StoredFileAlias a WHERE a.sha256 = :sha256")
+    int deleteBySha256(@Param("sha256") String sha256);
+}
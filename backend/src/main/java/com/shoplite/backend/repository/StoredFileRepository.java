@@ -0,0 +1,32 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+    List<StoredFile> findByRefCountLessThanEqualAndLastStoredAtBefore(Integer refCount, LocalDateTime lastStoredAt);
+
+    // Restarts the orphan grace period of content uploaded again
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.lastStoredAt = :now WHERE f.sha256 = :sha256")
+    int touch(@Param("sha256") String sha256, @Param("now") LocalDateTime now);
+
+    // Deletes the row only if it is still unreferenced and was not uploaded again since the cutoff
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.sha256 = :sha256 AND f.refCount <= 0 AND f.lastStoredAt < :cutoff")
+    int deleteIfUnreferenced(@Param("sha256") String sha256, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount + :delta WHERE f.sha256 = :sha256")
+    int adjustRefCount(@Param("sha256") String sha256, @Param("delta") int delta);
+}
@@ -0,0 +1,13 @@
+package com.shoplite.backend.repository;
+
+import com.shoplite.backend.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    List<UploadSession> findByUpdatedAtBefore(LocalDateTime updatedAt);
+}
@@ -52,6 +52,16 @@ public class AuthService {
         return response;
     }
 
+    /**
+     * Resolve the authenticated principal (a Spring Security UserDetails keyed
+     * by email) to the persisted User.
+     */
+    public User getCurrentUser(Authentication authentication) {
+        String email = authentication.getName();
+        return userRepository.findByEmail(email)
+            .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+    }
+
     public User register(User user, String role) {
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new RuntimeException("Email is already taken!");
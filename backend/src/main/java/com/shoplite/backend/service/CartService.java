@@ -6,6 +6,7 @@ import com.shoplite.backend.model.Product;
 import com.shoplite.backend.model.User;
 import com.shoplite.backend.repository.CartItemRepository;
 import com.shoplite.backend.repository.CartRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +17,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "shoplite.cart", histogram = true)
 public class CartService {
 
     @Autowired
@@ -26,6 +28,12 @@ public class CartService {
     
     @Autowired
     private ProductService productService;
+
+    @Autowired
+    private ProductCounterService productCounterService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
     
     /**
      * Get or create a user's shopping cart
@@ -58,21 +66,21 @@ public class CartService {
         Product product = productService.findById(productId)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
         
-        // Check if there is enough stock
-        if (product.getStockQuantity() < quantity) {
-            throw new RuntimeException("Not enough stock available for: " + product.getName());
-        }
-        
         // Get or create the user's cart
         Cart cart = getOrCreateCart(user);
         
         // Check if the product is already in the cart
         Optional<CartItem> existingItemOpt = cartItemRepository.findByCartAndProduct(cart, product);
         
+        // Hold the units for the whole line, or fail if they are not available
+        int lineQuantity = existingItemOpt.map(CartItem::getQuantity).orElse(0) + quantity;
+        stockReservationService.reserve(user.getId(), product, lineQuantity);
+        productCounterService.recordAddToCart(productId);
+        
         if (existingItemOpt.isPresent()) {
             // Update existing item quantity
             CartItem existingItem = existingItemOpt.get();
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
+            existingItem.setQuantity(lineQuantity);
             CartItem savedItem = cartItemRepository.save(existingItem);
             
             // Recalculate cart total
@@ -115,15 +123,13 @@ public class CartService {
         Product product = productService.findById(productId)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
         
-        // Check if there is enough stock
-        if (product.getStockQuantity() < quantity) {
-            throw new RuntimeException("Not enough stock available for: " + product.getName());
-        }
-        
         // Find the cart item
         CartItem cartItem = cartItemRepository.findByCartAndProduct(cart, product)
             .orElseThrow(() -> new RuntimeException("Product not found in cart"));
         
+        // Hold the new quantity, or fail if it is not available
+        stockReservationService.reserve(user.getId(), product, quantity);
+        
         // Update quantity
         cartItem.setQuantity(quantity);
         CartItem savedItem = cartItemRepository.save(cartItem);
@@ -152,6 +158,7 @@ public class CartService {
         
         // Remove the item from the cart
         cartItemRepository.deleteByCartAndProduct(cart, product);
+        stockReservationService.release(user.getId(), productId);
         
         // Refresh cart items and recalculate total
         cart.getItems().removeIf(item -> item.getProduct().getId().equals(productId));
@@ -168,6 +175,7 @@ public class CartService {
         if (cartOpt.isPresent()) {
             Cart cart = cartOpt.get();
             cart.getItems().clear();
+            stockReservationService.releaseAll(user.getId());
             cart.setTotalAmount(BigDecimal.ZERO);
             cartRepository.save(cart);
         }
@@ -2,35 +2,116 @@ package com.shoplite.backend.service;
 
 import com.shoplite.backend.model.Category;
 import com.shoplite.backend.repository.CategoryRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Categories are read by every category listing and product edit but
+ * rarely change, so lookups are map reads on an immutable snapshot. It is
+ * loaded on first use and replaced whole once a save or delete commits, here
+ * directly and on other instances through the {@link InvalidationBus}. It is
+ * also reloaded every {@code reference-data.refresh-ms} in case a message was
+ * lost. Lookups hand out copies, so callers cannot alter the snapshot.
+ */
 @Service
 public class CategoryService {
 
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    private record Snapshot(List<Category> all, Map<Long, Category> byId, Map<String, Category> byName) {
+    }
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        invalidationBus.addListener("Category", invalidations -> refresh());
+    }
+
     public List<Category> findAll() {
-        return categoryRepository.findAll();
+        return snapshot().all().stream().map(CategoryService::copy).toList();
     }
 
     public Optional<Category> findById(Long id) {
-        return categoryRepository.findById(id);
+        return Optional.ofNullable(snapshot().byId().get(id)).map(CategoryService::copy);
     }
-    
+
     public Optional<Category> findByName(String name) {
-        return categoryRepository.findByName(name);
+        return Optional.ofNullable(snapshot().byName().get(name)).map(CategoryService::copy);
     }
 
     public Category save(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        refreshAfterCommit();
+        invalidationBus.invalidate("Category", saved.getId());
+        return saved;
     }
 
     public void deleteById(Long id) {
         categoryRepository.deleteById(id);
+        refreshAfterCommit();
+        invalidationBus.invalidate("Category", id);
+    }
+
+    /**
+     * Reload the snapshot. Synchronized, so a slow reload cannot replace the
+     * result of a later one.
+     */
+    @Scheduled(fixedDelayString = "${reference-data.refresh-ms:300000}")
+    public synchronized void refresh() {
+        List<Category> all = categoryRepository.findAll(Sort.by("id")).stream().map(CategoryService::copy).toList();
+        snapshot = new Snapshot(all,
+            all.stream().collect(Collectors.toUnmodifiableMap(Category::getId, Function.identity())),
+            all.stream().collect(Collectors.toUnmodifiableMap(Category::getName, Function.identity())));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    // Detached from the persistence context and from the category's products
+    private static Category copy(Category category) {
+        Category copy = new Category();
+        copy.setId(category.getId());
+        copy.setName(category.getName());
+        copy.setDescription(category.getDescription());
+        return copy;
     }
-}
\ No newline at end of file
+}
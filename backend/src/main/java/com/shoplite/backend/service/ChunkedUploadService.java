@@ -0,0 +1,246 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.StoredFile;
+import com.shoplite.backend.model.UploadSession;
+import com.shoplite.backend.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Resumable chunked uploads: init a session, PUT chunks at their offsets in
+ * any order, then complete. Each chunk is streamed straight from the request
+ * into a preallocated part file through a {@link FileChannel}, so nothing is
+ * buffered in memory and a dropped connection only loses the chunk in flight.
+ */
+@Service
+public class ChunkedUploadService {
+
+    public static final Set<String> ALLOWED_CONTENT_TYPES = Set.of(
+        "image/jpeg", "image/png", "image/gif", "image/webp"
+    );
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    // Keeps the received-chunk bitmap small enough for one column
+    private static final int MAX_CHUNKS = 8192;
+
+    // Enough to tell every allowed image type apart by its magic number
+    private static final int SNIFF_BYTES = 12;
+
+    private final Object[] locks = new Object[32];
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Value("${file.upload.max-size:10MB}")
+    private DataSize maxSize;
+
+    @Value("${file.upload.chunk-size:1MB}")
+    private DataSize defaultChunkSize;
+
+    @Value("${file.upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    public ChunkedUploadService() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Validate the declared size and type and preallocate the part file.
+     */
+    public UploadSession init(String filename, String contentType, long size) throws IOException {
+        validateContentType(contentType);
+        validateSize(size);
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setFilename(filename);
+        session.setContentType(contentType);
+        session.setSize(size);
+        session.setChunkSize((int) Math.max(defaultChunkSize.toBytes(), (size + MAX_CHUNKS - 1) / MAX_CHUNKS));
+
+        try (RandomAccessFile file = new RandomAccessFile(partFile(session.getId()).toFile(), "rw")) {
+            file.setLength(size);
+        }
+        return uploadSessionRepository.save(session);
+    }
+
+    public UploadSession getSession(String uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+            .orElseThrow(() -> new RuntimeException("Upload session not found: " + uploadId));
+    }
+
+    /**
+     * Write one chunk at its offset. The length must be known up front so the
+     * request can be rejected before any bytes are read.
+     */
+    public UploadSession putChunk(String uploadId, long offset, long length, InputStream body) throws IOException {
+        UploadSession session = getSession(uploadId);
+        int index = chunkIndex(session, offset, length);
+
+        ReadableByteChannel source = Channels.newChannel(body);
+        try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE)) {
+            long written = 0;
+            while (written < length) {
+                // The request stream is blocking, so a zero-byte transfer means the client went away
+                long n = channel.transferFrom(source, offset + written, length - written);
+                if (n <= 0) {
+                    break;
+                }
+                written += n;
+            }
+            if (written != length) {
+                throw new IllegalArgumentException("Chunk truncated: received " + written + " of " + length + " bytes");
+            }
+            channel.force(false);
+        }
+
+        // Serialize bitmap updates for the same session
+        synchronized (lockFor(uploadId)) {
+            UploadSession current = getSession(uploadId);
+            BitSet received = BitSet.valueOf(current.getReceivedChunks());
+            received.set(index);
+            current.setReceivedChunks(received.toByteArray());
+            return uploadSessionRepository.save(current);
+        }
+    }
+
+    /**
+     * Once every chunk is present, verify the file really is the declared
+     * image type and move it into content-addressed storage.
+     */
+    public StoredFile complete(String uploadId) throws IOException {
+        UploadSession session = getSession(uploadId);
+        BitSet received = BitSet.valueOf(session.getReceivedChunks());
+        if (received.cardinality() != session.getChunkCount()) {
+            throw new IllegalStateException("Upload incomplete: " + received.cardinality()
+                + " of " + session.getChunkCount() + " chunks received");
+        }
+
+        Path part = partFile(uploadId);
+        String sniffed = sniffContentType(part);
+        if (!session.getContentType().equals(sniffed)) {
+            throw new IllegalArgumentException("File content does not match declared type " + session.getContentType());
+        }
+
+        StoredFile stored = fileStorageService.commit(part, fileStorageService.hash(part), session.getSize(), session.getContentType());
+        uploadSessionRepository.delete(session);
+        return stored;
+    }
+
+    public void abort(String uploadId) throws IOException {
+        Files.deleteIfExists(partFile(uploadId));
+        uploadSessionRepository.deleteById(uploadId);
+    }
+
+    /**
+     * Drop sessions that have not seen a chunk within the TTL.
+     */
+    @Scheduled(fixedDelayString = "${file.upload.session-cleanup-ms:3600000}")
+    public void expireStaleSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(sessionTtlHours);
+        for (UploadSession session : uploadSessionRepository.findByUpdatedAtBefore(cutoff)) {
+            try {
+                abort(session.getId());
+            } catch (IOException e) {
+                log.warn("Could not remove stale upload {}", session.getId(), e);
+            }
+        }
+    }
+
+    public void validateContentType(String contentType) {
+        if (contentType == null || !ALLOWED_CONTENT_TYPES.contains(contentType)) {
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+    }
+
+    public void validateSize(long size) {
+        if (size <= 0 || size > maxSize.toBytes()) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxSize.toBytes() + " bytes");
+        }
+    }
+
+    private int chunkIndex(UploadSession session, long offset, long length) {
+        if (offset < 0 || offset >= session.getSize() || offset % session.getChunkSize() != 0) {
+            throw new IllegalArgumentException("Offset must be a multiple of " + session.getChunkSize() + " within the file");
+        }
+        long expected = Math.min(session.getChunkSize(), session.getSize() - offset);
+        if (length != expected) {
+            throw new IllegalArgumentException("Chunk at offset " + offset + " must be " + expected + " bytes");
+        }
+        return (int) (offset / session.getChunkSize());
+    }
+
+    /**
+     * Check that an upload stream starts like the declared image type. The
+     * stream must support mark, and is reset to where it was.
+     */
+    public void validateContent(InputStream in, String contentType) throws IOException {
+        in.mark(SNIFF_BYTES);
+        byte[] header = in.readNBytes(SNIFF_BYTES);
+        in.reset();
+        if (!contentType.equals(sniffContentType(header))) {
+            throw new IllegalArgumentException("File content does not match declared type " + contentType);
+        }
+    }
+
+    private static String sniffContentType(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return sniffContentType(in.readNBytes(SNIFF_BYTES));
+        }
+    }
+
+    private static String sniffContentType(byte[] header) {
+        if (header.length < 4) {
+            return null;
+        }
+        if ((header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if ((header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+            return "image/png";
+        }
+        if (header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+            return "image/gif";
+        }
+        if (header.length >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private Path partFile(String uploadId) throws IOException {
+        // Session ids are server-generated UUIDs; reject anything else before touching the file system
+        UUID.fromString(uploadId);
+        return fileStorageService.tmpDir().resolve("session-" + uploadId + ".part");
+    }
+
+    private Object lockFor(String uploadId) {
+        return locks[Math.floorMod(uploadId.hashCode(), locks.length)];
+    }
+}
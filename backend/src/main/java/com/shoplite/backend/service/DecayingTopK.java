@@ -0,0 +1,120 @@
+package com.shoplite.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter sketch over exponentially decayed counts. It keeps
+ * at most {@code capacity} counters whatever the number of distinct keys, so
+ * memory and query cost stay fixed as orders grow; any key whose decayed count
+ * exceeds 1/capacity of the total is guaranteed to be tracked, and estimates
+ * are high by at most the counter's recorded error.
+ *
+ * Decay uses forward decay: an add at time t is weighted by
+ * e^((t - landmark) / tau), so old counts never need updating, and
+ * {@link #top} divides by the weight of "now". A count therefore halves every
+ * tau * ln 2. Not thread-safe; callers synchronize.
+ */
+class DecayingTopK {
+
+    // Move the landmark before weights get anywhere near overflowing a double
+    private static final double MAX_EXPONENT = 50;
+
+    /**
+     * One tracked key: its decayed count and how much of that may belong to evicted keys.
+     */
+    record Entry(long key, double count, double error) {
+    }
+
+    private static final class Counter {
+        double count;
+        double error;
+    }
+
+    private final int capacity;
+    private final double tauMillis;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private long landmark;
+
+    DecayingTopK(int capacity, long tauMillis, long now) {
+        if (capacity < 1 || tauMillis < 1) {
+            throw new IllegalArgumentException("capacity and tau must be positive");
+        }
+        this.capacity = capacity;
+        this.tauMillis = tauMillis;
+        this.landmark = now;
+    }
+
+    void add(long key, double amount, long now) {
+        if ((now - landmark) / tauMillis > MAX_EXPONENT) {
+            rescale(now);
+        }
+        double weighted = amount * Math.exp((now - landmark) / tauMillis);
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter();
+                counters.put(key, counter);
+            } else {
+                // Space-Saving: the new key takes over the smallest counter and inherits its count as error
+                Map.Entry<Long, Counter> min = null;
+                for (Map.Entry<Long, Counter> candidate : counters.entrySet()) {
+                    if (min == null || candidate.getValue().count < min.getValue().count) {
+                        min = candidate;
+                    }
+                }
+                counter = counters.remove(min.getKey());
+                counter.error = counter.count;
+                counters.put(key, counter);
+            }
+        }
+        counter.count += weighted;
+    }
+
+    /**
+     * The {@code limit} largest counts as of {@code now}, largest first.
+     */
+    List<Entry> top(int limit, long now) {
+        double scale = Math.exp(-(now - landmark) / tauMillis);
+        List<Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> entries.add(new Entry(key, counter.count * scale, counter.error * scale)));
+        entries.sort(Comparator.comparingDouble(Entry::count).reversed().thenComparingLong(Entry::key));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * All counters, decayed to {@code now}, for a snapshot.
+     */
+    List<Entry> entries(long now) {
+        return top(capacity, now);
+    }
+
+    /**
+     * Reload counters from a snapshot taken at {@code takenAt}; they keep decaying from there.
+     */
+    void restore(List<Entry> entries, long takenAt) {
+        counters.clear();
+        landmark = takenAt;
+        for (Entry entry : entries) {
+            if (counters.size() == capacity) {
+                break;
+            }
+            Counter counter = new Counter();
+            counter.count = entry.count();
+            counter.error = entry.error();
+            counters.put(entry.key(), counter);
+        }
+    }
+
+    private void rescale(long now) {
+        double scale = Math.exp(-(now - landmark) / tauMillis);
+        counters.values().forEach(counter -> {
+            counter.count *= scale;
+            counter.error *= scale;
+        });
+        landmark = now;
+    }
+}
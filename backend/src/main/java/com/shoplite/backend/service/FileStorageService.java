@@ -0,0 +1,407 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.StoredFile;
+import com.shoplite.backend.model.StoredFileAlias;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.repository.StoredFileAliasRepository;
+import com.shoplite.backend.repository.StoredFileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed storage for uploaded files.
+ *
+ * Each upload is hashed with SHA-256 while it is streamed to disk and then
+ * stored once under {@code <file.upload.dir>/ab/cd/<sha256>}, so identical
+ * images share one copy and no single directory grows unbounded. Products
+ * reference files through their imageUrl; those references are counted so
+ * content nobody points at can be purged after a grace period.
+ */
+@Service
+public class FileStorageService {
+
+    public static final String PUBLIC_PATH = "/api/uploads/products/";
+
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final String TMP_DIR = ".tmp";
+
+    // Striped locks so concurrent uploads of the same content create a single record
+    private final Object[] locks = new Object[64];
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private StoredFileAliasRepository storedFileAliasRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${file.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${file.upload.migrate-legacy:true}")
+    private boolean migrateLegacy;
+
+    @Value("${file.upload.orphan-grace-hours:24}")
+    private long orphanGraceHours;
+
+    public FileStorageService() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Stream an upload to disk, hashing it on the way, and store it under its
+     * content address. Returns the existing record if the content is already known.
+     */
+    public StoredFile store(InputStream input, String contentType) throws IOException {
+        Path tmp = createTempFile();
+        MessageDigest digest = newDigest();
+        long size;
+        try (InputStream in = new DigestInputStream(input, digest)) {
+            size = Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return commit(tmp, HexFormat.of().formatHex(digest.digest()), size, contentType);
+    }
+
+    /**
+     * Move a fully written temporary file into the content-addressed store.
+     * The temporary file is consumed: it is either moved or deleted.
+     */
+    public StoredFile commit(Path tmp, String sha256, long size, String contentType) throws IOException {
+        synchronized (lockFor(sha256)) {
+            // The row first: a purge holds it locked until the content is unlinked,
+            // so by the time the row is ours the file on disk can be trusted
+            StoredFile file;
+            try {
+                file = record(sha256, size, contentType);
+            } catch (RuntimeException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+
+            Path target = root().resolve(file.getStoragePath());
+            if (Files.exists(target)) {
+                Files.deleteIfExists(tmp);
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    Files.deleteIfExists(tmp);
+                }
+            }
+            return file;
+        }
+    }
+
+    /**
+     * The record for the content, created if new. Known content has its
+     * lastStoredAt renewed, so an orphan about to be attached again is not purged.
+     */
+    private StoredFile record(String sha256, long size, String contentType) {
+        if (storedFileRepository.touch(sha256, LocalDateTime.now()) == 1) {
+            Optional<StoredFile> existing = storedFileRepository.findById(sha256);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+
+        StoredFile file = new StoredFile();
+        file.setSha256(sha256);
+        file.setStoragePath(shardPath(sha256));
+        file.setSize(size);
+        file.setContentType(contentType);
+        try {
+            return storedFileRepository.save(file);
+        } catch (DataIntegrityViolationException e) {
+            // Another node stored the same content first
+            return storedFileRepository.findById(sha256).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Public file name for stored content: the hash plus the original extension.
+     */
+    public String publicFilename(StoredFile file, String originalFilename) {
+        return file.getSha256() + extensionOf(originalFilename);
+    }
+
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(tmpDir(), "upload-", ".part");
+    }
+
+    /**
+     * Scratch directory on the same file system as the store, so finished
+     * uploads can be moved into place atomically.
+     */
+    public Path tmpDir() throws IOException {
+        Path tmpDir = root().resolve(TMP_DIR);
+        Files.createDirectories(tmpDir);
+        return tmpDir;
+    }
+
+    /**
+     * Look up stored content by the file name used in an upload URL. Accepts
+     * content-addressed names as well as legacy UUID names that have been migrated.
+     */
+    public Optional<StoredFile> findByFilename(String filename) {
+        return hashForFilename(filename).flatMap(storedFileRepository::findById);
+    }
+
+    /**
+     * Resolve an upload file name to a path on disk, falling back to the flat
+     * legacy layout for files that have not been migrated yet.
+     */
+    public Optional<Path> resolve(String filename) {
+        Optional<StoredFile> stored = findByFilename(filename);
+        if (stored.isPresent()) {
+            Path path = root().resolve(stored.get().getStoragePath());
+            return Files.exists(path) ? Optional.of(path) : Optional.empty();
+        }
+
+        Path legacy = root().resolve(filename).normalize();
+        if (legacy.startsWith(root()) && Files.isRegularFile(legacy)) {
+            return Optional.of(legacy);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Record that a product now references the given image URL.
+     */
+    @Transactional
+    public void retain(String imageUrl) {
+        adjustReference(imageUrl, 1);
+    }
+
+    /**
+     * Record that a product no longer references the given image URL.
+     */
+    @Transactional
+    public void release(String imageUrl) {
+        adjustReference(imageUrl, -1);
+    }
+
+    private void adjustReference(String imageUrl, int delta) {
+        filenameFromUrl(imageUrl)
+            .flatMap(this::hashForFilename)
+            .ifPresent(sha256 -> storedFileRepository.adjustRefCount(sha256, delta));
+    }
+
+    /**
+     * Delete content that no product references and nobody uploaded within the
+     * grace period, which leaves time to attach a fresh upload to a product.
+     * Each candidate is checked again as its row is deleted, so a reference or
+     * upload that arrived after the scan keeps the file.
+     */
+    @Scheduled(cron = "${file.upload.purge-cron:0 30 3 * * *}")
+    public int purgeUnreferenced() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofHours(orphanGraceHours));
+        int purged = 0;
+        for (StoredFile file : storedFileRepository.findByRefCountLessThanEqualAndLastStoredAtBefore(0, cutoff)) {
+            synchronized (lockFor(file.getSha256())) {
+                try {
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> purge(file, cutoff)))) {
+                        purged++;
+                    }
+                } catch (UncheckedIOException e) {
+                    log.warn("Could not purge stored file {}", file.getSha256(), e);
+                }
+            }
+        }
+        if (purged > 0) {
+            log.info("Purged {} unreferenced uploads", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Delete the row if it still qualifies, then its content. The deleted row
+     * stays locked until the file is gone, so an upload of the same content on
+     * any node waits for this and then stores the file again; a failed unlink
+     * rolls the delete back.
+     */
+    private boolean purge(StoredFile file, LocalDateTime cutoff) {
+        if (storedFileRepository.deleteIfUnreferenced(file.getSha256(), cutoff) != 1) {
+            return false;
+        }
+        storedFileAliasRepository.deleteBySha256(file.getSha256());
+        try {
+            Files.deleteIfExists(root().resolve(file.getStoragePath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!migrateLegacy) {
+            return;
+        }
+        try {
+            int migrated = migrateLegacyFiles();
+            if (migrated > 0) {
+                log.info("Migrated {} legacy uploads into content-addressed storage", migrated);
+            }
+        } catch (IOException e) {
+            log.warn("Legacy upload migration failed", e);
+        }
+    }
+
+    /**
+     * Move files left in the flat upload directory into the sharded layout,
+     * keeping an alias from the old name so existing imageUrls still resolve,
+     * then recount references from products.
+     */
+    public int migrateLegacyFiles() throws IOException {
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+
+        List<Path> legacyFiles = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(root)) {
+            entries.filter(Files::isRegularFile).forEach(legacyFiles::add);
+        }
+
+        for (Path legacy : legacyFiles) {
+            Path tmp = createTempFile();
+            String contentType = Files.probeContentType(legacy);
+            Files.move(legacy, tmp, StandardCopyOption.REPLACE_EXISTING);
+            StoredFile stored = commit(tmp, hash(tmp), Files.size(tmp), contentType);
+
+            StoredFileAlias alias = new StoredFileAlias();
+            alias.setFilename(legacy.getFileName().toString());
+            alias.setSha256(stored.getSha256());
+            storedFileAliasRepository.save(alias);
+        }
+
+        if (!legacyFiles.isEmpty()) {
+            recountReferences();
+        }
+        return legacyFiles.size();
+    }
+
+    /**
+     * Rebuild reference counts from the imageUrl of every product.
+     */
+    @Transactional
+    public void recountReferences() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String imageUrl : productRepository.findAllImageUrls()) {
+            filenameFromUrl(imageUrl)
+                .flatMap(this::hashForFilename)
+                .ifPresent(sha256 -> counts.merge(sha256, 1, Integer::sum));
+        }
+        List<StoredFile> files = storedFileRepository.findAll();
+        for (StoredFile file : files) {
+            file.setRefCount(counts.getOrDefault(file.getSha256(), 0));
+        }
+        storedFileRepository.saveAll(files);
+    }
+
+    private Optional<String> hashForFilename(String filename) {
+        String base = filename;
+        int dot = filename.indexOf('.');
+        if (dot >= 0) {
+            base = filename.substring(0, dot);
+        }
+        if (SHA256_HEX.matcher(base).matches()) {
+            return Optional.of(base);
+        }
+        return storedFileAliasRepository.findById(filename).map(StoredFileAlias::getSha256);
+    }
+
+    private Optional<String> filenameFromUrl(String imageUrl) {
+        if (imageUrl == null) {
+            return Optional.empty();
+        }
+        int idx = imageUrl.indexOf(PUBLIC_PATH);
+        if (idx < 0) {
+            return Optional.empty();
+        }
+        String filename = imageUrl.substring(idx + PUBLIC_PATH.length());
+        return filename.isEmpty() ? Optional.empty() : Optional.of(filename);
+    }
+
+    static String shardPath(String sha256) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    static String extensionOf(String filename) {
+        if (filename == null || !filename.contains(".")) {
+            return "";
+        }
+        String ext = filename.substring(filename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+        // Keep only simple extensions so names stay URL- and path-safe
+        return ext.matches("\\.[a-z0-9]{1,10}") ? ext : "";
+    }
+
+    public String hash(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Object lockFor(String sha256) {
+        return locks[Integer.parseInt(sha256.substring(0, 2), 16) % locks.length];
+    }
+
+    private Path root() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,308 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Flash-sale mode for products too hot for row locks. While a product is in
+ * a sale, checkouts take its units from an in-memory counter with a single
+ * compare-and-set instead of locking its products row, and buyers arriving
+ * once it is sold out are turned away without touching the database. Every
+ * {@code flash-sale.flush-ms} the units of committed orders are written to
+ * stock_quantity, one UPDATE per product in one transaction.
+ *
+ * Each flush also reconciles the counter with the column: stock changed
+ * elsewhere meanwhile (restocks, cancellations, admin edits) is added to or
+ * taken from the units left, so the column stays the source of truth.
+ *
+ * A flush never takes stock_quantity below zero: units also sold around
+ * the sale, as by an order allocated while it started, are logged as oversold.
+ *
+ * Counters live in this instance only: run sales on a single node. A crash
+ * leaves stock_quantity too high by the units sold since the last flush.
+ */
+@Service
+public class FlashSaleService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * One product's sale. Units left to sell and units taken but not yet
+     * written to stock_quantity share one long, so a flush always sees a
+     * consistent pair: their sum is what stock_quantity will be once every
+     * order holding units has committed and been flushed.
+     */
+    static final class Sale {
+        final long productId;
+        // high 32 bits: units left, low 32 bits: units taken and not yet written
+        final AtomicLong state;
+        // Units of committed orders not yet written; a part of the taken units
+        final AtomicInteger committed = new AtomicInteger();
+        final LongAdder admitted = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        volatile boolean open = true;
+
+        Sale(long productId, int stock) {
+            this.productId = productId;
+            this.state = new AtomicLong(pack(Math.max(stock, 0), 0));
+        }
+
+        int available() {
+            return left(state.get());
+        }
+
+        int unwritten() {
+            return taken(state.get());
+        }
+
+        boolean tryTake(int quantity) {
+            while (true) {
+                long current = state.get();
+                int left = left(current);
+                if (!open || left < quantity) {
+                    rejected.increment();
+                    return false;
+                }
+                if (state.compareAndSet(current, pack(left - quantity, taken(current) + quantity))) {
+                    admitted.increment();
+                    return true;
+                }
+            }
+        }
+
+        void release(int quantity) {
+            state.getAndUpdate(current -> pack(left(current) + quantity, taken(current) - quantity));
+        }
+
+        /**
+         * Account for {@code written} units now in stock_quantity, which reads
+         * {@code stock}; whatever else changed the column is applied to the units left.
+         */
+        void reconcile(int written, int stock) {
+            state.getAndUpdate(current -> {
+                int taken = taken(current) - written;
+                return pack(Math.max(stock - taken, 0), taken);
+            });
+        }
+
+        private static long pack(int left, int taken) {
+            return ((long) left << 32) | (taken & 0xffffffffL);
+        }
+
+        private static int left(long state) {
+            return (int) (state >>> 32);
+        }
+
+        private static int taken(long state) {
+            return (int) state;
+        }
+    }
+
+    // Sorted by product id, so flushes update rows in a fixed order
+    private final Map<Long, Sale> sales = new ConcurrentSkipListMap<>();
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Put a product into flash-sale mode with its current stock.
+     */
+    public synchronized Map<String, Object> start(Long productId) {
+        Sale existing = sales.get(productId);
+        if (existing != null && existing.open) {
+            throw new IllegalStateException("Product " + productId + " is already in a flash sale");
+        }
+        // A closing sale still holding units is written first, so the new counter starts from the column
+        flush();
+        if (sales.containsKey(productId)) {
+            throw new IllegalStateException("The previous flash sale of product " + productId + " is still finishing");
+        }
+        Integer stock = productRepository.findStockQuantityById(productId);
+        if (stock == null) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        Sale sale = new Sale(productId, stock);
+        sales.put(productId, sale);
+        log.info("Flash sale of product {} started with {} units", productId, stock);
+        return status(sale);
+    }
+
+    /**
+     * End a product's sale; orders go back to locking its row. Units of orders
+     * still in flight are written by the next flushes.
+     */
+    public synchronized Map<String, Object> stop(Long productId) {
+        Sale sale = sales.get(productId);
+        if (sale == null || !sale.open) {
+            throw new IllegalStateException("Product " + productId + " is not in a flash sale");
+        }
+        sale.open = false;
+        flush();
+        log.info("Flash sale of product {} stopped, {} buyers admitted, {} turned away",
+            productId, sale.admitted.sum(), sale.rejected.sum());
+        return status(sale);
+    }
+
+    public boolean isActive(Long productId) {
+        Sale sale = sales.get(productId);
+        return sale != null && sale.open;
+    }
+
+    /**
+     * Turn a buyer away early if the product is in a sale that cannot cover the quantity.
+     *
+     * @throws OutOfStockException if it cannot
+     */
+    public void checkAvailable(Long productId, int quantity) {
+        Sale sale = sales.get(productId);
+        if (sale != null && sale.open && sale.available() < quantity) {
+            sale.rejected.increment();
+            throw new OutOfStockException("Sold out");
+        }
+    }
+
+    /**
+     * Take units for an order in the current transaction, without touching
+     * stock_quantity. They go back if the transaction rolls back, and are
+     * written by a later flush once it commits.
+     *
+     * @return false if the product is not in a flash sale; the caller takes stock the usual way
+     * @throws OutOfStockException if the sale has fewer units left
+     */
+    public boolean take(Long productId, int quantity) {
+        Sale sale = sales.get(productId);
+        if (sale == null || !sale.open) {
+            return false;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Flash-sale units can only be taken inside a transaction");
+        }
+        if (!sale.tryTake(quantity)) {
+            throw new OutOfStockException("Sold out");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    sale.committed.addAndGet(quantity);
+                } else {
+                    sale.release(quantity);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Write the units of committed orders to stock_quantity and reconcile
+     * each counter with the column. Closed sales are dropped once they hold
+     * no more units.
+     */
+    @Scheduled(fixedDelayString = "${flash-sale.flush-ms:200}")
+    public synchronized void flush() {
+        if (sales.isEmpty()) {
+            return;
+        }
+        List<Sale> flushed = new ArrayList<>(sales.values());
+        int[] written = new int[flushed.size()];
+        Integer[] stock = new Integer[flushed.size()];
+        for (int i = 0; i < flushed.size(); i++) {
+            written[i] = flushed.get(i).committed.getAndSet(0);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < flushed.size(); i++) {
+                    Sale sale = flushed.get(i);
+                    Integer before = productRepository.findStockQuantityById(sale.productId);
+                    if (written[i] > 0 && before != null) {
+                        productRepository.drainStock(sale.productId, written[i]);
+                        int drained = Math.min(written[i], Math.max(before, 0));
+                        if (drained < written[i]) {
+                            // The units were also sold around the sale, e.g. by an order allocated as it started
+                            log.warn("Flash sale of product {} oversold {} units; stock clamped at zero",
+                                sale.productId, written[i] - drained);
+                        }
+                        stock[i] = productRepository.findStockQuantityById(sale.productId);
+                        outboxService.stockChanged(sale.productId, -drained, stock[i]);
+                    } else {
+                        stock[i] = before;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < flushed.size(); i++) {
+                flushed.get(i).committed.addAndGet(written[i]);
+            }
+            log.warn("Could not write flash-sale stock; retrying with the next flush", e);
+            return;
+        }
+
+        for (int i = 0; i < flushed.size(); i++) {
+            Sale sale = flushed.get(i);
+            if (stock[i] == null) {
+                // Product deleted: nothing left to sell or write
+                sale.open = false;
+                sales.remove(sale.productId);
+                continue;
+            }
+            sale.reconcile(written[i], stock[i]);
+            if (!sale.open && sale.unwritten() == 0) {
+                sales.remove(sale.productId);
+            }
+        }
+    }
+
+    public List<Map<String, Object>> getStatus() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        sales.values().forEach(sale -> result.add(status(sale)));
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sales.values().forEach(sale -> sale.open = false);
+        flush();
+    }
+
+    private static Map<String, Object> status(Sale sale) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("productId", sale.productId);
+        status.put("active", sale.open);
+        status.put("available", sale.available());
+        status.put("unwritten", sale.unwritten());
+        status.put("admitted", sale.admitted.sum());
+        status.put("rejected", sale.rejected.sum());
+        return status;
+    }
+}
@@ -0,0 +1,121 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.IdempotencyRecord;
+import com.shoplite.backend.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Key store behind the Idempotency-Key header. A request claims its key by
+ * inserting an IN_FLIGHT row; retries then find the row by primary key and
+ * either replay the stored response or are told the original is still running.
+ */
+@Service
+public class IdempotencyService {
+
+    public enum Decision {
+        // The key is ours: run the request, then complete or release it
+        PROCEED,
+        // A previous request with this key succeeded; replay its response
+        REPLAY,
+        // A request with this key is still running
+        IN_PROGRESS,
+        // The key was already used for a different request
+        MISMATCH
+    }
+
+    public record Attempt(Decision decision, IdempotencyRecord record) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${idempotency.ttl:24h}")
+    private Duration ttl;
+
+    // An IN_FLIGHT claim older than this is assumed to belong to a crashed request
+    @Value("${idempotency.lock-timeout:60s}")
+    private Duration lockTimeout;
+
+    public Attempt begin(String id, String requestHash) {
+        // Millisecond precision so the timestamp round-trips through every database unchanged
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(id);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            boolean expired = record.getExpiresAt().isBefore(now);
+            boolean abandoned = record.getStatus() == IdempotencyRecord.Status.IN_FLIGHT
+                && record.getCreatedAt().plus(lockTimeout).isBefore(now);
+            if (!expired && !abandoned) {
+                return decide(record, requestHash);
+            }
+            idempotencyRecordRepository.deleteAttempt(id, record.getCreatedAt());
+        }
+
+        try {
+            idempotencyRecordRepository.insertInFlight(id, requestHash, now, now.plus(ttl));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent retry claimed the key first
+            return idempotencyRecordRepository.findById(id)
+                .map(record -> decide(record, requestHash))
+                .orElse(new Attempt(Decision.IN_PROGRESS, null));
+        }
+
+        IdempotencyRecord claim = new IdempotencyRecord();
+        claim.setId(id);
+        claim.setRequestHash(requestHash);
+        claim.setStatus(IdempotencyRecord.Status.IN_FLIGHT);
+        claim.setCreatedAt(now);
+        claim.setExpiresAt(now.plus(ttl));
+        return new Attempt(Decision.PROCEED, claim);
+    }
+
+    /**
+     * Store the response of a request that claimed its key, for replay to retries.
+     */
+    public void complete(IdempotencyRecord claim, int responseStatus, String contentType, byte[] responseBody) {
+        int updated = idempotencyRecordRepository.complete(claim.getId(), claim.getCreatedAt(),
+            IdempotencyRecord.Status.COMPLETED, responseStatus, contentType, responseBody);
+        if (updated == 0) {
+            log.warn("Idempotency key {} was taken over before its request completed", claim.getId());
+        }
+    }
+
+    /**
+     * Give up a claim so the request can be retried, e.g. after a failure.
+     */
+    public void release(IdempotencyRecord claim) {
+        idempotencyRecordRepository.deleteAttempt(claim.getId(), claim.getCreatedAt());
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private static Attempt decide(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return new Attempt(Decision.MISMATCH, record);
+        }
+        if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+            return new Attempt(Decision.REPLAY, record);
+        }
+        return new Attempt(Decision.IN_PROGRESS, record);
+    }
+}
@@ -0,0 +1,173 @@
+package com.shoplite.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tells the other instances which cached entities changed, so caches such
+ * as the category snapshot are dropped within {@code invalidation.batch-ms}
+ * rather than at their next periodic refresh.
+ *
+ * Changes are queued once their transaction commits and flushed every batch
+ * window. A batch keeps one entry per entity, with its latest version, and a
+ * whole-type entry (id null) replaces the type's single ids. Each message is
+ * tagged with this instance's id, so the sender skips its own messages; its
+ * caches are already refreshed by the change itself.
+ */
+@Service
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    // Postgres caps a NOTIFY payload at 8000 bytes; an entry takes 50 at most
+    static final int MAX_ENTRIES_PER_MESSAGE = 100;
+
+    /** One changed entity; an id of null means every entity of the type. */
+    public record Invalidation(String entityType, Long id, long version) {
+    }
+
+    private record Key(String entityType, Long id) {
+    }
+
+    @Autowired
+    private InvalidationTransport transport;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String node = UUID.randomUUID().toString();
+    private final Map<Key, Long> pending = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<List<Invalidation>>>> listeners = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        transport.subscribe(this::receive, this::invalidateAllLocally);
+    }
+
+    /**
+     * Calls the listener with the other instances' invalidations of the
+     * entity type, one call per received message.
+     */
+    public void addListener(String entityType, Consumer<List<Invalidation>> listener) {
+        listeners.computeIfAbsent(entityType, type -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /** Queue an entity, or with a null id the whole type, once the current transaction commits. */
+    public void invalidate(String entityType, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(entityType, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(entityType, id);
+            }
+        });
+    }
+
+    private void enqueue(String entityType, Long id) {
+        pending.merge(new Key(entityType, id), System.currentTimeMillis(), Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.batch-ms:100}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Invalidation> batch = new ArrayList<>();
+        Set<String> wholeTypes = new HashSet<>();
+        for (Key key : List.copyOf(pending.keySet())) {
+            Long version = pending.remove(key);
+            if (version != null) {
+                batch.add(new Invalidation(key.entityType(), key.id(), version));
+                if (key.id() == null) {
+                    wholeTypes.add(key.entityType());
+                }
+            }
+        }
+        batch.removeIf(invalidation -> invalidation.id() != null && wholeTypes.contains(invalidation.entityType()));
+
+        for (int from = 0; from < batch.size(); from += MAX_ENTRIES_PER_MESSAGE) {
+            List<Invalidation> chunk = batch.subList(from, Math.min(from + MAX_ENTRIES_PER_MESSAGE, batch.size()));
+            try {
+                transport.publish(encode(chunk));
+            } catch (RuntimeException e) {
+                // Requeued for the next window; other instances keep stale entries until then
+                log.warn("Could not publish {} invalidations, retrying next batch", chunk.size(), e);
+                chunk.forEach(invalidation -> pending.merge(
+                    new Key(invalidation.entityType(), invalidation.id()), invalidation.version(), Math::max));
+            }
+        }
+    }
+
+    void receive(String message) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(message);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed invalidation message: {}", message);
+            return;
+        }
+        if (node.equals(root.path("node").asText())) {
+            return;
+        }
+        Map<String, List<Invalidation>> byType = new LinkedHashMap<>();
+        for (JsonNode entry : root.path("entries")) {
+            Invalidation invalidation = new Invalidation(entry.get(0).asText(),
+                entry.get(1).isNull() ? null : entry.get(1).asLong(), entry.get(2).asLong());
+            byType.computeIfAbsent(invalidation.entityType(), type -> new ArrayList<>()).add(invalidation);
+        }
+        byType.forEach(this::deliver);
+    }
+
+    // Messages may have been lost while the transport was down, so everything is suspect
+    private void invalidateAllLocally() {
+        long now = System.currentTimeMillis();
+        listeners.keySet().forEach(type -> deliver(type, List.of(new Invalidation(type, null, now))));
+    }
+
+    private void deliver(String entityType, List<Invalidation> invalidations) {
+        for (Consumer<List<Invalidation>> listener : listeners.getOrDefault(entityType, List.of())) {
+            try {
+                listener.accept(invalidations);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation listener for {} failed", entityType, e);
+            }
+        }
+    }
+
+    // {"node":"...","entries":[["Product",12,1700000000000],["Category",null,1700000000000]]}
+    private String encode(List<Invalidation> invalidations) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("node", node);
+        message.put("entries", invalidations.stream()
+            .map(invalidation -> new Object[] {invalidation.entityType(), invalidation.id(), invalidation.version()})
+            .toList());
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode invalidations", e);
+        }
+    }
+}
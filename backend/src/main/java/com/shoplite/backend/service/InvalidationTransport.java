@@ -0,0 +1,19 @@
+package com.shoplite.backend.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationBus} messages between instances. Every instance
+ * receives every message, its own included.
+ */
+public interface InvalidationTransport {
+
+    void publish(String message);
+
+    /**
+     * @param messages called with every message received
+     * @param missed   called when messages may have been lost, e.g. after a
+     *                 reconnect, so subscribers can drop everything they cache
+     */
+    void subscribe(Consumer<String> messages, Runnable missed);
+}
@@ -0,0 +1,64 @@
+package com.shoplite.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.shoplite.backend.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends outbox events to a local NDJSON file, one event per line, for
+ * tailing by a log shipper.
+ */
+@Service
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogFileOutboxSink implements OutboxSink {
+
+    @Value("${outbox.log-file:logs/outbox-events.ndjson}")
+    private String logFile;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        Path path = Path.of(logFile);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (OutboxEvent event : events) {
+                    writer.write(toJson(event));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append outbox events to " + path, e);
+        }
+    }
+
+    private String toJson(OutboxEvent event) throws JsonProcessingException {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("id", event.getId());
+        line.put("aggregateType", event.getAggregateType());
+        line.put("aggregateId", event.getAggregateId());
+        line.put("eventType", event.getEventType());
+        line.put("createdAt", event.getCreatedAt().toString());
+        line.set("payload", objectMapper.readTree(event.getPayload()));
+        return objectMapper.writeValueAsString(line);
+    }
+}
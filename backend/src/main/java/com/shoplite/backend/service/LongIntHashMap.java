@@ -0,0 +1,193 @@
+package com.shoplite.backend.service;
+
+/**
+ * Open-addressing hash map from long to int with linear probing, stored in
+ * two parallel primitive arrays: 12 bytes per slot instead of the ~80 a boxed
+ * {@code HashMap<Long, Integer>} entry costs. Key 0 marks a free slot and is
+ * kept aside, so every long is a valid key. Absent keys read as 0. Not
+ * thread-safe.
+ */
+final class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_CAPACITY = 4;
+
+    /**
+     * Receives each key and value; see {@link #forEach}.
+     */
+    interface Visitor {
+        void visit(long key, int value);
+    }
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    int get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : 0;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == 0) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Add {@code delta} to the key's value, inserting it at {@code delta} if absent.
+     *
+     * @return the new value
+     */
+    int addTo(long key, int delta) {
+        if (key == 0) {
+            zeroValue = (hasZeroKey ? zeroValue : 0) + delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int slot = slot(key);
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    void remove(long key) {
+        if (key == 0) {
+            hasZeroKey = false;
+            zeroValue = 0;
+            return;
+        }
+        int slot = slot(key);
+        for (; keys[slot] != key; slot = (slot + 1) & mask) {
+            if (keys[slot] == 0) {
+                return;
+            }
+        }
+        // Backward-shift deletion: pull later entries of the probe chain into the gap, no tombstones
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            // Move the entry if its home slot is not between the gap and its current slot (cyclically)
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+    }
+
+    void forEach(Visitor visitor) {
+        if (hasZeroKey) {
+            visitor.visit(0, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Remove every entry whose value is at most {@code threshold}.
+     */
+    void removeAtMost(int threshold) {
+        if (hasZeroKey && zeroValue <= threshold) {
+            remove(0);
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSize(size));
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0 && oldValues[slot] > threshold) {
+                addTo(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    /**
+     * Approximate heap footprint, for sizing.
+     */
+    long memoryBytes() {
+        return 16L + keys.length * 8L + 16L + values.length * 4L + 40L;
+    }
+
+    private int slot(long key) {
+        // Murmur3 finalizer, so sequential ids spread across the table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            long key = oldKeys[slot];
+            if (key != 0) {
+                int target = slot(key);
+                while (keys[target] != 0) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = key;
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSize(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, (int) (expectedSize / LOAD_FACTOR) + 1) - 1) << 1;
+        return Math.max(MIN_CAPACITY, capacity);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        forEach((key, value) -> text.append(text.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,29 @@
+package com.shoplite.backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers messages straight back to this instance's subscribers, for a
+ * single instance, H2 and tests.
+ */
+@Service
+@ConditionalOnProperty(name = "invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<String>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String message) {
+        subscribers.forEach(subscriber -> subscriber.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> messages, Runnable missed) {
+        subscribers.add(messages);
+    }
+}
@@ -0,0 +1,7 @@
+package com.shoplite.backend.service;
+
+/**
+ * Published when an order is queued for async intake; handled after commit.
+ */
+public record OrderAcceptedEvent(Long orderId) {
+}
@@ -0,0 +1,315 @@
+package com.shoplite.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shoplite.backend.config.OrderShards.Shard;
+import com.shoplite.backend.model.ArchivedOrder;
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.ArchivedOrderRepository;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves DELIVERED and CANCELLED orders older than {@code orders.archive.after-days}
+ * out of {@code orders}/{@code order_items} into {@link ArchivedOrder} rows,
+ * each the gzipped JSON of the order and its items, so the live tables and
+ * their indexes only hold the orders still being worked on or often read.
+ *
+ * Orders are taken in batches of {@code orders.archive.batch-size} from the
+ * primary and, when sharded, from each shard. A batch is locked in its
+ * source, written to the archive and deleted in one source transaction, so
+ * its status cannot change in between. A batch left live by an interrupted
+ * run is archived afresh by the next, replacing what was written for it.
+ * {@link #findById} reads an archived order back, and order summaries are
+ * kept, so lists and the detail page still show archived orders.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private static final List<Order.OrderStatus> TERMINAL = List.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    private static final String INSERT_ARCHIVE = "INSERT INTO orders_archive "
+        + "(order_id, user_id, status, created_at, archived_at, raw_bytes, payload) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ShardedOrderStore shardedOrderStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${orders.archive.after-days:180}")
+    private int afterDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    // Days the nightly rollup rebuild recomputes from live orders
+    @Value("${stats.rebuild-days:2}")
+    private int rebuildDays;
+
+    /** What is archived of an order; products by id, with the name as it was. */
+    record Snapshot(Long id, Long userId, Order.OrderStatus status, BigDecimal totalAmount, String shippingAddress,
+                    String paymentMethod, String paymentIntentId, LocalDateTime createdAt, LocalDateTime updatedAt,
+                    List<Line> items) {
+    }
+
+    record Line(Long id, Long productId, String productName, Integer quantity, BigDecimal priceAtPurchase) {
+    }
+
+    private record Source(String name, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+    }
+
+    /**
+     * Archive the terminal orders created before {@code before}, which must
+     * not fall within the days the sales rollups are rebuilt from.
+     *
+     * @return orders and items archived, and the bytes they took as JSON
+     *         against the bytes stored for them
+     */
+    public synchronized Map<String, Object> archive(LocalDateTime before) {
+        LocalDateTime rebuiltFrom = LocalDate.now().minusDays(rebuildDays - 1L).atStartOfDay();
+        if (before.isAfter(rebuiltFrom)) {
+            throw new IllegalArgumentException("Orders from " + rebuiltFrom.toLocalDate()
+                + " on are still counted by the nightly rollup rebuild; archive before that");
+        }
+
+        List<Source> sources = new ArrayList<>();
+        sources.add(new Source("primary", jdbcTemplate, transactionTemplate));
+        if (shardedOrderStore.isEnabled()) {
+            for (Shard shard : shardedOrderStore.shards().all()) {
+                sources.add(new Source("shard-" + shard.index(), shard.jdbcTemplate(), shard.transactionTemplate()));
+            }
+        }
+
+        long[] totals = new long[4];
+        Map<String, Object> bySource = new LinkedHashMap<>();
+        for (Source source : sources) {
+            long[] counts = drain(source, before);
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counts[i];
+            }
+            bySource.put(source.name(), counts[0]);
+            log.info("Archived {} orders from {}: {} bytes as JSON, {} stored", counts[0], source.name(), counts[2], counts[3]);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("before", before);
+        result.put("orders", totals[0]);
+        result.put("items", totals[1]);
+        result.put("rawBytes", totals[2]);
+        result.put("archivedBytes", totals[3]);
+        result.put("reclaimedBytes", totals[2] - totals[3]);
+        result.put("sources", bySource);
+        return result;
+    }
+
+    /**
+     * Nightly: archive the terminal orders older than {@code orders.archive.after-days}.
+     */
+    @Scheduled(cron = "${orders.archive.cron:0 0 4 * * *}")
+    public void archiveOld() {
+        try {
+            archive(defaultCutoff());
+        } catch (RuntimeException e) {
+            log.warn("Order archival failed", e);
+        }
+    }
+
+    /** Start of the day {@code orders.archive.after-days} ago. */
+    public LocalDateTime defaultCutoff() {
+        return LocalDate.now().minusDays(afterDays).atStartOfDay();
+    }
+
+    /** An archived order, with the primary's user and products where they still exist. */
+    public Optional<Order> findById(Long orderId) {
+        return archivedOrderRepository.findById(orderId).map(row -> restore(read(row.getPayload())));
+    }
+
+    public void deleteById(Long orderId) {
+        archivedOrderRepository.findById(orderId).ifPresent(archivedOrderRepository::delete);
+    }
+
+    // orders, items, raw bytes, archived bytes
+    private long[] drain(Source source, LocalDateTime before) {
+        long[] counts = new long[4];
+        long[] afterId = {Long.MIN_VALUE};
+        while (true) {
+            List<ArchivedOrder> rows = source.transactionTemplate().execute(status -> {
+                // The page stays locked until it is deleted, so no status change lands between snapshot and delete
+                List<Order> page = shardedOrderStore.lockPage(source.jdbcTemplate(), afterId[0], batchSize, TERMINAL, before);
+                if (page.isEmpty()) {
+                    return List.of();
+                }
+                afterId[0] = page.get(page.size() - 1).getId();
+                shardedOrderStore.loadItems(source.jdbcTemplate(), page);
+                List<ArchivedOrder> snapshots = snapshots(page);
+                // On the primary this joins the batch's transaction; a shard's batch commits after it
+                writeArchive(snapshots);
+                shardedOrderStore.delete(source.jdbcTemplate(), page.stream().map(Order::getId).toList());
+                counts[1] += page.stream().mapToLong(order -> order.getItems().size()).sum();
+                return snapshots;
+            });
+            if (rows.isEmpty()) {
+                return counts;
+            }
+            counts[0] += rows.size();
+            for (ArchivedOrder row : rows) {
+                counts[2] += row.getRawBytes();
+                counts[3] += row.getPayload().length;
+            }
+        }
+    }
+
+    /**
+     * Insert archive rows, replacing any an interrupted run left for orders
+     * that are still live and may have changed since.
+     */
+    private void writeArchive(List<ArchivedOrder> rows) {
+        List<Object> ids = rows.stream().<Object>map(ArchivedOrder::getId).toList();
+        jdbcTemplate.update("DELETE FROM orders_archive WHERE order_id IN ("
+            + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+        jdbcTemplate.batchUpdate(INSERT_ARCHIVE, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getId());
+            ps.setLong(2, row.getUserId());
+            ps.setString(3, row.getStatus().name());
+            ps.setTimestamp(4, row.getCreatedAt() != null ? Timestamp.valueOf(row.getCreatedAt()) : null);
+            ps.setTimestamp(5, Timestamp.valueOf(row.getArchivedAt()));
+            ps.setInt(6, row.getRawBytes());
+            ps.setBytes(7, row.getPayload());
+        });
+    }
+
+    private List<ArchivedOrder> snapshots(List<Order> orders) {
+        Map<Long, String> productNames = productRepository.findAllById(orders.stream()
+                .flatMap(order -> order.getItems().stream()).map(item -> item.getProduct().getId()).distinct().toList())
+            .stream().collect(Collectors.toMap(Product::getId, Product::getName));
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedOrder> rows = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            List<Line> lines = order.getItems().stream()
+                .map(item -> new Line(item.getId(), item.getProduct().getId(), productNames.get(item.getProduct().getId()),
+                    item.getQuantity(), item.getPriceAtPurchase()))
+                .toList();
+            Snapshot snapshot = new Snapshot(order.getId(), order.getUser().getId(), order.getStatus(),
+                order.getTotalAmount(), order.getShippingAddress(), order.getPaymentMethod(),
+                order.getPaymentIntentId(), order.getCreatedAt(), order.getUpdatedAt(), lines);
+
+            ArchivedOrder row = new ArchivedOrder();
+            row.setId(order.getId());
+            row.setUserId(order.getUser().getId());
+            row.setStatus(order.getStatus());
+            row.setCreatedAt(order.getCreatedAt());
+            row.setArchivedAt(now);
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(snapshot);
+                row.setRawBytes(json.length);
+                row.setPayload(gzip(json));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not archive order " + order.getId(), e);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Snapshot read(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, Snapshot.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archived order", e);
+        }
+    }
+
+    private Order restore(Snapshot snapshot) {
+        Order order = new Order();
+        order.setId(snapshot.id());
+        order.setUser(userRepository.findById(snapshot.userId()).orElseGet(() -> {
+            User user = new User();
+            user.setId(snapshot.userId());
+            return user;
+        }));
+        order.setStatus(snapshot.status());
+        order.setTotalAmount(snapshot.totalAmount());
+        order.setShippingAddress(snapshot.shippingAddress());
+        order.setPaymentMethod(snapshot.paymentMethod());
+        order.setPaymentIntentId(snapshot.paymentIntentId());
+        order.setCreatedAt(snapshot.createdAt());
+        order.setUpdatedAt(snapshot.updatedAt());
+
+        // Products deleted since keep the id and name they had
+        Map<Long, Product> products = productRepository.findAllById(
+                snapshot.items().stream().map(Line::productId).distinct().toList())
+            .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Line line : snapshot.items()) {
+            OrderItem item = new OrderItem();
+            item.setId(line.id());
+            item.setOrder(order);
+            item.setProduct(products.computeIfAbsent(line.productId(), id -> {
+                Product product = new Product();
+                product.setId(id);
+                product.setName(line.productName());
+                return product;
+            }));
+            item.setQuantity(line.quantity());
+            item.setPriceAtPurchase(line.priceAtPurchase());
+            order.getItems().add(item);
+        }
+        return order;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 2 + 32);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
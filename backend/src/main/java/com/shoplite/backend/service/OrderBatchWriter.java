@@ -0,0 +1,260 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Order;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group commit for checkouts in batch intake mode. Request threads hand their
+ * order to {@link #submit} and wait; a single writer thread collects whatever
+ * arrives within {@code orders.batch.max-wait}, up to {@code orders.batch.max-size}
+ * orders, and writes them in one transaction through {@link OrderService#createOrders}.
+ * It only waits for checkouts already submitted, so a burst shares one commit.
+ * A checkout arriving while nothing else is in flight skips the hand-off and
+ * is written on its own request thread. Checkouts of products in a flash sale
+ * are written on their own, taking their units from the sale.
+ *
+ * Enabled with {@code orders.intake-mode=batch}.
+ */
+@Service
+public class OrderBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchWriter.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.intake-mode:sync}")
+    private String intakeMode;
+
+    @Value("${orders.batch.max-wait:2ms}")
+    private Duration maxWait;
+
+    @Value("${orders.batch.max-size:64}")
+    private int maxSize;
+
+    // Checkouts beyond this are turned away instead of piling up behind the writer
+    @Value("${orders.batch.queue-capacity:4096}")
+    private int queueCapacity;
+
+    @Value("${orders.batch.submit-timeout:30s}")
+    private Duration submitTimeout;
+
+    private record Pending(OrderDraft draft, CompletableFuture<Order> result) {
+    }
+
+    // Submitted and not yet answered; the writer only waits for more while this exceeds its batch
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Set while a request thread writes its own checkout; at most one does, the rest queue behind it
+    private final AtomicBoolean writingAlone = new AtomicBoolean();
+    private BlockingQueue<Pending> queue;
+    private DistributionSummary batchSizes;
+    private Thread writer;
+    private volatile boolean running;
+
+    public boolean isEnabled() {
+        return "batch".equalsIgnoreCase(intakeMode);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("shoplite.order.batch.size")
+            .description("Orders written per group commit")
+            .register(meterRegistry);
+        running = true;
+        writer = new CustomizableThreadFactory("order-batch-writer-").newThread(this::run);
+        writer.start();
+        log.info("Batched order writing started, up to {} orders per {} window", maxSize, maxWait);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            fail(pending, new IllegalStateException("Order writer is shutting down"));
+        }
+    }
+
+    /**
+     * Queue an order for the next batch and wait until it is committed. With
+     * nothing else in flight it is written straight away on the calling thread.
+     *
+     * @return the saved order
+     * @throws OutOfStockException if the order could not be filled; other orders in its batch are unaffected
+     */
+    public Order submit(OrderDraft draft) {
+        if (queue == null) {
+            throw new IllegalStateException("Batched order writing is not enabled");
+        }
+        // Nothing to share a commit with: waking the writer and waiting for it only adds latency
+        if (inFlight.get() == 0 && writingAlone.compareAndSet(false, true)) {
+            try {
+                return writeAlone(draft);
+            } finally {
+                writingAlone.set(false);
+            }
+        }
+        Pending pending = new Pending(draft, new CompletableFuture<>());
+        inFlight.incrementAndGet();
+        if (!queue.offer(pending)) {
+            inFlight.decrementAndGet();
+            throw new IllegalStateException("Too many orders in flight, please retry");
+        }
+        try {
+            return pending.result().get(submitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            // The order may still be written; the client can check its order history
+            throw new RuntimeException("Timed out waiting for the order to be written");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the order to be written");
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxSize);
+        while (running || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    batch.add(queue.take());
+                }
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                // Wait only for callers that have submitted but not reached the queue yet
+                while (batch.size() < maxSize && batch.size() < inFlight.get()) {
+                    long left = deadline - System.nanoTime();
+                    Pending next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: write what was collected, then stop
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> collected) {
+        batchSizes.record(collected.size());
+        List<Pending> batch = new ArrayList<>(collected.size());
+        for (Pending next : collected) {
+            // A sale started since the checkout was queued counts these units in memory
+            if (next.draft().getItems().stream().anyMatch(item -> flashSaleService.isActive(item.getProduct().getId()))) {
+                writeThroughSale(next);
+            } else {
+                batch.add(next);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<OrderDraft> drafts = batch.stream().map(Pending::draft).toList();
+        try {
+            complete(batch, orderService.createOrders(drafts));
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            // Something only the database caught, e.g. a constraint violation;
+            // write each order on its own so only the offending one fails
+            log.warn("Order batch of {} failed, writing its orders one by one", batch.size(), e);
+        }
+        for (Pending pending : batch) {
+            try {
+                complete(List.of(pending), orderService.createOrders(List.of(pending.draft())));
+            } catch (RuntimeException e) {
+                fail(pending, e);
+            }
+        }
+    }
+
+    private Order writeAlone(OrderDraft draft) {
+        batchSizes.record(1);
+        if (draft.getItems().stream().anyMatch(item -> flashSaleService.isActive(item.getProduct().getId()))) {
+            return orderService.createOrder(draft.getUser(), draft.getItems(), draft.getShippingAddress(),
+                draft.getPaymentMethod(), draft.getPaymentIntentId());
+        }
+        OrderService.DraftResult result = orderService.createOrders(List.of(draft)).get(0);
+        if (result.error() != null) {
+            throw result.error();
+        }
+        return result.order();
+    }
+
+    private void writeThroughSale(Pending pending) {
+        OrderDraft draft = pending.draft();
+        try {
+            Order order = orderService.createOrder(draft.getUser(), draft.getItems(), draft.getShippingAddress(),
+                draft.getPaymentMethod(), draft.getPaymentIntentId());
+            inFlight.decrementAndGet();
+            pending.result().complete(order);
+        } catch (RuntimeException e) {
+            fail(pending, e);
+        }
+    }
+
+    private void complete(List<Pending> batch, List<OrderService.DraftResult> results) {
+        for (int i = 0; i < batch.size(); i++) {
+            OrderService.DraftResult result = results.get(i);
+            if (result.error() != null) {
+                fail(batch.get(i), result.error());
+            } else {
+                inFlight.decrementAndGet();
+                batch.get(i).result().complete(result.order());
+            }
+        }
+    }
+
+    private void fail(Pending pending, RuntimeException error) {
+        inFlight.decrementAndGet();
+        pending.result().completeExceptionally(error);
+    }
+}
@@ -0,0 +1,21 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A checkout waiting to be written, as handed to {@link OrderBatchWriter}.
+ */
+@Data
+@AllArgsConstructor
+public class OrderDraft {
+    private User user;
+    private List<OrderItem> items;
+    private String shippingAddress;
+    private String paymentMethod;
+    private String paymentIntentId;
+}
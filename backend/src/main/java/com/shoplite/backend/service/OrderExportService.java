@@ -0,0 +1,223 @@
+package com.shoplite.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.repository.OrderItemRepository;
+import com.shoplite.backend.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams orders in a date range to an output stream as NDJSON (one order per
+ * line) or CSV (one row per order item).
+ *
+ * Orders are read through a forward-only cursor in chunks; each chunk's items
+ * are loaded in one query, written, and then the persistence context is
+ * cleared, so memory use does not grow with the size of the export. Sharded
+ * orders come merged from all shards, a chunk at a time.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String[] CSV_HEADER = {
+        "order_id", "created_at", "status", "user_id", "user_email", "total_amount", "shipping_address",
+        "payment_method", "payment_intent_id", "item_id", "product_id", "product_name", "quantity", "price_at_purchase"
+    };
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ShardedOrderStore shardedOrderStore;
+
+    /**
+     * Write every order created in [from, to) to {@code out}, oldest id first.
+     */
+    @Transactional(readOnly = true)
+    public void export(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writeCsvRow(writer, CSV_HEADER);
+        }
+
+        if (shardedOrderStore.isEnabled()) {
+            Iterator<List<Order>> chunks = shardedOrderStore.chunksCreatedBetween(from, to, CHUNK_SIZE);
+            while (chunks.hasNext()) {
+                List<Order> chunk = chunks.next();
+                writeChunk(chunk, itemsOf(chunk), format, writer);
+                writer.flush();
+                entityManager.clear();
+            }
+            writer.flush();
+            return;
+        }
+
+        try (Stream<Order> orders = orderRepository.streamByCreatedAtRange(from, to)) {
+            Iterator<Order> iterator = orders.iterator();
+            List<Order> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    writeChunk(chunk, loadItems(chunk), format, writer);
+                    writer.flush();
+                    chunk.clear();
+                    // Detach everything loaded so far; the cursor itself is unaffected
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private Map<Long, List<OrderItem>> loadItems(List<Order> orders) {
+        Map<Long, List<OrderItem>> itemsByOrder = new HashMap<>();
+        for (OrderItem item : orderItemRepository.findWithProductByOrderIn(orders)) {
+            itemsByOrder.computeIfAbsent(item.getOrder().getId(), id -> new ArrayList<>()).add(item);
+        }
+        return itemsByOrder;
+    }
+
+    private static Map<Long, List<OrderItem>> itemsOf(List<Order> orders) {
+        Map<Long, List<OrderItem>> itemsByOrder = new HashMap<>();
+        orders.forEach(order -> itemsByOrder.put(order.getId(), order.getItems()));
+        return itemsByOrder;
+    }
+
+    private void writeChunk(List<Order> orders, Map<Long, List<OrderItem>> itemsByOrder, Format format, Writer writer)
+            throws IOException {
+        for (Order order : orders) {
+            List<OrderItem> items = itemsByOrder.getOrDefault(order.getId(), List.of());
+            if (format == Format.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(toRecord(order, items)));
+                writer.write('\n');
+            } else if (items.isEmpty()) {
+                writeCsvRow(writer, csvRow(order, null));
+            } else {
+                for (OrderItem item : items) {
+                    writeCsvRow(writer, csvRow(order, item));
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> toRecord(Order order, List<OrderItem> items) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", order.getId());
+        record.put("createdAt", String.valueOf(order.getCreatedAt()));
+        record.put("status", order.getStatus());
+        record.put("userId", order.getUser().getId());
+        record.put("userEmail", order.getUser().getEmail());
+        record.put("totalAmount", order.getTotalAmount());
+        record.put("shippingAddress", order.getShippingAddress());
+        record.put("paymentMethod", order.getPaymentMethod());
+        record.put("paymentIntentId", order.getPaymentIntentId());
+
+        List<Map<String, Object>> itemRecords = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            Map<String, Object> itemRecord = new LinkedHashMap<>();
+            itemRecord.put("id", item.getId());
+            itemRecord.put("productId", item.getProduct().getId());
+            itemRecord.put("productName", item.getProduct().getName());
+            itemRecord.put("quantity", item.getQuantity());
+            itemRecord.put("priceAtPurchase", item.getPriceAtPurchase());
+            itemRecords.add(itemRecord);
+        }
+        record.put("items", itemRecords);
+        return record;
+    }
+
+    private String[] csvRow(Order order, OrderItem item) {
+        return new String[] {
+            String.valueOf(order.getId()),
+            String.valueOf(order.getCreatedAt()),
+            String.valueOf(order.getStatus()),
+            String.valueOf(order.getUser().getId()),
+            order.getUser().getEmail(),
+            order.getTotalAmount().toPlainString(),
+            order.getShippingAddress(),
+            order.getPaymentMethod(),
+            order.getPaymentIntentId(),
+            item != null ? String.valueOf(item.getId()) : null,
+            item != null ? String.valueOf(item.getProduct().getId()) : null,
+            item != null ? item.getProduct().getName() : null,
+            item != null ? String.valueOf(item.getQuantity()) : null,
+            item != null ? item.getPriceAtPurchase().toPlainString() : null
+        };
+    }
+
+    private static void writeCsvRow(Writer writer, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(fields[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        // Neutralize spreadsheet formulas in user-supplied text such as addresses
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,236 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderIntakeJob;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.OrderIntakeJobRepository;
+import com.shoplite.backend.repository.OrderItemRepository;
+import com.shoplite.backend.repository.OrderRepository;
+import com.shoplite.backend.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Async order intake. {@link #accept} validates and prices the order and
+ * stores it PENDING together with a queue entry, without touching stock, so
+ * checkout answers quickly. {@link OrderIntakeWorker} later calls
+ * {@link #allocate} to take the stock and move the order to PROCESSING.
+ *
+ * Enabled with {@code orders.intake-mode=async}; the default, {@code sync},
+ * keeps allocating stock inside the request via {@link OrderService#createOrder}.
+ */
+@Service
+public class OrderIntakeService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderIntakeJobRepository orderIntakeJobRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${orders.intake-mode:sync}")
+    private String intakeMode;
+
+    @Value("${orders.intake.max-attempts:5}")
+    private int maxAttempts;
+
+    public boolean isAsync() {
+        return "async".equalsIgnoreCase(intakeMode);
+    }
+
+    @Transactional
+    @Timed(value = "shoplite.order.accept", histogram = true)
+    public Order accept(User user, List<OrderItem> items, String shippingAddress, String paymentMethod, String paymentIntentId) {
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Order has no items");
+        }
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setShippingAddress(shippingAddress);
+        order.setPaymentMethod(paymentMethod);
+        order.setPaymentIntentId(paymentIntentId);
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            if (item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new IllegalArgumentException("Quantity must be at least 1");
+            }
+            Product product = productRepository.findById(item.getProduct().getId())
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + item.getProduct().getId()));
+            // Reject obvious shortfalls now; the worker re-checks atomically when it allocates
+            if (product.getStockQuantity() < item.getQuantity()) {
+                throw new OutOfStockException("Not enough stock for product: " + product.getName());
+            }
+            item.setProduct(product);
+            item.setPriceAtPurchase(product.getPrice());
+            totalAmount = totalAmount.add(product.getPrice().multiply(new BigDecimal(item.getQuantity())));
+        }
+        order.setTotalAmount(totalAmount);
+
+        Order savedOrder = orderRepository.save(order);
+        for (OrderItem item : items) {
+            item.setOrder(savedOrder);
+            orderItemRepository.save(item);
+        }
+        savedOrder.setItems(items);
+        outboxService.orderCreated(savedOrder);
+        salesRollupService.addOrders(List.of(savedOrder));
+        orderSummaryService.addOrders(List.of(savedOrder));
+        eventPublisher.publishEvent(OrderPlacedEvent.of(List.of(savedOrder)));
+
+        OrderIntakeJob job = new OrderIntakeJob();
+        job.setOrderId(savedOrder.getId());
+        orderIntakeJobRepository.save(job);
+
+        // Wakes the worker once this transaction commits
+        eventPublisher.publishEvent(new OrderAcceptedEvent(savedOrder.getId()));
+        return savedOrder;
+    }
+
+    /**
+     * Take stock for every item and move the order to PROCESSING. Any
+     * shortfall rolls back the whole allocation.
+     */
+    @Transactional
+    public void allocate(Long jobId) {
+        OrderIntakeJob job = orderIntakeJobRepository.findById(jobId)
+            .orElseThrow(() -> new RuntimeException("Intake job not found with id: " + jobId));
+
+        // Claim the order first; this also locks its row against a concurrent cancel
+        if (orderRepository.transitionStatus(job.getOrderId(), Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING) == 0) {
+            // Cancelled before it was allocated: nothing to take
+            job.setStatus(OrderIntakeJob.Status.DONE);
+            orderIntakeJobRepository.save(job);
+            return;
+        }
+
+        outboxService.orderStatusChanged(job.getOrderId(), Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING);
+        orderSummaryService.statusChanged(job.getOrderId(), Order.OrderStatus.PROCESSING);
+
+        Long userId = orderRepository.findById(job.getOrderId()).orElseThrow().getUser().getId();
+        for (OrderItem item : orderItemRepository.findByOrderId(job.getOrderId())) {
+            // A sale started since the order was accepted already counts these units; take them from it
+            if (flashSaleService.take(item.getProduct().getId(), item.getQuantity())) {
+                stockReservationService.consumeHold(userId, item.getProduct().getId(), item.getQuantity());
+                continue;
+            }
+            if (productRepository.decrementStock(item.getProduct().getId(), item.getQuantity()) == 0) {
+                throw new OutOfStockException("Not enough stock for product: " + item.getProduct().getName());
+            }
+            // Sell the units held by the user's cart first; others' holds are off limits
+            stockReservationService.consume(userId, item.getProduct(), item.getQuantity());
+            outboxService.stockChanged(item.getProduct().getId(), -item.getQuantity(), null);
+        }
+
+        job.setStatus(OrderIntakeJob.Status.DONE);
+        job.setLastError(null);
+        orderIntakeJobRepository.save(job);
+    }
+
+    /**
+     * Give up on a job and cancel its order, which never received stock.
+     */
+    @Transactional
+    public void fail(Long jobId, String error) {
+        orderIntakeJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(OrderIntakeJob.Status.FAILED);
+            job.setLastError(truncate(error));
+            orderIntakeJobRepository.save(job);
+            if (orderRepository.transitionStatus(job.getOrderId(), Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED) == 1) {
+                outboxService.orderStatusChanged(job.getOrderId(), Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED);
+                orderSummaryService.statusChanged(job.getOrderId(), Order.OrderStatus.CANCELLED);
+                orderRepository.findById(job.getOrderId()).ifPresent(order ->
+                    salesRollupService.removeOrder(order, orderItemRepository.findByOrderId(order.getId())));
+            }
+        });
+    }
+
+    /**
+     * Put a job back on the queue after a transient error, with quadratic
+     * backoff, or fail it once it has used up its attempts.
+     */
+    @Transactional
+    public void retry(Long jobId, String error) {
+        Optional<OrderIntakeJob> jobOpt = orderIntakeJobRepository.findById(jobId);
+        if (jobOpt.isEmpty()) {
+            return;
+        }
+        OrderIntakeJob job = jobOpt.get();
+        if (job.getAttempts() >= maxAttempts) {
+            fail(jobId, error);
+            return;
+        }
+        job.setStatus(OrderIntakeJob.Status.QUEUED);
+        job.setLastError(truncate(error));
+        job.setAvailableAt(LocalDateTime.now().plusSeconds((long) job.getAttempts() * job.getAttempts()));
+        orderIntakeJobRepository.save(job);
+    }
+
+    /**
+     * True while the order is queued for async intake and holds no stock yet.
+     */
+    public boolean isAwaitingAllocation(Long orderId) {
+        return orderIntakeJobRepository.findByOrderId(orderId)
+            .map(job -> job.getStatus() == OrderIntakeJob.Status.QUEUED || job.getStatus() == OrderIntakeJob.Status.CLAIMED)
+            .orElse(false);
+    }
+
+    public Map<String, Object> getStatus(Order order) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("orderId", order.getId());
+        status.put("status", order.getStatus());
+        orderIntakeJobRepository.findByOrderId(order.getId()).ifPresent(job -> {
+            status.put("intakeStatus", job.getStatus());
+            if (job.getStatus() == OrderIntakeJob.Status.FAILED) {
+                status.put("error", job.getLastError());
+            }
+        });
+        return status;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
@@ -0,0 +1,138 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.repository.OrderIntakeJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the order intake queue in async intake mode. A single poller thread
+ * claims ready jobs, only as many as there are free worker slots, and hands
+ * them to a fixed pool of {@code orders.intake.workers} threads; a burst of
+ * checkouts therefore queues in the table instead of in memory. The poller
+ * runs every {@code orders.intake.poll-ms} and right after an order is accepted.
+ */
+@Service
+public class OrderIntakeWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeWorker.class);
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private OrderIntakeJobRepository orderIntakeJobRepository;
+
+    @Value("${orders.intake.workers:4}")
+    private int workers;
+
+    @Value("${orders.intake.poll-ms:250}")
+    private long pollMillis;
+
+    // A claim older than this belongs to a node that died mid-allocation
+    @Value("${orders.intake.claim-timeout:5m}")
+    private Duration claimTimeout;
+
+    private ScheduledExecutorService poller;
+    private ThreadPoolExecutor pool;
+    private Semaphore slots;
+    private LocalDateTime lastRequeue = LocalDateTime.MIN;
+
+    @PostConstruct
+    public void start() {
+        if (!orderIntakeService.isAsync()) {
+            return;
+        }
+        slots = new Semaphore(workers * 2);
+        pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(workers * 2), new CustomizableThreadFactory("order-intake-"));
+        poller = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("order-intake-poller-"));
+        poller.scheduleWithFixedDelay(this::drain, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        log.info("Async order intake started with {} workers", workers);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (poller == null) {
+            return;
+        }
+        poller.shutdownNow();
+        pool.shutdown();
+        // Unfinished jobs stay CLAIMED and are requeued after the claim timeout
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @TransactionalEventListener
+    public void onOrderAccepted(OrderAcceptedEvent event) {
+        if (poller != null) {
+            poller.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (lastRequeue.plusMinutes(1).isBefore(now)) {
+                int requeued = orderIntakeJobRepository.requeueStale(now.minus(claimTimeout));
+                if (requeued > 0) {
+                    log.warn("Requeued {} stale order intake jobs", requeued);
+                }
+                lastRequeue = now;
+            }
+
+            int free = slots.availablePermits();
+            if (free == 0) {
+                return;
+            }
+            List<Long> ready = orderIntakeJobRepository.findReadyIds(now, PageRequest.of(0, free));
+            for (Long jobId : ready) {
+                if (!slots.tryAcquire()) {
+                    return;
+                }
+                if (orderIntakeJobRepository.claim(jobId, now) == 0) {
+                    // Claimed by another node
+                    slots.release();
+                    continue;
+                }
+                pool.execute(() -> {
+                    try {
+                        process(jobId);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the scheduled poll for good
+            log.warn("Order intake poll failed", e);
+        }
+    }
+
+    private void process(Long jobId) {
+        try {
+            orderIntakeService.allocate(jobId);
+        } catch (OutOfStockException e) {
+            orderIntakeService.fail(jobId, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Order intake job {} failed, will retry", jobId, e);
+            orderIntakeService.retry(jobId, e.getMessage());
+        }
+    }
+}
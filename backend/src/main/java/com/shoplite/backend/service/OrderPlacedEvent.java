@@ -0,0 +1,38 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published when orders are placed, with the units ordered per product id of
+ * each order; handled after commit.
+ */
+public record OrderPlacedEvent(List<Map<Long, Integer>> orders) {
+
+    public static OrderPlacedEvent of(Collection<Order> orders) {
+        List<Map<Long, Integer>> units = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            Map<Long, Integer> orderUnits = new HashMap<>();
+            for (OrderItem item : order.getItems()) {
+                orderUnits.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+            units.add(orderUnits);
+        }
+        return new OrderPlacedEvent(units);
+    }
+
+    /**
+     * Units per product id across all the orders.
+     */
+    public Map<Long, Integer> unitsByProduct() {
+        Map<Long, Integer> units = new HashMap<>();
+        orders.forEach(order -> order.forEach((productId, quantity) -> units.merge(productId, quantity, Integer::sum)));
+        return units;
+    }
+}
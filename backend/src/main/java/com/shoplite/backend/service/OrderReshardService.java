@@ -0,0 +1,126 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.config.OrderShards;
+import com.shoplite.backend.config.OrderShards.Shard;
+import com.shoplite.backend.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Moves orders to the shard their user hashes to under the configured shard
+ * list: after shards were added to {@code orders.shards.urls}, or, from the
+ * primary, when sharding is first turned on.
+ *
+ * Each source is scanned in pages of {@code orders.shards.reshard-batch}
+ * orders. An order is copied to its shard, unless a previous run already did,
+ * and only then deleted from the source, so a run that stops halfway can
+ * simply be started again. Orders still in the primary are read from there
+ * meanwhile, but after shards are added a user's reads go to the new shard
+ * straight away, so run it before taking checkouts.
+ */
+@Service
+public class OrderReshardService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderReshardService.class);
+
+    @Autowired
+    private ShardedOrderStore shardedOrderStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${orders.shards.reshard-batch:500}")
+    private int batchSize;
+
+    private record Source(String name, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int shard) {
+    }
+
+    /**
+     * @param fromPrimary also move the orders still in the primary database
+     * @return orders scanned and moved, by source
+     */
+    public synchronized Map<String, Object> reshard(boolean fromPrimary) {
+        if (!shardedOrderStore.isEnabled()) {
+            throw new IllegalStateException("Orders are not sharded; set orders.shards.urls first");
+        }
+        OrderShards shards = shardedOrderStore.shards();
+        List<Source> sources = new ArrayList<>();
+        if (fromPrimary) {
+            sources.add(new Source("primary", jdbcTemplate, transactionTemplate, -1));
+        }
+        for (Shard shard : shards.all()) {
+            sources.add(new Source("shard-" + shard.index(), shard.jdbcTemplate(), shard.transactionTemplate(), shard.index()));
+        }
+
+        long scanned = 0;
+        long moved = 0;
+        Map<String, Object> bySource = new LinkedHashMap<>();
+        for (Source source : sources) {
+            long[] counts = drain(source, shards);
+            scanned += counts[0];
+            moved += counts[1];
+            bySource.put(source.name(), Map.of("scanned", counts[0], "moved", counts[1]));
+            log.info("Resharding {}: {} orders scanned, {} moved", source.name(), counts[0], counts[1]);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("shards", shards.count());
+        result.put("scanned", scanned);
+        result.put("moved", moved);
+        result.put("sources", bySource);
+        return result;
+    }
+
+    private long[] drain(Source source, OrderShards shards) {
+        long scanned = 0;
+        long moved = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<Order> page = shardedOrderStore.loadPage(source.jdbcTemplate(), afterId, batchSize);
+            if (page.isEmpty()) {
+                return new long[] {scanned, moved};
+            }
+            scanned += page.size();
+            afterId = page.get(page.size() - 1).getId();
+
+            Map<Integer, List<Order>> byTarget = new TreeMap<>();
+            for (Order order : page) {
+                int target = OrderShards.shardOf(order.getUser().getId(), shards.count());
+                if (target != source.shard()) {
+                    byTarget.computeIfAbsent(target, shard -> new ArrayList<>()).add(order);
+                }
+            }
+            for (Map.Entry<Integer, List<Order>> entry : byTarget.entrySet()) {
+                move(source, shards.get(entry.getKey()), entry.getValue());
+                moved += entry.getValue().size();
+            }
+        }
+    }
+
+    private void move(Source source, Shard target, List<Order> orders) {
+        shardedOrderStore.loadItems(source.jdbcTemplate(), orders);
+        Set<Long> copied = new HashSet<>(shardedOrderStore.existingIds(target, orders.stream().map(Order::getId).toList()));
+        List<Order> missing = orders.stream().filter(order -> !copied.contains(order.getId())).toList();
+        if (!missing.isEmpty()) {
+            shardedOrderStore.write(target, missing);
+        }
+        List<Long> ids = orders.stream().map(Order::getId).toList();
+        source.transactionTemplate().executeWithoutResult(status -> shardedOrderStore.delete(source.jdbcTemplate(), ids));
+    }
+}
@@ -2,21 +2,44 @@ package com.shoplite.backend.service;
 
 import com.shoplite.backend.model.Order;
 import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.OrderSummary;
 import com.shoplite.backend.model.Product;
 import com.shoplite.backend.model.User;
 import com.shoplite.backend.repository.OrderItemRepository;
 import com.shoplite.backend.repository.OrderRepository;
+import com.shoplite.backend.repository.OrderSummaryRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
 
 @Service
 public class OrderService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * The result of one draft in {@link #createOrders}: the saved order, or why it was rejected.
+     */
+    public record DraftResult(Order order, RuntimeException error) {
+    }
+
     @Autowired
     private OrderRepository orderRepository;
     
@@ -26,19 +49,112 @@ public class OrderService {
     @Autowired
     private ProductService productService;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardedOrderStore shardedOrderStore;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
     public List<Order> findAll() {
+        if (shardedOrderStore.isEnabled()) {
+            return shardedOrderStore.findAll();
+        }
         return orderRepository.findAll();
     }
 
+    /** A live order, or else an archived one. */
     public Optional<Order> findById(Long id) {
-        return orderRepository.findById(id);
+        Optional<Order> order = shardedOrderStore.isEnabled() ? shardedOrderStore.findById(id) : orderRepository.findById(id);
+        return order.isPresent() ? order : orderArchiveService.findById(id);
     }
     
     public List<Order> findByUser(User user) {
-        return orderRepository.findByUserOrderByCreatedAtDesc(user);
+        if (shardedOrderStore.isEnabled()) {
+            return shardedOrderStore.findByUser(user);
+        }
+        return orderRepository.findWithItemsByUser(user);
+    }
+
+    /**
+     * One page of a user's order summaries, newest first. The cursor is the
+     * opaque {@code nextCursor} of the previous page; the page is a single
+     * range query however deep into the history it is, and orders are loaded
+     * in full only by {@link #findById} for the detail page.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findPageByUser(User user, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        String[] position = cursor == null || cursor.isEmpty() ? null : decodeCursor(cursor);
+        // Fetch one extra summary to learn whether another page follows
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<OrderSummary> orders = position == null ? orderSummaryRepository.findPageByUserId(user.getId(), page)
+            : orderSummaryRepository.findPageByUserIdAfter(user.getId(), LocalDateTime.parse(position[0]),
+                Long.valueOf(position[1]), page);
+        boolean hasMore = orders.size() > limit;
+        orders = hasMore ? orders.subList(0, limit) : orders;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("orders", orders);
+        if (hasMore) {
+            OrderSummary last = orders.get(orders.size() - 1);
+            result.put("nextCursor", encodeCursor(last.getCreatedAt(), last.getId()));
+        } else {
+            result.put("nextCursor", null);
+        }
+        return result;
+    }
+
+    static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String position = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
     }
     
     @Transactional
+    @Timed(value = "shoplite.order.create", histogram = true)
     public Order createOrder(User user, List<OrderItem> items, String shippingAddress, String paymentMethod, String paymentIntentId) {
         Order order = new Order();
         order.setUser(user);
@@ -53,14 +169,23 @@ public class OrderService {
             if (productOpt.isPresent()) {
                 Product product = productOpt.get();
                 
-                // Check if enough stock is available
-                if (product.getStockQuantity() < item.getQuantity()) {
-                    throw new RuntimeException("Not enough stock for product: " + product.getName());
+                // Products in a flash sale take their units from memory; the row is written later
+                if (!flashSaleService.take(product.getId(), item.getQuantity())) {
+                    // Check if enough stock is available
+                    if (product.getStockQuantity() < item.getQuantity()) {
+                        throw new RuntimeException("Not enough stock for product: " + product.getName());
+                    }
+                    
+                    // Update product stock
+                    productService.updateStock(product.getId(), -item.getQuantity());
+                    
+                    // Sell the units held by the user's cart first; others' holds are off limits
+                    stockReservationService.consume(user.getId(), product, item.getQuantity());
+                } else {
+                    // The sale's units are not in the shards, but the cart's hold on them ends here
+                    stockReservationService.consumeHold(user.getId(), product.getId(), item.getQuantity());
                 }
                 
-                // Update product stock
-                productService.updateStock(product.getId(), -item.getQuantity());
-                
                 // Set price at purchase time
                 item.setPriceAtPurchase(product.getPrice());
                 
@@ -73,20 +198,165 @@ public class OrderService {
         
         order.setTotalAmount(totalAmount);
         
-        // Save the order first to get an ID
-        Order savedOrder = orderRepository.save(order);
-        
-        // Set the order reference in each item and save them
-        for (OrderItem item : items) {
-            item.setOrder(savedOrder);
-            orderItemRepository.save(item);
+        Order savedOrder;
+        if (shardedOrderStore.isEnabled()) {
+            order.setItems(items);
+            savedOrder = shardedOrderStore.insert(order);
+        } else {
+            // Save the order first to get an ID
+            savedOrder = orderRepository.save(order);
+            
+            // Set the order reference in each item and save them
+            for (OrderItem item : items) {
+                item.setOrder(savedOrder);
+                orderItemRepository.save(item);
+            }
+            savedOrder.setItems(items);
         }
+        outboxService.orderCreated(savedOrder);
+        salesRollupService.addOrders(List.of(savedOrder));
+        orderSummaryService.addOrders(List.of(savedOrder));
+        eventPublisher.publishEvent(OrderPlacedEvent.of(List.of(savedOrder)));
         
         return savedOrder;
     }
     
+    /**
+     * Write several checkouts in one transaction. Every product involved is
+     * locked once, drafts take stock in the order given, and each product gets
+     * a single stock update for the whole batch. A draft that cannot be filled
+     * is rejected on its own; the others are still written.
+     *
+     * @return one result per draft, in the same order
+     */
+    @Transactional
+    @Timed(value = "shoplite.order.create-batch", histogram = true)
+    public List<DraftResult> createOrders(List<OrderDraft> drafts) {
+        TreeSet<Long> productIds = new TreeSet<>();
+        for (OrderDraft draft : drafts) {
+            for (OrderItem item : draft.getItems()) {
+                productIds.add(item.getProduct().getId());
+            }
+        }
+        Map<Long, Product> products = new HashMap<>();
+        Map<Long, Integer> remaining = new HashMap<>();
+        // Locked one at a time in id order, so concurrent batches cannot deadlock;
+        // find() reuses its SQL where an IN-list query would be re-planned per call
+        for (Long productId : productIds) {
+            Product product = entityManager.find(Product.class, productId, LockModeType.PESSIMISTIC_WRITE);
+            if (product != null) {
+                products.put(productId, product);
+                remaining.put(productId, product.getStockQuantity());
+            }
+        }
+
+        List<DraftResult> results = new ArrayList<>(drafts.size());
+        List<Order> orders = new ArrayList<>();
+        for (OrderDraft draft : drafts) {
+            try {
+                Order order = price(draft, products, remaining);
+                orders.add(order);
+                results.add(new DraftResult(order, null));
+            } catch (RuntimeException e) {
+                results.add(new DraftResult(null, e));
+            }
+        }
+
+        // Products are managed, so this flushes as one UPDATE per product
+        remaining.forEach((id, stock) -> {
+            Product product = products.get(id);
+            if (product.getStockQuantity() != stock.intValue()) {
+                outboxService.stockChanged(id, stock - product.getStockQuantity(), stock);
+                product.setStockQuantity(stock);
+            }
+        });
+        // Items cascade from their order
+        orderRepository.saveAll(orders);
+        orders.forEach(outboxService::orderCreated);
+        if (!orders.isEmpty()) {
+            salesRollupService.addOrders(orders);
+            orderSummaryService.addOrders(orders);
+            eventPublisher.publishEvent(OrderPlacedEvent.of(orders));
+        }
+        return results;
+    }
+
+    /**
+     * Build the order for a draft and take its stock from {@code remaining},
+     * or leave {@code remaining} untouched and throw if it cannot be filled.
+     */
+    private Order price(OrderDraft draft, Map<Long, Product> products, Map<Long, Integer> remaining) {
+        if (draft.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Order has no items");
+        }
+        Map<Long, Integer> wanted = new HashMap<>();
+        for (OrderItem item : draft.getItems()) {
+            Long productId = item.getProduct().getId();
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Product not found with id: " + productId);
+            }
+            // The sale's counter already holds the row's units; OrderBatchWriter writes such checkouts on their own
+            if (flashSaleService.isActive(productId)) {
+                throw new IllegalStateException("A flash sale of " + products.get(productId).getName()
+                    + " has just started, please check out again");
+            }
+            if (item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new IllegalArgumentException("Quantity must be at least 1");
+            }
+            wanted.merge(productId, item.getQuantity(), Integer::sum);
+        }
+        wanted.forEach((productId, quantity) -> {
+            if (remaining.get(productId) < quantity) {
+                throw new OutOfStockException("Not enough stock for product: " + products.get(productId).getName());
+            }
+        });
+        // Sell the units held by the user's cart first; others' holds are off limits
+        if (!stockReservationService.tryConsume(draft.getUser().getId(), wanted)) {
+            throw new OutOfStockException("Not enough stock available: units are held in other carts");
+        }
+        wanted.forEach((productId, quantity) -> remaining.merge(productId, -quantity, Integer::sum));
+
+        Order order = new Order();
+        order.setUser(draft.getUser());
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setShippingAddress(draft.getShippingAddress());
+        order.setPaymentMethod(draft.getPaymentMethod());
+        order.setPaymentIntentId(draft.getPaymentIntentId());
+
+        // Fresh items, so a draft can be written again if its batch rolls back
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (OrderItem draftItem : draft.getItems()) {
+            Product product = products.get(draftItem.getProduct().getId());
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(draftItem.getQuantity());
+            item.setPriceAtPurchase(product.getPrice());
+            order.getItems().add(item);
+            totalAmount = totalAmount.add(product.getPrice().multiply(new BigDecimal(item.getQuantity())));
+        }
+        order.setTotalAmount(totalAmount);
+        return order;
+    }
+
     @Transactional
     public Order updateOrderStatus(Long orderId, Order.OrderStatus status) {
+        // Orders placed before sharding stay in the primary until resharded
+        if (shardedOrderStore.isEnabled() && !orderRepository.existsById(orderId)) {
+            return updateShardedOrderStatus(orderId, status);
+        }
+
+        // An order still queued for async intake holds no stock, so cancelling returns none
+        if (status == Order.OrderStatus.CANCELLED && orderIntakeService.isAwaitingAllocation(orderId)
+                && orderRepository.transitionStatus(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED) == 1) {
+            outboxService.orderStatusChanged(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED);
+            orderSummaryService.statusChanged(orderId, Order.OrderStatus.CANCELLED);
+            Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+            salesRollupService.removeOrder(order, orderItemRepository.findByOrder(order));
+            return order;
+        }
+
         Optional<Order> orderOpt = orderRepository.findById(orderId);
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
@@ -100,9 +370,20 @@ public class OrderService {
                 List<OrderItem> items = orderItemRepository.findByOrder(order);
                 for (OrderItem item : items) {
                     productService.updateStock(item.getProduct().getId(), item.getQuantity());
+                    stockReservationService.restock(item.getProduct().getId(), item.getQuantity());
                 }
             }
             
+            if (order.getStatus() != status) {
+                outboxService.orderStatusChanged(orderId, order.getStatus(), status);
+                orderSummaryService.statusChanged(orderId, status);
+                // Cancelled orders do not count as sales; reopening one counts it again
+                if (status == Order.OrderStatus.CANCELLED) {
+                    salesRollupService.removeOrder(order, orderItemRepository.findByOrder(order));
+                } else if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+                    salesRollupService.addOrder(order, orderItemRepository.findByOrder(order));
+                }
+            }
             order.setStatus(status);
             return orderRepository.save(order);
         } else {
@@ -110,7 +391,49 @@ public class OrderService {
         }
     }
 
+    /**
+     * {@link #updateOrderStatus} for sharded orders. Intake is synchronous
+     * then, so no order is awaiting allocation.
+     */
+    private Order updateShardedOrderStatus(Long orderId, Order.OrderStatus status) {
+        Order order = shardedOrderStore.findById(orderId)
+            .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        Order.OrderStatus previous = order.getStatus();
+        if (previous == status) {
+            return order;
+        }
+        // The shard's compare-and-set goes first, so two concurrent cancellations restock once
+        if (!shardedOrderStore.transitionStatus(orderId, previous, status)) {
+            throw new IllegalStateException("Order " + orderId + " was updated concurrently");
+        }
+        if (status == Order.OrderStatus.CANCELLED
+                && (previous == Order.OrderStatus.PENDING || previous == Order.OrderStatus.PROCESSING)) {
+            for (OrderItem item : order.getItems()) {
+                productService.updateStock(item.getProduct().getId(), item.getQuantity());
+                stockReservationService.restock(item.getProduct().getId(), item.getQuantity());
+            }
+        }
+        outboxService.orderStatusChanged(orderId, previous, status);
+        orderSummaryService.statusChanged(orderId, status);
+        if (status == Order.OrderStatus.CANCELLED) {
+            salesRollupService.removeOrder(order, order.getItems());
+        } else if (previous == Order.OrderStatus.CANCELLED) {
+            salesRollupService.addOrder(order, order.getItems());
+        }
+        order.setStatus(status);
+        return order;
+    }
+
+    @Transactional
     public void deleteById(Long id) {
+        orderSummaryService.orderDeleted(id);
+        orderArchiveService.deleteById(id);
+        if (shardedOrderStore.isEnabled()) {
+            shardedOrderStore.deleteById(id);
+            if (!orderRepository.existsById(id)) {
+                return;
+            }
+        }
         orderRepository.deleteById(id);
     }
 }
\ No newline at end of file
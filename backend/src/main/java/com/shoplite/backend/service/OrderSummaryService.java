@@ -0,0 +1,56 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.OrderSummary;
+import com.shoplite.backend.repository.OrderSummaryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Keeps the {@link OrderSummary} read model in step with orders. Every write
+ * joins the transaction that places the order or changes its status, so a
+ * list never shows an order the detail page cannot find, or a stale status.
+ * Summaries stay in the primary database when orders are sharded, so a user's
+ * list is one range query there either way.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderSummaryService {
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Summaries for newly saved orders, whose items are set. */
+    public void addOrders(List<Order> orders) {
+        for (Order order : orders) {
+            OrderSummary summary = new OrderSummary();
+            summary.setId(order.getId());
+            summary.setUserId(order.getUser().getId());
+            summary.setStatus(order.getStatus());
+            summary.setTotalAmount(order.getTotalAmount());
+            summary.setItemCount(order.getItems().stream().mapToInt(OrderItem::getQuantity).sum());
+            summary.setCreatedAt(order.getCreatedAt());
+            summary.setUpdatedAt(order.getUpdatedAt());
+            // persist, not save: the id is assigned, so save would look the row up first
+            entityManager.persist(summary);
+        }
+    }
+
+    public void statusChanged(Long orderId, Order.OrderStatus status) {
+        orderSummaryRepository.updateStatus(orderId, status);
+    }
+
+    public void orderDeleted(Long orderId) {
+        orderSummaryRepository.findById(orderId).ifPresent(orderSummaryRepository::delete);
+    }
+}
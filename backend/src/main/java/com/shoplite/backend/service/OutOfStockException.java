@@ -0,0 +1,11 @@
+package com.shoplite.backend.service;
+
+/**
+ * Thrown when an order asks for more units of a product than are left.
+ */
+public class OutOfStockException extends RuntimeException {
+
+    public OutOfStockException(String message) {
+        super(message);
+    }
+}
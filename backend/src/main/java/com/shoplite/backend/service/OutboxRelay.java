@@ -0,0 +1,122 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.OutboxEvent;
+import com.shoplite.backend.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers committed outbox events to every {@link OutboxSink}, in batches of
+ * {@code outbox.relay.batch-size} and in id order. A batch is marked published
+ * only after all sinks took it; when a sink fails the relay stops and offers
+ * the same batch again on the next poll, so delivery is at least once and the
+ * events of one order never overtake each other.
+ *
+ * Run the relay on one node only ({@code outbox.relay.enabled}).
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired(required = false)
+    private List<OutboxSink> sinks = List.of();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    // How long published events are kept, e.g. for replay to a new sink
+    @Value("${outbox.retention:7d}")
+    private Duration retention;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private Timer deliveryLag;
+    private Counter published;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("shoplite.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+            .description("Age of the oldest undelivered outbox event")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        deliveryLag = Timer.builder("shoplite.outbox.delivery.lag")
+            .description("Time from an outbox event being written to its delivery")
+            .register(meterRegistry);
+        published = Counter.builder("shoplite.outbox.published")
+            .description("Outbox events delivered to all sinks")
+            .register(meterRegistry);
+        if (enabled && sinks.isEmpty()) {
+            log.info("No outbox sinks configured; outbox events are kept but not relayed");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-ms:1000}")
+    public void relay() {
+        if (!enabled || sinks.isEmpty()) {
+            return;
+        }
+        try {
+            List<OutboxEvent> batch;
+            do {
+                batch = outboxEventRepository.findUnpublished(PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (OutboxSink sink : sinks) {
+                    sink.publish(batch);
+                }
+                LocalDateTime now = LocalDateTime.now();
+                outboxEventRepository.markPublished(batch.stream().map(OutboxEvent::getId).toList(), now);
+                for (OutboxEvent event : batch) {
+                    deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+                }
+                published.increment(batch.size());
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, the batch will be offered again", e);
+        } finally {
+            updateLag();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-ms:3600000}")
+    public void purgePublished() {
+        int purged = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} published outbox events", purged);
+        }
+    }
+
+    private void updateLag() {
+        try {
+            LocalDateTime oldest = outboxEventRepository.findOldestUnpublishedCreatedAt();
+            lagMillis.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+        } catch (RuntimeException e) {
+            log.debug("Could not measure outbox lag", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.shoplite.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.OutboxEvent;
+import com.shoplite.backend.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes order and stock events to the outbox. Every method joins the
+ * caller's transaction, and refuses to run without one, so an event exists
+ * exactly when the change it describes was committed. {@link OutboxRelay}
+ * delivers them afterwards.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    public static final String ORDER = "Order";
+    public static final String PRODUCT = "Product";
+    public static final String CATALOG = "Catalog";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void orderCreated(Order order) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("productId", item.getProduct().getId());
+            line.put("quantity", item.getQuantity());
+            line.put("priceAtPurchase", item.getPriceAtPurchase());
+            items.add(line);
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser().getId());
+        payload.put("status", order.getStatus());
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("items", items);
+        record(ORDER, order.getId(), "OrderCreated", payload);
+    }
+
+    public void orderStatusChanged(Long orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", orderId);
+        payload.put("from", from);
+        payload.put("to", to);
+        record(ORDER, orderId, "OrderStatusChanged", payload);
+    }
+
+    /**
+     * @param stockQuantity the stock after the change, or null where it was
+     *                      changed by a conditional UPDATE and not read back
+     */
+    public void stockChanged(Long productId, int delta, Integer stockQuantity) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("productId", productId);
+        payload.put("delta", delta);
+        if (stockQuantity != null) {
+            payload.put("stockQuantity", stockQuantity);
+        }
+        record(PRODUCT, productId, "StockChanged", payload);
+    }
+
+    /**
+     * One event for a bulk change to many products, in place of an event per
+     * product. The changed rows all carry {@code updatedAt}, so consumers can
+     * refresh exactly them.
+     *
+     * @param categoryId the category repriced, or null for a list of products
+     */
+    public void productsBulkUpdated(Long categoryId, LocalDateTime updatedAt, int updated, List<String> fields) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        if (categoryId != null) {
+            payload.put("categoryId", categoryId);
+        }
+        payload.put("updatedAt", updatedAt.toString());
+        payload.put("updated", updated);
+        payload.put("fields", fields);
+        // The catalog as a whole has no id of its own
+        record(CATALOG, 0L, "ProductsBulkUpdated", payload);
+    }
+
+    public void record(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event payload is not serializable", e);
+        }
+        outboxEventRepository.save(event);
+    }
+}
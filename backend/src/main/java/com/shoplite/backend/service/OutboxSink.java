@@ -0,0 +1,15 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * A destination for outbox events. {@link OutboxRelay} hands every sink the
+ * same batches in id order; a batch that throws is offered again later, to
+ * every sink, so sinks must tolerate seeing an event twice (its id is stable).
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events);
+}
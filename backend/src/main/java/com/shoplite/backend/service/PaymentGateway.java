@@ -0,0 +1,12 @@
+package com.shoplite.backend.service;
+
+/**
+ * Payment provider used by the payment endpoints. Stripe in production;
+ * tests and the load-test harness plug in a stand-in.
+ */
+public interface PaymentGateway {
+
+    PaymentIntentInfo createPaymentIntent(long amount, String currency);
+
+    PaymentIntentInfo retrievePaymentIntent(String paymentIntentId);
+}
@@ -0,0 +1,11 @@
+package com.shoplite.backend.service;
+
+/**
+ * The payment provider rejected or failed a call; the message is safe to show.
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
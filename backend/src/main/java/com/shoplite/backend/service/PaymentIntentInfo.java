@@ -0,0 +1,16 @@
+package com.shoplite.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentIntentInfo {
+    private String id;
+    private String clientSecret;
+    private String status;
+    private Long amount;
+    private String currency;
+}
@@ -0,0 +1,119 @@
+package com.shoplite.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Publishes with {@code pg_notify} on {@code invalidation.channel} and
+ * listens on a dedicated connection opened outside the pool, since it is
+ * held for the life of the instance. A lost connection is reopened after
+ * {@code invalidation.reconnect-ms}; subscribers are then told they may have
+ * missed messages.
+ */
+@Service
+@ConditionalOnProperty(name = "invalidation.transport", havingValue = "postgres")
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+
+    private static final int POLL_MS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    @Value("${invalidation.channel:shoplite_invalidation}")
+    private String channel;
+
+    @Value("${invalidation.reconnect-ms:5000}")
+    private long reconnectMillis;
+
+    private final List<Consumer<String>> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Runnable> missedCallbacks = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+    private Thread listener;
+
+    @Override
+    public void publish(String message) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, channel, message);
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<String> messages, Runnable missed) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("invalidation.channel must be a lower-case SQL identifier: " + channel);
+        }
+        subscribers.add(messages);
+        missedCallbacks.add(missed);
+        if (listener == null) {
+            listener = new Thread(this::listen, "invalidation-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    log.info("Invalidation listener reconnected; caches are dropped for the messages missed meanwhile");
+                    missedCallbacks.forEach(Runnable::run);
+                }
+                connectedBefore = true;
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            subscribers.forEach(subscriber -> subscriber.accept(notification.getParameter()));
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener lost its connection, retrying in {} ms", reconnectMillis, e);
+                try {
+                    Thread.sleep(reconnectMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+    }
+}
@@ -0,0 +1,166 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Admin price and stock changes to many products at once. Products are
+ * never loaded: each chunk of {@code products.bulk-chunk-size} ids is one
+ * set-based UPDATE (repricing a category) or one JDBC batch (a list of
+ * per-product values). A bulk change is a single transaction and ends in a
+ * single ProductsBulkUpdated outbox event instead of an event per product.
+ */
+@Service
+public class ProductBulkUpdateService {
+
+    public static final int MAX_CHANGES = 5000;
+
+    private static final BigDecimal MIN_PERCENT = new BigDecimal("-90");
+    private static final BigDecimal MAX_PERCENT = new BigDecimal("1000");
+
+    private static final String REPRICE_SQL = "UPDATE products SET price = ROUND(price * ?, 2), updated_at = ? "
+        + "WHERE category_id = ? AND id BETWEEN ? AND ?";
+
+    private static final String UPDATE_SQL = "UPDATE products SET price = COALESCE(?, price), "
+        + "stock_quantity = COALESCE(?, stock_quantity), updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${products.bulk-chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * New values for one product; a null field is left as it is.
+     */
+    public record Change(Long id, BigDecimal price, Integer stockQuantity) {
+    }
+
+    /**
+     * Change every price in a category by {@code percent} (to two decimals),
+     * rounded to cents.
+     */
+    @Transactional
+    public Map<String, Object> repriceCategory(Long categoryId, BigDecimal percent) {
+        if (percent.compareTo(MIN_PERCENT) < 0 || percent.compareTo(MAX_PERCENT) > 0) {
+            throw new IllegalArgumentException("percent must be between " + MIN_PERCENT + " and " + MAX_PERCENT);
+        }
+        BigDecimal factor = BigDecimal.ONE.add(percent.setScale(2, RoundingMode.HALF_UP).movePointLeft(2));
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = productRepository.findIdsByCategoryId(categoryId);
+        int updated = 0;
+        int chunks = 0;
+        // Chunks are id ranges of the category's products, so each statement has the same shape
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            Long last = ids.get(Math.min(from + chunkSize, ids.size()) - 1);
+            updated += jdbcTemplate.update(REPRICE_SQL, factor, Timestamp.valueOf(now), categoryId, ids.get(from), last);
+            chunks++;
+        }
+        if (updated > 0) {
+            outboxService.productsBulkUpdated(categoryId, now, updated, List.of("price"));
+            invalidationBus.invalidate("Product", null);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("categoryId", categoryId);
+        result.put("updated", updated);
+        result.put("chunks", chunks);
+        result.put("updatedAt", now);
+        return result;
+    }
+
+    /**
+     * Set the given prices and stock quantities. Ids that match no product
+     * are reported in {@code missing}; the others are applied.
+     */
+    @Transactional
+    public Map<String, Object> apply(List<Change> changes) {
+        validate(changes);
+        LocalDateTime now = LocalDateTime.now();
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, changes, chunkSize, (ps, change) -> {
+            ps.setObject(1, change.price(), Types.NUMERIC);
+            ps.setObject(2, change.stockQuantity(), Types.INTEGER);
+            ps.setTimestamp(3, Timestamp.valueOf(now));
+            ps.setLong(4, change.id());
+        });
+
+        int updated = 0;
+        List<Long> missing = new ArrayList<>();
+        Set<String> fields = new HashSet<>();
+        for (int chunk = 0; chunk < counts.length; chunk++) {
+            for (int i = 0; i < counts[chunk].length; i++) {
+                Change change = changes.get(chunk * chunkSize + i);
+                // Drivers may report a batched statement as run without a row count
+                if (counts[chunk][i] > 0 || counts[chunk][i] == Statement.SUCCESS_NO_INFO) {
+                    updated++;
+                    if (change.price() != null) {
+                        fields.add("price");
+                    }
+                    if (change.stockQuantity() != null) {
+                        fields.add("stockQuantity");
+                    }
+                } else {
+                    missing.add(change.id());
+                }
+            }
+        }
+        if (updated > 0) {
+            outboxService.productsBulkUpdated(null, now, updated, fields.stream().sorted().toList());
+            invalidationBus.invalidate("Product", null);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("updated", updated);
+        result.put("chunks", counts.length);
+        result.put("missing", missing);
+        result.put("updatedAt", now);
+        return result;
+    }
+
+    private static void validate(List<Change> changes) {
+        if (changes.isEmpty() || changes.size() > MAX_CHANGES) {
+            throw new IllegalArgumentException("items must hold between 1 and " + MAX_CHANGES + " changes");
+        }
+        Set<Long> ids = new HashSet<>();
+        for (Change change : changes) {
+            if (change.id() == null || !ids.add(change.id())) {
+                throw new IllegalArgumentException("Every change needs a distinct product id");
+            }
+            if (change.price() == null && change.stockQuantity() == null) {
+                throw new IllegalArgumentException("Change for product " + change.id() + " sets neither price nor stockQuantity");
+            }
+            if (change.price() != null && change.price().signum() < 0) {
+                throw new IllegalArgumentException("Price of product " + change.id() + " must not be negative");
+            }
+            if (change.stockQuantity() != null && change.stockQuantity() < 0) {
+                throw new IllegalArgumentException("Stock of product " + change.id() + " must not be negative");
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.ProductStats;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.repository.ProductStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Product view and add-to-cart counters. Requests only bump a striped
+ * {@link LongAdder} in memory; every {@code product-stats.flush-ms} the
+ * changes since the last flush are written to product_stats in one batched
+ * upsert, so a page view never writes to the database.
+ *
+ * At most {@code product-stats.max-tracked} products are held in memory;
+ * products with no new counts are dropped at each flush, and counts for new
+ * products are discarded (and counted in {@code shoplite.product-stats.dropped})
+ * while the limit is reached. A crash loses at most the counts since the last
+ * successful flush; a failed flush keeps its counts for the next one.
+ */
+@Service
+public class ProductCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCounterService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductStatsRepository productStatsRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product-stats.max-tracked:50000}")
+    private int maxTracked;
+
+    /**
+     * Running totals for one product since it was last loaded into memory,
+     * and how much of them has already been written.
+     */
+    private static final class Counts {
+        final LongAdder views = new LongAdder();
+        final LongAdder addToCarts = new LongAdder();
+        long flushedViews;
+        long flushedAddToCarts;
+    }
+
+    private record Delta(long productId, long views, long addToCarts) {
+    }
+
+    private final Map<Long, Counts> counts = new ConcurrentHashMap<>();
+    private Counter dropped;
+    private String upsertSql;
+
+    @PostConstruct
+    public void init() {
+        dropped = Counter.builder("shoplite.product-stats.dropped")
+            .description("Product counter increments discarded because too many products were tracked")
+            .register(meterRegistry);
+        upsertSql = isPostgres()
+            ? "INSERT INTO product_stats (product_id, views, add_to_carts, updated_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP) "
+                + "ON CONFLICT (product_id) DO UPDATE SET views = product_stats.views + EXCLUDED.views, "
+                + "add_to_carts = product_stats.add_to_carts + EXCLUDED.add_to_carts, updated_at = EXCLUDED.updated_at"
+            : "MERGE INTO product_stats t USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) "
+                + "s (product_id, views, add_to_carts) ON t.product_id = s.product_id "
+                + "WHEN MATCHED THEN UPDATE SET views = t.views + s.views, add_to_carts = t.add_to_carts + s.add_to_carts, "
+                + "updated_at = CURRENT_TIMESTAMP "
+                + "WHEN NOT MATCHED THEN INSERT (product_id, views, add_to_carts, updated_at) "
+                + "VALUES (s.product_id, s.views, s.add_to_carts, CURRENT_TIMESTAMP)";
+    }
+
+    public void recordView(Long productId) {
+        Counts productCounts = countsFor(productId);
+        if (productCounts != null) {
+            productCounts.views.increment();
+        }
+    }
+
+    public void recordAddToCart(Long productId) {
+        Counts productCounts = countsFor(productId);
+        if (productCounts != null) {
+            productCounts.addToCarts.increment();
+        }
+    }
+
+    private Counts countsFor(Long productId) {
+        Counts productCounts = counts.get(productId);
+        if (productCounts == null) {
+            if (counts.size() >= maxTracked) {
+                dropped.increment();
+                return null;
+            }
+            productCounts = counts.computeIfAbsent(productId, id -> new Counts());
+        }
+        return productCounts;
+    }
+
+    /**
+     * Write the counts gathered since the last flush. Only the flushing thread
+     * touches the flushed totals, so concurrent increments are never lost;
+     * they are picked up by the next flush.
+     */
+    @Scheduled(fixedDelayString = "${product-stats.flush-ms:5000}")
+    public synchronized void flush() {
+        List<Delta> deltas = new ArrayList<>();
+        List<Long> idle = new ArrayList<>();
+        counts.forEach((productId, productCounts) -> {
+            long views = productCounts.views.sum() - productCounts.flushedViews;
+            long addToCarts = productCounts.addToCarts.sum() - productCounts.flushedAddToCarts;
+            if (views == 0 && addToCarts == 0) {
+                idle.add(productId);
+            } else {
+                deltas.add(new Delta(productId, views, addToCarts));
+            }
+        });
+        // An increment racing with this removal is lost; the product had none for a whole interval
+        idle.forEach(counts::remove);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Fixed row order, so flushes from several nodes cannot deadlock
+        deltas.sort(Comparator.comparingLong(Delta::productId));
+        try {
+            jdbcTemplate.batchUpdate(upsertSql, deltas, deltas.size(), (statement, delta) -> {
+                statement.setLong(1, delta.productId());
+                statement.setLong(2, delta.views());
+                statement.setLong(3, delta.addToCarts());
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not flush counters of {} products; retrying with the next flush", deltas.size(), e);
+            return;
+        }
+        for (Delta delta : deltas) {
+            Counts productCounts = counts.get(delta.productId());
+            productCounts.flushedViews += delta.views();
+            productCounts.flushedAddToCarts += delta.addToCarts();
+        }
+    }
+
+    /**
+     * The most viewed products as of the last flush.
+     */
+    public List<Map<String, Object>> getMostViewed(int limit) {
+        List<ProductStats> stats = productStatsRepository.findMostViewed(PageRequest.of(0, limit));
+        Map<Long, Product> products = productRepository.findAllById(stats.stream().map(ProductStats::getProductId).toList())
+            .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ProductStats productStats : stats) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("productId", productStats.getProductId());
+            Product product = products.get(productStats.getProductId());
+            entry.put("name", product != null ? product.getName() : null);
+            entry.put("views", productStats.getViews());
+            entry.put("addToCarts", productStats.getAddToCarts());
+            result.add(entry);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private boolean isPostgres() {
+        try {
+            return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres")));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -6,8 +6,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -16,10 +18,24 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ProductCounterService productCounterService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Transactional(readOnly = true)
     public List<Product> findAll() {
         return productRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public Page<Product> findAll(Pageable pageable) {
         return productRepository.findAll(pageable);
     }
@@ -27,17 +43,38 @@ public class ProductService {
     public Optional<Product> findById(Long id) {
         return productRepository.findById(id);
     }
+
+    /**
+     * Load a product for its detail page and count the view.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Product> viewById(Long id) {
+        Optional<Product> product = productRepository.findById(id);
+        product.ifPresent(p -> productCounterService.recordView(p.getId()));
+        return product;
+    }
     
+    @Transactional(readOnly = true)
     public List<Product> findByCategoryId(Long categoryId) {
         return productRepository.findByCategoryId(categoryId);
     }
     
+    @Transactional(readOnly = true)
     public List<Product> searchByName(String keyword) {
         return productRepository.findByNameContainingIgnoreCase(keyword);
     }
 
+    @Transactional
     public Product save(Product product) {
-        return productRepository.save(product);
+        // Keep upload reference counts in step with the product's image
+        String previousImageUrl = product.getId() != null ? productRepository.findImageUrlById(product.getId()) : null;
+        Product saved = productRepository.save(product);
+        if (!Objects.equals(previousImageUrl, saved.getImageUrl())) {
+            fileStorageService.release(previousImageUrl);
+            fileStorageService.retain(saved.getImageUrl());
+        }
+        invalidationBus.invalidate("Product", saved.getId());
+        return saved;
     }
     
     public void updateStock(Long productId, Integer quantity) {
@@ -46,12 +83,18 @@ public class ProductService {
             Product product = productOpt.get();
             product.setStockQuantity(product.getStockQuantity() + quantity);
             productRepository.save(product);
+            outboxService.stockChanged(productId, quantity, product.getStockQuantity());
+            invalidationBus.invalidate("Product", productId);
         } else {
             throw new RuntimeException("Product not found with id: " + productId);
         }
     }
 
+    @Transactional
     public void deleteById(Long id) {
+        String imageUrl = productRepository.findImageUrlById(id);
         productRepository.deleteById(id);
+        fileStorageService.release(imageUrl);
+        invalidationBus.invalidate("Product", id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,262 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.repository.OrderItemRepository;
+import com.shoplite.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * "Frequently bought together": for every product, how many orders also
+ * contained each other product. Counts live in memory as one
+ * {@link LongIntHashMap} row per product (co-bought product id to count), with
+ * the rows themselves found through another primitive map, so an entry costs
+ * 12 bytes plus free slots instead of over 100 bytes in boxed maps.
+ *
+ * Rows are capped at {@code recommendations.max-row-size}; a row that
+ * outgrows it drops its rarest pairs, so a full row of the default 128 takes
+ * about 3 KB and 100k products stay around 300 MB however many order lines
+ * there are, without touching the top of any ranking.
+ *
+ * Built from order_items on startup, in the background, then kept current
+ * from committed orders. Cancellations are not subtracted.
+ */
+@Service
+public class RelatedProductsService {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedProductsService.class);
+
+    public static final int MAX_LIMIT = 20;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ShardedOrderStore shardedOrderStore;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${recommendations.max-row-size:128}")
+    private int maxRowSize;
+
+    // Orders with more distinct products than this add no pairs; they say little about affinity
+    @Value("${recommendations.max-order-products:50}")
+    private int maxOrderProducts;
+
+    @Value("${recommendations.warm-up:true}")
+    private boolean warmUp;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // product id -> index into rows
+    private final LongIntHashMap rowIndex = new LongIntHashMap(1024);
+    private LongIntHashMap[] rows = new LongIntHashMap[1024];
+    private int rowCount;
+
+    /**
+     * Load the counts of all past orders. Runs once the application is up, on its own thread, so
+     * startup does not wait for it; orders committed just as the scan starts may be counted twice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!warmUp) {
+            return;
+        }
+        new CustomizableThreadFactory("related-products-warm-up-").newThread(this::load).start();
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        long[] orderCount = {0};
+        try {
+            long[] order = {Long.MIN_VALUE};
+            long[][] products = {new long[16]};
+            int[] size = {0};
+            Consumer<Object[]> lines = line -> {
+                long orderId = (Long) line[0];
+                if (orderId != order[0]) {
+                    if (size[0] > 0) {
+                        record(products[0], size[0]);
+                        orderCount[0]++;
+                    }
+                    order[0] = orderId;
+                    size[0] = 0;
+                }
+                if (size[0] == products[0].length) {
+                    products[0] = Arrays.copyOf(products[0], size[0] * 2);
+                }
+                products[0][size[0]++] = (Long) line[1];
+            };
+            if (shardedOrderStore.isEnabled()) {
+                shardedOrderStore.forEachOrderProduct(lines);
+            } else {
+                TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                readOnly.setReadOnly(true);
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<Object[]> stream = orderItemRepository.streamOrderProducts()) {
+                        stream.forEach(lines);
+                    }
+                });
+            }
+            if (size[0] > 0) {
+                record(products[0], size[0]);
+                orderCount[0]++;
+            }
+            log.info("Loaded co-purchases of {} orders in {} ms, about {} MB", orderCount[0],
+                System.currentTimeMillis() - started, memoryBytes() >> 20);
+        } catch (RuntimeException e) {
+            log.warn("Could not load co-purchases; recommendations fill up from new orders only", e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (Map<Long, Integer> order : event.orders()) {
+            long[] products = order.keySet().stream().mapToLong(Long::longValue).toArray();
+            record(products, products.length);
+        }
+    }
+
+    /**
+     * Count one order: every pair of distinct products in it, both ways.
+     */
+    void record(long[] products, int size) {
+        if (size < 2) {
+            return;
+        }
+        long[] distinct = Arrays.stream(products, 0, size).distinct().toArray();
+        if (distinct.length < 2 || distinct.length > maxOrderProducts) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (long product : distinct) {
+                LongIntHashMap row = row(product);
+                for (long other : distinct) {
+                    if (other != product) {
+                        row.addTo(other, 1);
+                    }
+                }
+                if (row.size() > maxRowSize) {
+                    prune(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} products most often bought together with the given
+     * one, with how many orders contained both; reads one row, whatever the
+     * order volume.
+     */
+    public List<Map<String, Object>> getRelated(Long productId, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<long[]> top = top(productId, limit);
+        Map<Long, Product> products = productRepository.findAllById(top.stream().map(pair -> pair[0]).toList())
+            .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<Map<String, Object>> related = new ArrayList<>();
+        for (long[] pair : top) {
+            Product product = products.get(pair[0]);
+            if (product != null) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("product", product);
+                entry.put("orders", pair[1]);
+                related.add(entry);
+            }
+        }
+        return related;
+    }
+
+    /**
+     * [productId, count] pairs, highest count first, ties by lower id.
+     */
+    List<long[]> top(long productId, int limit) {
+        PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1, (a, b) ->
+            a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(b[0], a[0]));
+        lock.readLock().lock();
+        try {
+            int index = rowIndex.get(productId);
+            if (index == 0) {
+                return List.of();
+            }
+            rows[index - 1].forEach((other, count) -> {
+                heap.add(new long[] {other, count});
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<long[]> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            top.add(0, heap.poll());
+        }
+        return top;
+    }
+
+    long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = rowIndex.memoryBytes() + rows.length * 8L;
+            for (int i = 0; i < rowCount; i++) {
+                bytes += rows[i].memoryBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private LongIntHashMap row(long productId) {
+        // Indexes are stored plus one, as an absent key reads 0
+        int index = rowIndex.get(productId);
+        if (index == 0) {
+            if (rowCount == rows.length) {
+                rows = Arrays.copyOf(rows, rows.length * 2);
+            }
+            rows[rowCount] = new LongIntHashMap();
+            index = ++rowCount;
+            rowIndex.addTo(productId, index);
+        }
+        return rows[index - 1];
+    }
+
+    // Drop the rarest pairs until the row is back to at most three quarters of the cap
+    private void prune(LongIntHashMap row) {
+        int threshold = 1;
+        while (row.size() > maxRowSize * 3 / 4) {
+            row.removeAtMost(threshold++);
+        }
+    }
+}
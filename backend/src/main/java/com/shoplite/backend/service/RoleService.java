@@ -3,35 +3,107 @@ package com.shoplite.backend.service;
 import com.shoplite.backend.model.Role;
 import com.shoplite.backend.model.Role.ERole;
 import com.shoplite.backend.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Roles are looked up on every signup and never change at runtime, so
+ * lookups are map reads on an immutable snapshot, kept like the one in
+ * {@link CategoryService}.
+ */
 @Service
 public class RoleService {
 
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    private record Snapshot(List<Role> all, Map<Integer, Role> byId, Map<ERole, Role> byName) {
+    }
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        invalidationBus.addListener("Role", invalidations -> refresh());
+    }
+
     public List<Role> findAll() {
-        return roleRepository.findAll();
+        return snapshot().all().stream().map(RoleService::copy).toList();
     }
 
     public Optional<Role> findById(Integer id) {
-        return roleRepository.findById(id);
+        return Optional.ofNullable(snapshot().byId().get(id)).map(RoleService::copy);
     }
 
     public Optional<Role> findByName(ERole name) {
-        return roleRepository.findByName(name);
+        return Optional.ofNullable(snapshot().byName().get(name)).map(RoleService::copy);
     }
 
     public Role save(Role role) {
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        refreshAfterCommit();
+        invalidationBus.invalidate("Role", saved.getId().longValue());
+        return saved;
     }
 
     public void deleteById(Integer id) {
         roleRepository.deleteById(id);
+        refreshAfterCommit();
+        invalidationBus.invalidate("Role", id.longValue());
+    }
+
+    @Scheduled(fixedDelayString = "${reference-data.refresh-ms:300000}")
+    public synchronized void refresh() {
+        List<Role> all = roleRepository.findAll(Sort.by("id")).stream().map(RoleService::copy).toList();
+        snapshot = new Snapshot(all,
+            all.stream().collect(Collectors.toUnmodifiableMap(Role::getId, Function.identity())),
+            all.stream().collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity())));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    private static Role copy(Role role) {
+        Role copy = new Role();
+        copy.setId(role.getId());
+        copy.setName(role.getName());
+        return copy;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,509 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Category;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.SalesDaily;
+import com.shoplite.backend.model.SalesDailyCategory;
+import com.shoplite.backend.model.SalesDailyProduct;
+import com.shoplite.backend.model.SalesDelta;
+import com.shoplite.backend.repository.ArchivedOrderRepository;
+import com.shoplite.backend.repository.OrderItemRepository;
+import com.shoplite.backend.repository.OrderRepository;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.repository.SalesDailyCategoryRepository;
+import com.shoplite.backend.repository.SalesDailyProductRepository;
+import com.shoplite.backend.repository.SalesDailyRepository;
+import com.shoplite.backend.repository.SalesDeltaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the daily sales rollups ({@link SalesDaily}, {@link SalesDailyProduct},
+ * {@link SalesDailyCategory}) in step with orders, so the dashboard reads a
+ * handful of rows per day instead of scanning orders. Placing an order adds it
+ * to the rollups of the day it was created on and cancelling it takes it out
+ * again.
+ *
+ * Order transactions only insert {@link SalesDelta} rows, so checkouts never
+ * wait on each other for a day's rollup row. Every {@code stats.fold-ms}
+ * {@link #foldDeltas} adds the deltas to the rollups and deletes them, a day at
+ * a time under the lock of its {@link SalesDaily} row; the dashboard lags by
+ * that much. {@link #rebuild} takes the same lock and drops the deltas of the
+ * orders it recounts.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final int FOLD_BATCH = 1000;
+
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    @Autowired
+    private SalesDailyRepository salesDailyRepository;
+
+    @Autowired
+    private SalesDailyProductRepository salesDailyProductRepository;
+
+    @Autowired
+    private SalesDailyCategoryRepository salesDailyCategoryRepository;
+
+    @Autowired
+    private SalesDeltaRepository salesDeltaRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ShardedOrderStore shardedOrderStore;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Days recomputed by the nightly job, counting back from today
+    @Value("${stats.rebuild-days:2}")
+    private int rebuildDays;
+
+    private TransactionTemplate newTransaction;
+
+    private TransactionTemplate snapshotTransaction;
+
+    private static final class Delta {
+        long orders;
+        long units;
+        BigDecimal revenue = BigDecimal.ZERO;
+
+        void add(SalesDelta delta) {
+            orders += delta.getOrders();
+            units += delta.getUnits();
+            revenue = revenue.add(delta.getRevenue());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // A rebuild reads the deltas it drops and the orders it recounts from one snapshot
+        snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Sales between two days, inclusive: totals, one entry per day, the
+     * {@code top} products by revenue and revenue per category. Reads only the
+     * rollups, so the cost depends on the range and the catalog, not on how
+     * many orders were placed.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSalesStats(LocalDate from, LocalDate to, int top) {
+        List<Map<String, Object>> days = new ArrayList<>();
+        long orders = 0;
+        long units = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (SalesDaily day : salesDailyRepository.findByDayBetweenOrderByDay(from, to)) {
+            days.add(entry("day", day.getDay(), day.getOrders(), day.getUnits(), day.getRevenue()));
+            orders += day.getOrders();
+            units += day.getUnits();
+            revenue = revenue.add(day.getRevenue());
+        }
+
+        List<Object[]> productRows = salesDailyProductRepository.sumByProduct(from, to, PageRequest.of(0, top));
+        Map<Long, String> productNames = productRepository.findAllById(productRows.stream().map(row -> (Long) row[0]).toList())
+            .stream().collect(Collectors.toMap(Product::getId, Product::getName));
+        List<Map<String, Object>> topProducts = new ArrayList<>();
+        for (Object[] row : productRows) {
+            Map<String, Object> product = entry("productId", row[0], row[1], row[2], row[3]);
+            product.put("name", productNames.get((Long) row[0]));
+            topProducts.add(product);
+        }
+
+        Map<Long, String> categoryNames = categoryService.findAll().stream()
+            .collect(Collectors.toMap(Category::getId, Category::getName));
+        List<Map<String, Object>> categories = new ArrayList<>();
+        for (Object[] row : salesDailyCategoryRepository.sumByCategory(from, to)) {
+            Map<String, Object> category = entry("categoryId", row[0], row[1], row[2], row[3]);
+            category.put("name", categoryNames.getOrDefault((Long) row[0], "Uncategorized"));
+            categories.add(category);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("from", from);
+        stats.put("to", to);
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("orders", orders);
+        totals.put("units", units);
+        totals.put("revenue", revenue);
+        stats.put("totals", totals);
+        stats.put("days", days);
+        stats.put("topProducts", topProducts);
+        stats.put("categories", categories);
+        return stats;
+    }
+
+    private static Map<String, Object> entry(String key, Object value, Object orders, Object units, Object revenue) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put(key, value);
+        entry.put("orders", orders);
+        entry.put("units", units);
+        entry.put("revenue", revenue);
+        return entry;
+    }
+
+    /**
+     * Count newly placed orders. Their items must be set.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addOrders(List<Order> orders) {
+        Map<LocalDate, List<Order>> byDay = new TreeMap<>();
+        for (Order order : orders) {
+            byDay.computeIfAbsent(order.getCreatedAt().toLocalDate(), day -> new ArrayList<>()).add(order);
+        }
+        byDay.forEach((day, dayOrders) -> apply(day, dayOrders, 1));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addOrder(Order order, List<OrderItem> items) {
+        apply(order.getCreatedAt().toLocalDate(), List.of(withItems(order, items)), 1);
+    }
+
+    /**
+     * Take a cancelled order back out of the rollups.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeOrder(Order order, List<OrderItem> items) {
+        apply(order.getCreatedAt().toLocalDate(), List.of(withItems(order, items)), -1);
+    }
+
+    private static Order withItems(Order order, List<OrderItem> items) {
+        Order copy = new Order();
+        copy.setTotalAmount(order.getTotalAmount());
+        copy.setItems(items);
+        return copy;
+    }
+
+    private void apply(LocalDate day, List<Order> orders, int sign) {
+        Delta total = new Delta();
+        Map<Long, Delta> products = new TreeMap<>();
+        Map<Long, Delta> categories = new TreeMap<>();
+        for (Order order : orders) {
+            total.orders += sign;
+            total.revenue = total.revenue.add(order.getTotalAmount().multiply(BigDecimal.valueOf(sign)));
+            Map<Long, Delta> orderProducts = new TreeMap<>();
+            Map<Long, Delta> orderCategories = new TreeMap<>();
+            for (OrderItem item : order.getItems()) {
+                // Request items may carry only the product id; the product itself is already in this session
+                Product product = entityManager.find(Product.class, item.getProduct().getId());
+                Long categoryId = product.getCategory() != null ? product.getCategory().getId() : SalesDailyCategory.UNCATEGORIZED;
+                long units = (long) sign * item.getQuantity();
+                BigDecimal revenue = item.getPriceAtPurchase().multiply(BigDecimal.valueOf(units));
+                total.units += units;
+                add(orderProducts, product.getId(), units, revenue);
+                add(orderCategories, categoryId, units, revenue);
+            }
+            // An order counts once per product and category however many lines it has
+            merge(products, orderProducts, sign);
+            merge(categories, orderCategories, sign);
+        }
+
+        persist(day, SalesDelta.Scope.DAY, 0L, total);
+        products.forEach((productId, delta) -> persist(day, SalesDelta.Scope.PRODUCT, productId, delta));
+        categories.forEach((categoryId, delta) -> persist(day, SalesDelta.Scope.CATEGORY, categoryId, delta));
+    }
+
+    private void persist(LocalDate day, SalesDelta.Scope scope, Long keyId, Delta delta) {
+        SalesDelta row = new SalesDelta();
+        row.setDay(day);
+        row.setScope(scope);
+        row.setKeyId(keyId);
+        row.setOrders(delta.orders);
+        row.setUnits(delta.units);
+        row.setRevenue(delta.revenue);
+        entityManager.persist(row);
+    }
+
+    private static void add(Map<Long, Delta> deltas, Long key, long units, BigDecimal revenue) {
+        Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+        delta.units += units;
+        delta.revenue = delta.revenue.add(revenue);
+    }
+
+    private static void merge(Map<Long, Delta> into, Map<Long, Delta> order, int sign) {
+        order.forEach((key, delta) -> {
+            Delta target = into.computeIfAbsent(key, k -> new Delta());
+            target.orders += sign;
+            target.units += delta.units;
+            target.revenue = target.revenue.add(delta.revenue);
+        });
+    }
+
+    /**
+     * Insert an empty row for the day in its own transaction, so there is a
+     * row to lock before the day's first fold or rebuild.
+     */
+    private void createDay(LocalDate day) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (!salesDailyRepository.existsById(day)) {
+                    SalesDaily row = new SalesDaily();
+                    row.setDay(day);
+                    salesDailyRepository.save(row);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another writer created it first
+        }
+    }
+
+    /**
+     * Add the pending deltas to the rollups, up to {@value #FOLD_BATCH} per
+     * transaction, and return how many were folded.
+     */
+    @Scheduled(fixedDelayString = "${stats.fold-ms:5000}")
+    public int foldDeltas() {
+        int folded = 0;
+        try {
+            for (LocalDate day : salesDeltaRepository.findPendingDays()) {
+                createDay(day);
+                int batch;
+                do {
+                    batch = newTransaction.execute(status -> foldDay(day));
+                    folded += batch;
+                } while (batch == FOLD_BATCH);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Sales rollup fold failed after {} deltas", folded, e);
+        }
+        return folded;
+    }
+
+    private int foldDay(LocalDate day) {
+        SalesDaily total = salesDailyRepository.lockByDay(day).orElseThrow();
+        // Read after the lock, so deltas another fold has just taken are gone
+        List<SalesDelta> deltas = salesDeltaRepository.findByDayOrderById(day, PageRequest.of(0, FOLD_BATCH));
+        Delta sum = new Delta();
+        Map<Long, Delta> products = new TreeMap<>();
+        Map<Long, Delta> categories = new TreeMap<>();
+        for (SalesDelta delta : deltas) {
+            switch (delta.getScope()) {
+                case DAY -> sum.add(delta);
+                case PRODUCT -> products.computeIfAbsent(delta.getKeyId(), k -> new Delta()).add(delta);
+                case CATEGORY -> categories.computeIfAbsent(delta.getKeyId(), k -> new Delta()).add(delta);
+            }
+        }
+
+        total.setOrders(total.getOrders() + sum.orders);
+        total.setUnits(total.getUnits() + sum.units);
+        total.setRevenue(total.getRevenue().add(sum.revenue));
+        products.forEach((productId, delta) -> {
+            if (salesDailyProductRepository.increment(day, productId, delta.orders, delta.units, delta.revenue) == 0) {
+                SalesDailyProduct row = new SalesDailyProduct();
+                row.setDay(day);
+                row.setProductId(productId);
+                row.setOrders(delta.orders);
+                row.setUnits(delta.units);
+                row.setRevenue(delta.revenue);
+                salesDailyProductRepository.save(row);
+            }
+        });
+        categories.forEach((categoryId, delta) -> {
+            if (salesDailyCategoryRepository.increment(day, categoryId, delta.orders, delta.units, delta.revenue) == 0) {
+                SalesDailyCategory row = new SalesDailyCategory();
+                row.setDay(day);
+                row.setCategoryId(categoryId);
+                row.setOrders(delta.orders);
+                row.setUnits(delta.units);
+                row.setRevenue(delta.revenue);
+                salesDailyCategoryRepository.save(row);
+            }
+        });
+        salesDeltaRepository.deleteAllInBatch(deltas);
+        return deltas.size();
+    }
+
+    /**
+     * Recompute the rollups of each day in [from, to] from the orders, one
+     * transaction per day. Fixes any drift, e.g. after orders were edited in
+     * the database; categories follow the products' current category.
+     *
+     * @throws IllegalArgumentException if the range reaches back to archived
+     *         orders, which live orders no longer count
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        LocalDateTime archivedUntil = archivedOrderRepository.findLatestCreatedAt();
+        if (archivedUntil != null && !archivedUntil.toLocalDate().isBefore(from)) {
+            throw new IllegalArgumentException("Orders up to " + archivedUntil.toLocalDate()
+                + " are archived; rebuild from " + archivedUntil.toLocalDate().plusDays(1) + " on");
+        }
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate rebuiltDay = day;
+            createDay(rebuiltDay);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    snapshotTransaction.executeWithoutResult(status -> rebuildDay(rebuiltDay));
+                    break;
+                } catch (ConcurrencyFailureException e) {
+                    // A fold committed on the day after this snapshot was taken
+                    if (attempt == REBUILD_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    private void rebuildDay(LocalDate day) {
+        // Folds wait on this lock. The orders read below already count the deltas
+        // visible here; deltas committed later belong to orders this snapshot cannot see
+        SalesDaily total = salesDailyRepository.lockByDay(day).orElseThrow();
+        salesDeltaRepository.deleteByDay(day);
+        salesDailyProductRepository.deleteByDay(day);
+        salesDailyCategoryRepository.deleteByDay(day);
+
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        List<Object[]> productRows;
+        List<Object[]> categoryRows;
+        Object[] orders;
+        if (shardedOrderStore.isEnabled()) {
+            // Shards are read outside the snapshot: an order committing meanwhile may count twice until the next rebuild
+            Map<Long, Delta> products = new TreeMap<>();
+            Map<Long, Delta> categories = new TreeMap<>();
+            sumShardedLines(from, to, products, categories);
+            productRows = rows(products);
+            categoryRows = rows(categories);
+            orders = shardedOrderStore.sumBetween(from, to);
+        } else {
+            productRows = orderItemRepository.sumByProduct(from, to);
+            categoryRows = orderItemRepository.sumByCategory(from, to);
+            orders = orderRepository.sumBetween(from, to).get(0);
+        }
+
+        long units = 0;
+        for (Object[] row : productRows) {
+            SalesDailyProduct product = new SalesDailyProduct();
+            product.setDay(day);
+            product.setProductId((Long) row[0]);
+            product.setOrders((Long) row[1]);
+            product.setUnits((Long) row[2]);
+            product.setRevenue((BigDecimal) row[3]);
+            salesDailyProductRepository.save(product);
+            units += product.getUnits();
+        }
+        for (Object[] row : categoryRows) {
+            SalesDailyCategory category = new SalesDailyCategory();
+            category.setDay(day);
+            category.setCategoryId(((Number) row[0]).longValue());
+            category.setOrders((Long) row[1]);
+            category.setUnits((Long) row[2]);
+            category.setRevenue((BigDecimal) row[3]);
+            salesDailyCategoryRepository.save(category);
+        }
+
+        total.setOrders((Long) orders[0]);
+        total.setUnits(units);
+        total.setRevenue((BigDecimal) orders[1]);
+    }
+
+    /**
+     * Sum the lines of sharded orders by product and by category. Shards hold
+     * no products, so categories are looked up here; each line is one order
+     * and product, and an order counts once per category.
+     */
+    private void sumShardedLines(LocalDateTime from, LocalDateTime to, Map<Long, Delta> products, Map<Long, Delta> categories) {
+        List<Object[]> lines = shardedOrderStore.sumLinesBetween(from, to);
+        Map<Long, Long> categoryOf = new HashMap<>();
+        productRepository.findAllById(lines.stream().map(line -> (Long) line[1]).distinct().toList())
+            .forEach(product -> categoryOf.put(product.getId(),
+                product.getCategory() != null ? product.getCategory().getId() : SalesDailyCategory.UNCATEGORIZED));
+
+        Map<Long, Set<Long>> categoryOrders = new HashMap<>();
+        for (Object[] line : lines) {
+            Long orderId = (Long) line[0];
+            Long productId = (Long) line[1];
+            long units = (Long) line[2];
+            BigDecimal revenue = (BigDecimal) line[3];
+            Delta product = products.computeIfAbsent(productId, k -> new Delta());
+            product.orders++;
+            product.units += units;
+            product.revenue = product.revenue.add(revenue);
+
+            Long categoryId = categoryOf.getOrDefault(productId, SalesDailyCategory.UNCATEGORIZED);
+            Delta category = categories.computeIfAbsent(categoryId, k -> new Delta());
+            if (categoryOrders.computeIfAbsent(categoryId, k -> new HashSet<>()).add(orderId)) {
+                category.orders++;
+            }
+            category.units += units;
+            category.revenue = category.revenue.add(revenue);
+        }
+    }
+
+    // key, orders, units, revenue, as the repositories' sums return them
+    private static List<Object[]> rows(Map<Long, Delta> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(new Object[] {key, delta.orders, delta.units, delta.revenue}));
+        return rows;
+    }
+
+    /**
+     * Nightly: recompute the last {@code stats.rebuild-days} days and create
+     * tomorrow's day row.
+     */
+    @Scheduled(cron = "${stats.rebuild-cron:0 30 3 * * *}")
+    public void rebuildRecent() {
+        LocalDate today = LocalDate.now();
+        try {
+            rebuild(today.minusDays(rebuildDays - 1L), today);
+            createDay(today.plusDays(1));
+        } catch (RuntimeException e) {
+            log.warn("Sales rollup rebuild failed", e);
+        }
+    }
+}
@@ -0,0 +1,594 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.config.OrderShards;
+import com.shoplite.backend.config.OrderShards.Shard;
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+/**
+ * Orders and their items when they are sharded by user (see
+ * {@link OrderShards}); unused otherwise, when {@link #isEnabled()} is false
+ * and the JPA repositories serve orders from the primary.
+ *
+ * A user's orders are read from the user's shard alone. Lookups by order id,
+ * admin listings, exports and rollup rebuilds query every shard in parallel
+ * and merge the results. Users and products stay on the primary and are
+ * attached to the orders read.
+ *
+ * A shard commits on its own, before the checkout's transaction on the
+ * primary; its writes are undone if that transaction rolls back. Ids come
+ * from the primary's sequences, so they stay unique across shards and moves.
+ *
+ * Orders placed before sharding was turned on stay in the primary until
+ * {@link OrderReshardService} moves them, so every read looks there as well;
+ * an order being moved, and so briefly in both, is read once.
+ */
+@Service
+public class ShardedOrderStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedOrderStore.class);
+
+    // allocationSize of Order and OrderItem ids, which the sequences' increment matches
+    static final int ID_BLOCK = 50;
+
+    private static final int IN_LIST_SIZE = 500;
+
+    private static final String ORDER_COLUMNS =
+        "id, user_id, status, total_amount, shipping_address, payment_method, payment_intent_id, created_at, updated_at";
+
+    private static final String SELECT_ORDERS = "SELECT " + ORDER_COLUMNS + " FROM orders";
+
+    private static final String INSERT_ORDER = "INSERT INTO orders (" + ORDER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ITEM_COLUMNS = "id, order_id, product_id, quantity, price_at_purchase";
+
+    private static final String INSERT_ITEM = "INSERT INTO order_items (" + ITEM_COLUMNS + ") VALUES (?, ?, ?, ?, ?)";
+
+    private static final String NOT_CANCELLED = "status <> 'CANCELLED'";
+
+    // Users and products are id-only until resolve() swaps in the primary's entities
+    private static final RowMapper<Order> ORDER_ROW = (rs, rowNum) -> {
+        Order order = new Order();
+        order.setId(rs.getLong("id"));
+        User user = new User();
+        user.setId(rs.getLong("user_id"));
+        order.setUser(user);
+        order.setStatus(Order.OrderStatus.valueOf(rs.getString("status")));
+        order.setTotalAmount(rs.getBigDecimal("total_amount"));
+        order.setShippingAddress(rs.getString("shipping_address"));
+        order.setPaymentMethod(rs.getString("payment_method"));
+        order.setPaymentIntentId(rs.getString("payment_intent_id"));
+        order.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        order.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        return order;
+    };
+
+    @Autowired(required = false)
+    private OrderShards orderShards;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${orders.intake-mode:sync}")
+    private String intakeMode;
+
+    private ExecutorService executor;
+    private IdBlocks orderIds;
+    private IdBlocks itemIds;
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        // Async intake and batch writes save orders through JPA, on the primary
+        if (!"sync".equalsIgnoreCase(intakeMode)) {
+            throw new IllegalStateException("orders.shards.urls requires orders.intake-mode=sync, not " + intakeMode);
+        }
+        executor = Executors.newFixedThreadPool(orderShards.count(), new CustomizableThreadFactory("order-shard-"));
+        orderIds = new IdBlocks("orders_id_seq");
+        itemIds = new IdBlocks("order_items_id_seq");
+        log.info("Orders are sharded by user over {} databases", orderShards.count());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return orderShards != null;
+    }
+
+    /**
+     * Write a new order and its items to the user's shard, with fresh ids
+     * and timestamps.
+     */
+    public Order insert(Order order) {
+        LocalDateTime now = LocalDateTime.now();
+        order.setId(orderIds.next());
+        order.setCreatedAt(now);
+        order.setUpdatedAt(now);
+        for (OrderItem item : order.getItems()) {
+            item.setId(itemIds.next());
+            item.setOrder(order);
+        }
+        Shard shard = orderShards.forUser(order.getUser().getId());
+        write(shard, List.of(order));
+        onRollback(() -> shard.jdbcTemplate().update("DELETE FROM orders WHERE id = ?", order.getId()));
+        return order;
+    }
+
+    /**
+     * Compare-and-set on status, undone if the caller's transaction rolls
+     * back.
+     *
+     * @return false if the order has already moved on
+     */
+    public boolean transitionStatus(Long orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        // On every shard, since a resharding run may hold a copy of the order on two of them
+        int updated = updateEverywhere("UPDATE orders SET status = ?, updated_at = ? WHERE id = ? AND status = ?",
+            to.name(), Timestamp.valueOf(LocalDateTime.now()), orderId, from.name());
+        if (updated == 0) {
+            return false;
+        }
+        onRollback(() -> updateEverywhere("UPDATE orders SET status = ?, updated_at = ? WHERE id = ? AND status = ?",
+            from.name(), Timestamp.valueOf(LocalDateTime.now()), orderId, to.name()));
+        return true;
+    }
+
+    public void deleteById(Long orderId) {
+        updateEverywhere("DELETE FROM orders WHERE id = ?", orderId);
+    }
+
+    /** The user's orders, newest first, with items and products. */
+    public List<Order> findByUser(User user) {
+        List<Order> orders = distinct(gather(List.of(orderShards.forUser(user.getId()).jdbcTemplate(), jdbcTemplate),
+            source -> loadItems(source, source.query(SELECT_ORDERS + " WHERE user_id = ?", ORDER_ROW, user.getId()))));
+        orders.sort(Comparator.comparing(Order::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Order::getId, Comparator.reverseOrder()));
+        return resolve(orders);
+    }
+
+    public Optional<Order> findById(Long orderId) {
+        List<Order> found = gather(sources(), source ->
+            loadItems(source, source.query(SELECT_ORDERS + " WHERE id = ?", ORDER_ROW, orderId)));
+        return found.isEmpty() ? Optional.empty() : Optional.of(resolve(found.subList(0, 1)).get(0));
+    }
+
+    /** Every order of every shard and the primary, by id. */
+    public List<Order> findAll() {
+        List<Order> orders = distinct(gather(sources(), source ->
+            loadItems(source, source.query(SELECT_ORDERS, ORDER_ROW))));
+        orders.sort(Comparator.comparing(Order::getId));
+        return resolve(orders);
+    }
+
+    /**
+     * The orders created in [from, to), by id, in chunks of up to
+     * {@code chunkSize} with items, users and products. Each shard and the
+     * primary is read a page at a time, the pages fetched in parallel and
+     * merged, so memory use does not grow with the range.
+     */
+    public Iterator<List<Order>> chunksCreatedBetween(LocalDateTime from, LocalDateTime to, int chunkSize) {
+        return new MergedRange(from, to, chunkSize);
+    }
+
+    /** Orders and revenue over the orders placed in [from, to) and not cancelled, like OrderRepository#sumBetween. */
+    public Object[] sumBetween(LocalDateTime from, LocalDateTime to) {
+        List<Object[]> perSource = gather(sources(), source -> source.query(
+            "SELECT COUNT(*), COALESCE(SUM(total_amount), 0) FROM orders WHERE created_at >= ? AND created_at < ? AND "
+                + NOT_CANCELLED,
+            (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getBigDecimal(2)},
+            Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        long orders = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (Object[] row : perSource) {
+            orders += (Long) row[0];
+            revenue = revenue.add((BigDecimal) row[1]);
+        }
+        return new Object[] {orders, revenue};
+    }
+
+    /**
+     * orderId, productId, units, revenue of each product of each order placed
+     * in [from, to) and not cancelled.
+     */
+    public List<Object[]> sumLinesBetween(LocalDateTime from, LocalDateTime to) {
+        return gather(sources(), source -> source.query(
+            "SELECT i.order_id, i.product_id, SUM(i.quantity), SUM(i.price_at_purchase * i.quantity) "
+                + "FROM order_items i JOIN orders o ON o.id = i.order_id "
+                + "WHERE o.created_at >= ? AND o.created_at < ? AND o." + NOT_CANCELLED + " GROUP BY i.order_id, i.product_id",
+            (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4)},
+            Timestamp.valueOf(from), Timestamp.valueOf(to)));
+    }
+
+    /**
+     * orderId, productId of every line of orders not cancelled, like
+     * OrderItemRepository#streamOrderProducts: grouped by order, one shard
+     * after the other and the primary last.
+     */
+    public void forEachOrderProduct(Consumer<Object[]> lines) {
+        for (Shard shard : orderShards.all()) {
+            forEachOrderProduct(shard.dataSource(), shard.transactionTemplate(), lines);
+        }
+        forEachOrderProduct(jdbcTemplate.getDataSource(), transactionTemplate, lines);
+    }
+
+    private static void forEachOrderProduct(DataSource dataSource, TransactionTemplate transaction, Consumer<Object[]> lines) {
+        JdbcTemplate cursor = new JdbcTemplate(dataSource);
+        cursor.setFetchSize(1000);
+        // A transaction, so drivers such as Postgres' fetch through a cursor
+        transaction.executeWithoutResult(status -> cursor.query(
+            "SELECT i.order_id, i.product_id FROM order_items i JOIN orders o ON o.id = i.order_id WHERE o."
+                + NOT_CANCELLED + " ORDER BY i.order_id",
+            rs -> {
+                lines.accept(new Object[] {rs.getLong(1), rs.getLong(2)});
+            }));
+    }
+
+    OrderShards shards() {
+        return orderShards;
+    }
+
+    /** Up to {@code limit} orders after {@code afterId}, by id, without items. */
+    List<Order> loadPage(JdbcTemplate source, long afterId, int limit) {
+        return source.query(SELECT_ORDERS + " WHERE id > ? ORDER BY id LIMIT ?", ORDER_ROW, afterId, limit);
+    }
+
+    /**
+     * Up to {@code limit} orders after {@code afterId}, by id, that are in one
+     * of {@code statuses} and were created before {@code before}; without
+     * items. The rows stay locked until the caller's transaction ends.
+     */
+    List<Order> lockPage(JdbcTemplate source, long afterId, int limit,
+                         Collection<Order.OrderStatus> statuses, LocalDateTime before) {
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        statuses.forEach(status -> args.add(status.name()));
+        args.add(Timestamp.valueOf(before));
+        args.add(limit);
+        return source.query(SELECT_ORDERS + " WHERE id > ? AND status IN (" + placeholders(statuses.size())
+            + ") AND created_at < ? ORDER BY id LIMIT ? FOR UPDATE", ORDER_ROW, args.toArray());
+    }
+
+    List<Long> existingIds(Shard shard, Collection<Long> orderIds) {
+        List<Long> existing = new ArrayList<>();
+        for (List<Long> chunk : chunks(List.copyOf(orderIds))) {
+            existing.addAll(shard.jdbcTemplate().queryForList(
+                "SELECT id FROM orders WHERE id IN (" + placeholders(chunk.size()) + ")", Long.class, chunk.toArray()));
+        }
+        return existing;
+    }
+
+    /** Set each order's items from {@code source}, with id-only products. */
+    List<Order> loadItems(JdbcTemplate source, List<Order> orders) {
+        Map<Long, Order> byId = new HashMap<>();
+        orders.forEach(order -> byId.put(order.getId(), order));
+        for (List<Long> chunk : chunks(List.copyOf(byId.keySet()))) {
+            source.query("SELECT " + ITEM_COLUMNS + " FROM order_items WHERE order_id IN (" + placeholders(chunk.size())
+                + ") ORDER BY id", rs -> {
+                    Order order = byId.get(rs.getLong("order_id"));
+                    OrderItem item = new OrderItem();
+                    item.setId(rs.getLong("id"));
+                    item.setOrder(order);
+                    Product product = new Product();
+                    product.setId(rs.getLong("product_id"));
+                    item.setProduct(product);
+                    item.setQuantity(rs.getInt("quantity"));
+                    item.setPriceAtPurchase(rs.getBigDecimal("price_at_purchase"));
+                    order.getItems().add(item);
+                }, chunk.toArray());
+        }
+        return orders;
+    }
+
+    /** Insert orders with their items, in one transaction of the shard. */
+    void write(Shard shard, List<Order> orders) {
+        List<OrderItem> items = orders.stream().flatMap(order -> order.getItems().stream()).toList();
+        shard.transactionTemplate().executeWithoutResult(status -> {
+            shard.jdbcTemplate().batchUpdate(INSERT_ORDER, orders, IN_LIST_SIZE, (ps, order) -> {
+                ps.setLong(1, order.getId());
+                ps.setLong(2, order.getUser().getId());
+                ps.setString(3, order.getStatus().name());
+                ps.setBigDecimal(4, order.getTotalAmount());
+                ps.setString(5, order.getShippingAddress());
+                ps.setString(6, order.getPaymentMethod());
+                ps.setString(7, order.getPaymentIntentId());
+                ps.setTimestamp(8, toTimestamp(order.getCreatedAt()));
+                ps.setTimestamp(9, toTimestamp(order.getUpdatedAt()));
+            });
+            shard.jdbcTemplate().batchUpdate(INSERT_ITEM, items, IN_LIST_SIZE, (ps, item) -> {
+                ps.setLong(1, item.getId());
+                ps.setLong(2, item.getOrder().getId());
+                ps.setLong(3, item.getProduct().getId());
+                ps.setInt(4, item.getQuantity());
+                ps.setBigDecimal(5, item.getPriceAtPurchase());
+            });
+        });
+    }
+
+    /** Delete orders and their items; the items first, as the primary's tables do not cascade. */
+    void delete(JdbcTemplate source, List<Long> orderIds) {
+        for (List<Long> chunk : chunks(orderIds)) {
+            String in = placeholders(chunk.size());
+            source.update("DELETE FROM order_items WHERE order_id IN (" + in + ")", chunk.toArray());
+            source.update("DELETE FROM orders WHERE id IN (" + in + ")", chunk.toArray());
+        }
+    }
+
+    /** Swap the id-only users and products of the orders for the primary's entities. */
+    private List<Order> resolve(List<Order> orders) {
+        Map<Long, User> users = userRepository.findAllById(
+                orders.stream().map(order -> order.getUser().getId()).distinct().toList())
+            .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Product> products = productRepository.findAllById(orders.stream()
+                .flatMap(order -> order.getItems().stream()).map(item -> item.getProduct().getId()).distinct().toList())
+            .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Order order : orders) {
+            order.setUser(users.getOrDefault(order.getUser().getId(), order.getUser()));
+            for (OrderItem item : order.getItems()) {
+                item.setProduct(products.getOrDefault(item.getProduct().getId(), item.getProduct()));
+            }
+        }
+        return orders;
+    }
+
+    /** Every shard, then the primary. */
+    private List<JdbcTemplate> sources() {
+        List<JdbcTemplate> sources = new ArrayList<>();
+        orderShards.all().forEach(shard -> sources.add(shard.jdbcTemplate()));
+        sources.add(jdbcTemplate);
+        return sources;
+    }
+
+    private <T> List<T> gather(List<JdbcTemplate> sources, Function<JdbcTemplate, List<T>> query) {
+        List<CompletableFuture<List<T>>> futures = sources.stream()
+            .map(source -> CompletableFuture.supplyAsync(() -> query.apply(source), executor))
+            .toList();
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            results.addAll(join(future));
+        }
+        return results;
+    }
+
+    // Shards only: OrderService writes orders still in the primary through JPA
+    private int updateEverywhere(String sql, Object... args) {
+        List<JdbcTemplate> shards = orderShards.all().stream().map(Shard::jdbcTemplate).toList();
+        return gather(shards, shard -> List.of(shard.update(sql, args))).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    // The first copy of each order; sources list the shards first, so an order being moved is read from its shard
+    private static List<Order> distinct(List<Order> orders) {
+        Map<Long, Order> byId = new LinkedHashMap<>();
+        orders.forEach(order -> byId.putIfAbsent(order.getId(), order));
+        return new ArrayList<>(byId.values());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void onRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    try {
+                        undo.run();
+                    } catch (RuntimeException e) {
+                        log.error("Could not undo an order shard write after a rollback", e);
+                    }
+                }
+            }
+        });
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_LIST_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + IN_LIST_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+
+    /**
+     * Ids from a primary sequence, a block of {@link #ID_BLOCK} per call as
+     * Hibernate's pooled optimizer takes them, so both can draw from it.
+     */
+    private final class IdBlocks {
+
+        private final String nextValueSql;
+        private long next = 1;
+        private long last = 0;
+
+        IdBlocks(String sequence) {
+            nextValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceSupport().getSequenceNextValString(sequence);
+        }
+
+        synchronized long next() {
+            if (next > last) {
+                long value = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+                if (value < ID_BLOCK) {
+                    // The sequence's start value opens no full block
+                    value = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+                }
+                next = value - ID_BLOCK + 1;
+                last = value;
+            }
+            return next++;
+        }
+    }
+
+    private final class MergedRange implements Iterator<List<Order>> {
+
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final int chunkSize;
+        private final List<JdbcTemplate> sources = sources();
+        private final List<Deque<Order>> buffers = new ArrayList<>();
+        private final long[] lastIds;
+        private final boolean[] exhausted;
+        private List<Order> nextChunk;
+        private long lastMerged = Long.MIN_VALUE;
+
+        MergedRange(LocalDateTime from, LocalDateTime to, int chunkSize) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            lastIds = new long[sources.size()];
+            exhausted = new boolean[sources.size()];
+            for (int i = 0; i < sources.size(); i++) {
+                buffers.add(new ArrayDeque<>());
+                lastIds[i] = Long.MIN_VALUE;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextChunk == null) {
+                nextChunk = mergeChunk();
+            }
+            return !nextChunk.isEmpty();
+        }
+
+        @Override
+        public List<Order> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<Order> chunk = nextChunk;
+            nextChunk = null;
+            return chunk;
+        }
+
+        private List<Order> mergeChunk() {
+            List<Order> chunk = new ArrayList<>(chunkSize);
+            while (chunk.size() < chunkSize) {
+                refill();
+                int smallest = -1;
+                for (int i = 0; i < buffers.size(); i++) {
+                    Order head = buffers.get(i).peek();
+                    if (head != null && (smallest < 0 || head.getId() < buffers.get(smallest).peek().getId())) {
+                        smallest = i;
+                    }
+                }
+                if (smallest < 0) {
+                    break;
+                }
+                Order next = buffers.get(smallest).poll();
+                // The same order in two sources comes out twice in a row
+                if (next.getId() != lastMerged) {
+                    chunk.add(next);
+                    lastMerged = next.getId();
+                }
+            }
+            return resolve(chunk);
+        }
+
+        // Fetches the next page of every source whose buffer ran dry, in parallel
+        private void refill() {
+            List<CompletableFuture<Void>> fetches = new ArrayList<>();
+            for (int source = 0; source < sources.size(); source++) {
+                int i = source;
+                if (buffers.get(i).isEmpty() && !exhausted[i]) {
+                    fetches.add(CompletableFuture.runAsync(() -> {
+                        List<Order> page = loadItems(sources.get(i), sources.get(i).query(SELECT_ORDERS
+                                + " WHERE created_at >= ? AND created_at < ? AND id > ? ORDER BY id LIMIT ?", ORDER_ROW,
+                            Timestamp.valueOf(from), Timestamp.valueOf(to), lastIds[i], chunkSize));
+                        buffers.get(i).addAll(page);
+                        if (page.size() < chunkSize) {
+                            exhausted[i] = true;
+                        } else {
+                            lastIds[i] = page.get(page.size() - 1).getId();
+                        }
+                    }, executor));
+                }
+            }
+            fetches.forEach(ShardedOrderStore::join);
+        }
+    }
+}
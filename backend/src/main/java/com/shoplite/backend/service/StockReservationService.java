@@ -0,0 +1,403 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.StockReservation;
+import com.shoplite.backend.model.StockShard;
+import com.shoplite.backend.repository.StockReservationRepository;
+import com.shoplite.backend.repository.StockShardRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cart reservations. Adding a product to the cart holds its units for
+ * {@code reservations.ttl}; checkout turns the hold into the sale, and holds
+ * that run out are released by a sweep.
+ *
+ * A product's available-to-promise units (stock minus holds) are kept in
+ * {@code reservations.shards} {@link StockShard} rows, created by
+ * {@link #prepare} before its first reservation. A reservation takes from one random shard with a conditional
+ * UPDATE, so concurrent carts rarely wait on each other; only when no single
+ * shard can cover it does it gather from the shards in turn. For a sharded
+ * product, stock_quantity always equals its shards plus its holds.
+ *
+ * Checkouts in every intake mode and cancellations keep the shards in step,
+ * and admin stock edits reconcile the product at once. Stock taken by flash
+ * sales is picked up by the periodic {@link #reconcile}, which also evens
+ * the shards out.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationService.class);
+
+    private static final int SWEEP_BATCH = 500;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private StockShardRepository stockShardRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${reservations.ttl:15m}")
+    private Duration ttl;
+
+    @Value("${reservations.shards:8}")
+    private int shards;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Hold exactly {@code quantity} units of a product for a user, taking or
+     * returning the difference to what is already held, and restart the hold's timer.
+     *
+     * @throws OutOfStockException if the extra units are promised elsewhere or sold
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Long userId, Product product, int quantity) {
+        ensureShards(product.getId());
+        StockReservation reservation = stockReservationRepository.lockByUserIdAndProductId(userId, product.getId())
+            .orElse(null);
+        int held = reservation != null ? reservation.getQuantity() : 0;
+        if (quantity > held && !take(product.getId(), quantity - held)) {
+            throw new OutOfStockException("Not enough stock available for: " + product.getName());
+        }
+        if (quantity < held) {
+            give(product.getId(), held - quantity);
+        }
+
+        if (quantity == 0) {
+            if (reservation != null) {
+                stockReservationRepository.delete(reservation);
+            }
+            return;
+        }
+        if (reservation == null) {
+            reservation = new StockReservation();
+            reservation.setUserId(userId);
+            reservation.setProductId(product.getId());
+        }
+        reservation.setQuantity(quantity);
+        reservation.setExpiresAt(LocalDateTime.now().plus(ttl));
+        stockReservationRepository.save(reservation);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long userId, Long productId) {
+        stockReservationRepository.lockByUserIdAndProductId(userId, productId).ifPresent(this::release);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseAll(Long userId) {
+        stockReservationRepository.lockByUserId(userId).forEach(this::release);
+    }
+
+    /**
+     * Sell {@code quantity} units at checkout: first from the user's hold, then
+     * from the units nobody holds. Whatever is left of the hold stays held.
+     * Products never reserved are not tracked here and pass straight through.
+     *
+     * @throws OutOfStockException if the units beyond the hold are promised elsewhere
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void consume(Long userId, Product product, int quantity) {
+        if (!stockShardRepository.existsByProductId(product.getId())) {
+            return;
+        }
+        int covered = consumeHeld(userId, product.getId(), quantity);
+        if (quantity > covered && !take(product.getId(), quantity - covered)) {
+            throw new OutOfStockException("Not enough stock for product: " + product.getName());
+        }
+    }
+
+    /**
+     * {@link #consume} for all of an order's products at once, as a batched
+     * checkout needs it: the order is refused on its own without an exception,
+     * which would mark the whole batch's transaction rollback-only.
+     *
+     * @param quantities units per product id
+     * @return false, with nothing consumed, if the units beyond a hold are promised elsewhere
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryConsume(Long userId, Map<Long, Integer> quantities) {
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        Map<StockReservation, Integer> covered = new LinkedHashMap<>();
+        // In product id order, as the batch locks the products
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            Long productId = entry.getKey();
+            if (!stockShardRepository.existsByProductId(productId)) {
+                continue;
+            }
+            StockReservation reservation = stockReservationRepository.lockByUserIdAndProductId(userId, productId)
+                .orElse(null);
+            int held = reservation != null ? Math.min(reservation.getQuantity(), entry.getValue()) : 0;
+            int extra = entry.getValue() - held;
+            if (extra > 0) {
+                if (!take(productId, extra)) {
+                    taken.forEach(this::give);
+                    return false;
+                }
+                taken.put(productId, extra);
+            }
+            if (reservation != null) {
+                covered.put(reservation, held);
+            }
+        }
+        covered.forEach(this::settle);
+        return true;
+    }
+
+    /**
+     * Sell {@code quantity} units that were taken outside the shards, as a
+     * flash sale takes them: the user's hold covers what it can and the rest
+     * is left to {@link #reconcile}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void consumeHold(Long userId, Long productId, int quantity) {
+        consumeHeld(userId, productId, quantity);
+    }
+
+    /**
+     * Stock returned to a product outside checkout, such as by a cancelled
+     * order; its available units change by the same amount.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void restock(Long productId, int delta) {
+        if (delta != 0) {
+            give(productId, delta);
+        }
+    }
+
+    public Map<String, Object> getAvailability(Long productId, int stockQuantity) {
+        boolean sharded = stockShardRepository.existsByProductId(productId);
+        Map<String, Object> availability = new LinkedHashMap<>();
+        availability.put("productId", productId);
+        availability.put("stockQuantity", stockQuantity);
+        availability.put("reserved", sharded ? stockReservationRepository.sumQuantity(productId) : 0L);
+        availability.put("available", sharded ? stockShardRepository.sumAvailable(productId) : (long) stockQuantity);
+        return availability;
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.sweep-ms:30000}")
+    public void releaseExpired() {
+        releaseExpiredBefore(LocalDateTime.now());
+    }
+
+    /**
+     * Release every hold that ran out before {@code now}, a batch per transaction.
+     *
+     * @return the number of holds released
+     */
+    public int releaseExpiredBefore(LocalDateTime now) {
+        int released = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                int batch = 0;
+                for (StockReservation reservation : stockReservationRepository.findExpired(now, PageRequest.of(0, SWEEP_BATCH))) {
+                    // A hold renewed or checked out since it was read is left alone
+                    if (stockReservationRepository.deleteExpired(reservation.getId(), now) == 1) {
+                        give(reservation.getProductId(), reservation.getQuantity());
+                        batch++;
+                    }
+                }
+                return batch;
+            });
+            released += count;
+            if (count < SWEEP_BATCH) {
+                return released;
+            }
+        }
+    }
+
+    /**
+     * Bring every sharded product's units back to stock_quantity minus its
+     * holds, spread evenly over its shards. Drops the shards and holds of
+     * deleted products.
+     */
+    @Scheduled(fixedDelayString = "${reservations.reconcile-ms:60000}")
+    public void reconcile() {
+        for (Long productId : stockShardRepository.findProductIds()) {
+            try {
+                reconcile(productId);
+            } catch (RuntimeException e) {
+                log.warn("Could not reconcile available stock of product {}", productId, e);
+            }
+        }
+    }
+
+    /**
+     * Reconcile one product right away, e.g. after an admin changed its stock.
+     */
+    public void reconcile(Long productId) {
+        if (stockShardRepository.existsByProductId(productId)) {
+            transactionTemplate.executeWithoutResult(status -> reconcileLocked(productId));
+        }
+    }
+
+    private void reconcileLocked(Long productId) {
+        // Holding every shard keeps reservations and checkouts of this product out until we are done
+        List<StockShard> locked = lockShards(productId);
+        List<Object[]> rows = stockReservationRepository.findStockAndReserved(productId);
+        if (rows.isEmpty()) {
+            stockShardRepository.deleteByProductId(productId);
+            stockReservationRepository.deleteByProductId(productId);
+            return;
+        }
+        int expected = Math.max(((Number) rows.get(0)[0]).intValue() - ((Number) rows.get(0)[1]).intValue(), 0);
+        int actual = locked.stream().mapToInt(StockShard::getAvailable).sum();
+        if (expected != actual) {
+            log.info("Available stock of product {} reconciled from {} to {}", productId, actual, expected);
+        }
+        spread(locked, expected);
+    }
+
+    private boolean take(Long productId, int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (stockShardRepository.take(productId, (start + i) % shards, quantity) == 1) {
+                return true;
+            }
+        }
+        return gather(productId, quantity);
+    }
+
+    /**
+     * No single shard can cover the quantity: take what each shard has, in
+     * shard order so that concurrent gatherers lock shards in the same order,
+     * and hand it all back if together they still fall short.
+     */
+    private boolean gather(Long productId, int quantity) {
+        int[] taken = new int[shards];
+        int needed = quantity;
+        for (int shard = 0; shard < shards && needed > 0; shard++) {
+            // A failed take has waited out the concurrent writer, so the re-read sees its outcome
+            Integer available;
+            while ((available = stockShardRepository.findAvailable(productId, shard)) != null && available > 0) {
+                int amount = Math.min(available, needed);
+                if (stockShardRepository.take(productId, shard, amount) == 1) {
+                    taken[shard] = amount;
+                    needed -= amount;
+                    break;
+                }
+            }
+        }
+        if (needed == 0) {
+            return true;
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            if (taken[shard] > 0) {
+                stockShardRepository.give(productId, shard, taken[shard]);
+            }
+        }
+        return false;
+    }
+
+    private void give(Long productId, int quantity) {
+        stockShardRepository.give(productId, ThreadLocalRandom.current().nextInt(shards), quantity);
+    }
+
+    private int consumeHeld(Long userId, Long productId, int quantity) {
+        StockReservation reservation = stockReservationRepository.lockByUserIdAndProductId(userId, productId)
+            .orElse(null);
+        if (reservation == null) {
+            return 0;
+        }
+        int covered = Math.min(reservation.getQuantity(), quantity);
+        settle(reservation, covered);
+        return covered;
+    }
+
+    private void settle(StockReservation reservation, int covered) {
+        if (covered == reservation.getQuantity()) {
+            stockReservationRepository.delete(reservation);
+        } else {
+            reservation.setQuantity(reservation.getQuantity() - covered);
+            stockReservationRepository.save(reservation);
+        }
+    }
+
+    private void release(StockReservation reservation) {
+        give(reservation.getProductId(), reservation.getQuantity());
+        stockReservationRepository.delete(reservation);
+    }
+
+    private List<StockShard> lockShards(Long productId) {
+        // Pending shard updates first; the locked rows are then re-read, as bulk updates bypass managed copies
+        entityManager.flush();
+        List<StockShard> locked = stockShardRepository.lockByProductId(productId);
+        locked.forEach(entityManager::refresh);
+        return locked;
+    }
+
+    private static void spread(List<StockShard> locked, int units) {
+        for (int i = 0; i < locked.size(); i++) {
+            locked.get(i).setAvailable(units / locked.size() + (i < units % locked.size() ? 1 : 0));
+        }
+    }
+
+    /**
+     * Create a product's shards before its first reservation, in a transaction
+     * of its own. Called ahead of the cart transaction: the product row is
+     * locked while the shards are created, and other carts' inserts wait on
+     * that row, so it must not stay locked while the cart waits on shards.
+     */
+    @Transactional
+    public void prepare(Long productId) {
+        ensureShards(productId);
+    }
+
+    /**
+     * Split a product's stock among new shards, unless it has them. The
+     * product row is locked so only one caller creates them; others wait for
+     * it once, then find the shards.
+     */
+    private void ensureShards(Long productId) {
+        if (stockShardRepository.existsByProductId(productId)) {
+            return;
+        }
+        if (entityManager.find(Product.class, productId, LockModeType.PESSIMISTIC_WRITE) == null
+                || stockShardRepository.existsByProductId(productId)) {
+            return;
+        }
+        List<Object[]> rows = stockReservationRepository.findStockAndReserved(productId);
+        int available = Math.max(((Number) rows.get(0)[0]).intValue() - ((Number) rows.get(0)[1]).intValue(), 0);
+        for (int i = 0; i < shards; i++) {
+            StockShard shard = new StockShard();
+            shard.setProductId(productId);
+            shard.setShard(i);
+            shard.setAvailable(available / shards + (i < available % shards ? 1 : 0));
+            stockShardRepository.save(shard);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.shoplite.backend.service;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.param.PaymentIntentCreateParams;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "stripe", matchIfMissing = true)
+public class StripePaymentGateway implements PaymentGateway {
+
+    @Value("${stripe.api.key}")
+    private String stripeApiKey;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public PaymentIntentInfo createPaymentIntent(long amount, String currency) {
+        Stripe.apiKey = stripeApiKey;
+
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+            .setAmount(amount)
+            .setCurrency(currency)
+            .setAutomaticPaymentMethods(
+                PaymentIntentCreateParams.AutomaticPaymentMethods
+                    .builder()
+                    .setEnabled(true)
+                    .build()
+            )
+            .build();
+
+        return toInfo(timeStripeCall("create", () -> PaymentIntent.create(params)));
+    }
+
+    @Override
+    public PaymentIntentInfo retrievePaymentIntent(String paymentIntentId) {
+        Stripe.apiKey = stripeApiKey;
+        return toInfo(timeStripeCall("retrieve", () -> PaymentIntent.retrieve(paymentIntentId)));
+    }
+
+    private PaymentIntentInfo toInfo(PaymentIntent paymentIntent) {
+        return new PaymentIntentInfo(
+            paymentIntent.getId(),
+            paymentIntent.getClientSecret(),
+            paymentIntent.getStatus(),
+            paymentIntent.getAmount(),
+            paymentIntent.getCurrency()
+        );
+    }
+
+    private <T> T timeStripeCall(String operation, StripeCall<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.execute();
+            outcome = "success";
+            return result;
+        } catch (StripeException e) {
+            throw new PaymentGatewayException(e.getMessage(), e);
+        } finally {
+            sample.stop(Timer.builder("shoplite.stripe")
+                .description("Latency of Stripe API calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+    }
+
+    @FunctionalInterface
+    private interface StripeCall<T> {
+        T execute() throws StripeException;
+    }
+}
@@ -0,0 +1,185 @@
+package com.shoplite.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Best sellers over the last hour, day and week, kept in memory by one
+ * {@link DecayingTopK} per window and fed with every committed order, so
+ * reading them never touches order_items. Units ordered count with a weight
+ * that decays with the window length, so "hour" reacts to what is trending
+ * now and "week" to steady sellers; cancellations are not subtracted.
+ *
+ * The sketches are written to {@code top-sellers.snapshot-file} every
+ * {@code top-sellers.snapshot-interval-ms} and on shutdown, and read back on
+ * startup so a restart does not start from an empty list.
+ */
+@Service
+public class TopSellersService {
+
+    private static final Logger log = LoggerFactory.getLogger(TopSellersService.class);
+
+    public enum Window {
+        HOUR(Duration.ofHours(1)), DAY(Duration.ofDays(1)), WEEK(Duration.ofDays(7));
+
+        private final Duration tau;
+
+        Window(Duration tau) {
+            this.tau = tau;
+        }
+
+        public static Window parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("window must be one of hour, day, week");
+            }
+        }
+    }
+
+    public static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Counters per window; products beyond this are estimated, never scanned
+    @Value("${top-sellers.capacity:200}")
+    private int capacity;
+
+    @Value("${top-sellers.snapshot-file:data/top-sellers.json}")
+    private String snapshotFile;
+
+    private final Map<Window, DecayingTopK> sketches = new EnumMap<>(Window.class);
+
+    @PostConstruct
+    public void init() {
+        long now = System.currentTimeMillis();
+        for (Window window : Window.values()) {
+            sketches.put(window, new DecayingTopK(capacity, window.tau.toMillis(), now));
+        }
+        restore();
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long now = System.currentTimeMillis();
+        synchronized (sketches) {
+            for (DecayingTopK sketch : sketches.values()) {
+                event.unitsByProduct().forEach((productId, units) -> sketch.add(productId, units, now));
+            }
+        }
+    }
+
+    /**
+     * The {@code limit} best-selling products of the window, with their
+     * estimated (decayed) units; products deleted since are left out.
+     */
+    public List<Map<String, Object>> getTopSellers(Window window, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<DecayingTopK.Entry> top;
+        synchronized (sketches) {
+            top = sketches.get(window).top(limit, System.currentTimeMillis());
+        }
+        Map<Long, Product> products = productRepository.findAllById(top.stream().map(DecayingTopK.Entry::key).toList())
+            .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (DecayingTopK.Entry entry : top) {
+            Product product = products.get(entry.key());
+            if (product != null) {
+                Map<String, Object> seller = new LinkedHashMap<>();
+                seller.put("product", product);
+                seller.put("score", Math.round(entry.count() * 100) / 100.0);
+                result.add(seller);
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${top-sellers.snapshot-interval-ms:60000}", initialDelayString = "${top-sellers.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        long now = System.currentTimeMillis();
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("takenAt", now);
+        synchronized (sketches) {
+            sketches.forEach((window, sketch) -> {
+                ArrayNode entries = root.putArray(window.name());
+                for (DecayingTopK.Entry entry : sketch.entries(now)) {
+                    // [productId, count, error]; a few KB however many orders were seen
+                    entries.addArray().add(entry.key()).add(entry.count()).add(entry.error());
+                }
+            });
+        }
+        Path path = Path.of(snapshotFile);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), root);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write top sellers snapshot to {}", path, e);
+        }
+    }
+
+    private void restore() {
+        Path path = Path.of(snapshotFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(path.toFile());
+            long takenAt = root.get("takenAt").asLong();
+            synchronized (sketches) {
+                sketches.forEach((window, sketch) -> {
+                    List<DecayingTopK.Entry> entries = new ArrayList<>();
+                    for (JsonNode entry : root.path(window.name())) {
+                        entries.add(new DecayingTopK.Entry(entry.get(0).asLong(), entry.get(1).asDouble(), entry.get(2).asDouble()));
+                    }
+                    sketch.restore(entries, takenAt);
+                });
+            }
+            log.info("Restored top sellers from {}", path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable top sellers snapshot {}", path, e);
+        }
+    }
+}
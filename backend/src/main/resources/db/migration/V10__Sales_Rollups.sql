@@ -0,0 +1,31 @@
+-- Daily sales rollups for the admin dashboard, maintained as orders are placed and cancelled
+CREATE TABLE IF NOT EXISTS sales_daily (
+    sales_day DATE PRIMARY KEY,
+    orders BIGINT NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0.00
+);
+
+CREATE TABLE IF NOT EXISTS sales_daily_product (
+    id BIGSERIAL PRIMARY KEY,
+    sales_day DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    orders BIGINT NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    UNIQUE (sales_day, product_id)
+);
+
+-- category_id 0 collects products without a category
+CREATE TABLE IF NOT EXISTS sales_daily_category (
+    id BIGSERIAL PRIMARY KEY,
+    sales_day DATE NOT NULL,
+    category_id BIGINT NOT NULL,
+    orders BIGINT NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    UNIQUE (sales_day, category_id)
+);
+
+-- The rebuild job and the export scan orders by creation time
+CREATE INDEX IF NOT EXISTS idx_orders_created_at ON orders(created_at);
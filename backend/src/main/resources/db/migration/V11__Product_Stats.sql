@@ -0,0 +1,9 @@
+-- Product view and add-to-cart counters, flushed in batches from memory
+CREATE TABLE IF NOT EXISTS product_stats (
+    product_id BIGINT PRIMARY KEY,
+    views BIGINT NOT NULL DEFAULT 0,
+    add_to_carts BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_stats_views ON product_stats(views DESC);
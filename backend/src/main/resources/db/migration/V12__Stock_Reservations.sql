@@ -0,0 +1,21 @@
+-- Cart reservations with a time limit, and each product's available-to-promise units
+-- spread over several rows so concurrent reservations do not queue on one
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP,
+    UNIQUE (user_id, product_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_expires_at ON stock_reservations(expires_at);
+
+CREATE TABLE IF NOT EXISTS stock_shards (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    shard INTEGER NOT NULL,
+    available INTEGER NOT NULL DEFAULT 0,
+    UNIQUE (product_id, shard)
+);
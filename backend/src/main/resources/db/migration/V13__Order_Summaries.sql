@@ -0,0 +1,23 @@
+-- Order list read model: one row per order, kept in the same transaction as the order
+-- and its status changes; no foreign keys, since sharded orders live in other databases
+CREATE TABLE IF NOT EXISTS order_summaries (
+    order_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    item_count INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP
+);
+
+-- A page of a user's order list is one range scan of this index
+CREATE INDEX IF NOT EXISTS idx_order_summaries_user_created ON order_summaries(user_id, created_at DESC, order_id DESC);
+
+-- Orders placed before the read model existed
+INSERT INTO order_summaries (order_id, user_id, status, total_amount, item_count, created_at, updated_at)
+SELECT o.id, o.user_id, o.status, o.total_amount, COALESCE(SUM(i.quantity), 0),
+       COALESCE(o.created_at, CURRENT_TIMESTAMP), o.updated_at
+FROM orders o
+LEFT JOIN order_items i ON i.order_id = o.id
+GROUP BY o.id, o.user_id, o.status, o.total_amount, o.created_at, o.updated_at
+ON CONFLICT (order_id) DO NOTHING;
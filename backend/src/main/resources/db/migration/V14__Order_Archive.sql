@@ -0,0 +1,11 @@
+-- Delivered and cancelled orders moved out of orders/order_items by the archival job,
+-- each stored as the gzipped JSON of the order and its items
+CREATE TABLE IF NOT EXISTS orders_archive (
+    order_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL,
+    raw_bytes INTEGER NOT NULL,
+    payload BYTEA NOT NULL
+);
@@ -0,0 +1,6 @@
+-- Uploads deduplicated onto an existing file restart its orphan grace period
+ALTER TABLE stored_files ADD COLUMN IF NOT EXISTS last_stored_at TIMESTAMP;
+UPDATE stored_files SET last_stored_at = created_at WHERE last_stored_at IS NULL;
+
+DROP INDEX IF EXISTS idx_stored_files_ref_count;
+CREATE INDEX IF NOT EXISTS idx_stored_files_ref_count ON stored_files(ref_count, last_stored_at);
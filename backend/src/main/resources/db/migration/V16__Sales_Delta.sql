@@ -0,0 +1,13 @@
+-- Rollup changes written by checkouts and cancellations, folded into the sales_daily
+-- tables by a scheduled job, so order transactions never lock a rollup row
+CREATE TABLE IF NOT EXISTS sales_delta (
+    id BIGSERIAL PRIMARY KEY,
+    sales_day DATE NOT NULL,
+    scope VARCHAR(10) NOT NULL,
+    key_id BIGINT NOT NULL,
+    orders BIGINT NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_sales_delta_day ON sales_delta(sales_day, id);
@@ -0,0 +1,18 @@
+-- Content-addressed upload storage: one row per distinct file content
+CREATE TABLE IF NOT EXISTS stored_files (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    storage_path VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_stored_files_ref_count ON stored_files(ref_count, created_at);
+
+-- Legacy flat UUID file names mapped to their content hash
+CREATE TABLE IF NOT EXISTS stored_file_aliases (
+    filename VARCHAR(255) PRIMARY KEY,
+    sha256 VARCHAR(64) NOT NULL,
+    FOREIGN KEY (sha256) REFERENCES stored_files(sha256) ON DELETE CASCADE
+);
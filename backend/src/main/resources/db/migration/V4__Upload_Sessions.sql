@@ -0,0 +1,13 @@
+-- Resumable chunked uploads; bytes live in a part file, this tracks received chunks
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    filename VARCHAR(255),
+    content_type VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    chunk_size INT NOT NULL,
+    received_chunks BYTEA NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_updated_at ON upload_sessions(updated_at);
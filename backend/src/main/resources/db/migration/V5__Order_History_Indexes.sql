@@ -0,0 +1,6 @@
+-- Keyset pagination of a user's order history walks (user_id, created_at, id) newest first
+CREATE INDEX IF NOT EXISTS idx_orders_user_created ON orders(user_id, created_at DESC, id DESC);
+
+-- Postgres does not index foreign keys; loading a page's items joins on these
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON order_items(product_id);
@@ -0,0 +1,13 @@
+-- Responses to requests sent with an Idempotency-Key, replayed to retries until they expire
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id VARCHAR(64) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response_status INT,
+    content_type VARCHAR(255),
+    response_body BYTEA,
+    created_at TIMESTAMP,
+    expires_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
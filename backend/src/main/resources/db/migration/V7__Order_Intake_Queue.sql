@@ -0,0 +1,15 @@
+-- Durable queue for orders accepted in async intake mode
+CREATE TABLE IF NOT EXISTS order_intake_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    order_id BIGINT NOT NULL UNIQUE,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    available_at TIMESTAMP,
+    claimed_at TIMESTAMP,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_intake_jobs_ready ON order_intake_jobs(status, available_at);
@@ -0,0 +1,4 @@
+-- Orders and order items take ids from pooled sequences (allocationSize = 50) so
+-- Hibernate can batch their inserts; the sequence increment must match
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
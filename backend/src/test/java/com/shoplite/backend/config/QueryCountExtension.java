@@ -0,0 +1,70 @@
+package com.shoplite.backend.config;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements a test issues on its own thread, so a test can
+ * put a budget on an endpoint:
+ *
+ * <pre>
+ * &#64;RegisterExtension
+ * QueryCountExtension queries = new QueryCountExtension();
+ *
+ * queries.reset();
+ * mockMvc.perform(get("/api/orders/user"));
+ * queries.assertAtMost(3);
+ * </pre>
+ *
+ * MockMvc runs requests on the test thread, so their statements are counted.
+ */
+public class QueryCountExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private QueryCountInspector.Recording recording;
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        recording = QueryCountInspector.start();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        QueryCountInspector.stop();
+        recording = null;
+    }
+
+    /**
+     * Forget statements issued so far, typically by fixture setup.
+     */
+    public void reset() {
+        recording.reset();
+    }
+
+    public long count() {
+        return recording.getCount();
+    }
+
+    /**
+     * Fail if more than {@code budget} statements were issued, listing each
+     * statement shape with how often it ran.
+     */
+    public void assertAtMost(long budget) {
+        assertThat(recording.getCount())
+            .withFailMessage(() -> "Expected at most " + budget + " SQL statements but was "
+                + recording.getCount() + ":\n" + describeShapes())
+            .isLessThanOrEqualTo(budget);
+    }
+
+    private String describeShapes() {
+        return recording.getShapes().entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .map(e -> "  " + e.getValue() + "x " + e.getKey())
+            .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.service.OrderIntakeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+    "orders.intake-mode=async",
+    "orders.intake.poll-ms=50"
+})
+public class AsyncOrderIntakeTest extends OrderTestSupport {
+
+    private static final String EMAIL = "async-intake@example.com";
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser(EMAIL);
+        product = createProduct("Async Product", "10.00", 5);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testOrderIsAcceptedThenAllocatedInBackground() throws Exception {
+        // Act
+        JsonNode accepted = placeOrder(3);
+
+        // Assert
+        assertThat(accepted.get("status").asText()).isEqualTo("PENDING");
+        JsonNode status = awaitStatus(accepted.get("id").asLong(), "PROCESSING");
+        assertThat(status.get("intakeStatus").asText()).isEqualTo("DONE");
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testOrderThatCannotBeAllocatedIsCancelled() throws Exception {
+        // Arrange: both pass the intake check against 5 in stock, only one can be allocated.
+        // Accepted in one transaction so the worker cannot allocate the first before the second is checked
+        List<Long> orderIds = transactionTemplate.execute(tx -> List.of(
+            orderIntakeService.accept(user, List.of(item(3)), "1 Test Street", "Cash", null).getId(),
+            orderIntakeService.accept(user, List.of(item(3)), "1 Test Street", "Cash", null).getId()));
+
+        // Act
+        List<String> outcomes = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            outcomes.add(awaitStatus(orderId, "PROCESSING", "CANCELLED").get("status").asText());
+        }
+
+        // Assert
+        assertThat(outcomes).containsExactlyInAnyOrder("PROCESSING", "CANCELLED");
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(2);
+    }
+
+    private OrderItem item(int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private JsonNode placeOrder(int quantity) throws Exception {
+        String request = objectMapper.writeValueAsString(Map.of(
+            "shippingAddress", "1 Test Street",
+            "paymentMethod", "Cash",
+            "totalAmount", product.getPrice().multiply(BigDecimal.valueOf(quantity)),
+            "items", List.of(Map.of("product", Map.of("id", product.getId()), "quantity", quantity))));
+        String body = mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode awaitStatus(Long orderId, String... expected) throws Exception {
+        JsonNode status = null;
+        for (int i = 0; i < 100; i++) {
+            String body = mockMvc.perform(get("/api/orders/" + orderId + "/status"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            status = objectMapper.readTree(body);
+            if (List.of(expected).contains(status.get("status").asText())) {
+                return status;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Order " + orderId + " did not reach " + List.of(expected) + ", last status " + status);
+    }
+}
@@ -0,0 +1,123 @@
+package com.shoplite.backend.controller;
+
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.service.OrderBatchWriter;
+import com.shoplite.backend.service.OrderDraft;
+import com.shoplite.backend.service.OutOfStockException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+    "orders.intake-mode=batch",
+    // A wide window so the concurrent submissions below share batches
+    "orders.batch.max-wait=200ms"
+})
+public class BatchOrderWriteTest extends OrderTestSupport {
+
+    private static final String EMAIL = "batch-writer@example.com";
+
+    @Autowired
+    private OrderBatchWriter orderBatchWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser(EMAIL);
+        product = createProduct("Batch Product", "10.00", 10);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testCheckoutIsWrittenThroughBatchWriter() throws Exception {
+        // Arrange
+        String request = objectMapper.writeValueAsString(Map.of(
+            "shippingAddress", "1 Test Street",
+            "paymentMethod", "Cash",
+            "totalAmount", new BigDecimal("30.00"),
+            "items", List.of(Map.of("product", Map.of("id", product.getId()), "quantity", 3))));
+
+        // Act / Assert
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.totalAmount").value(30.00))
+                .andExpect(jsonPath("$.items[0].priceAtPurchase").value(10.00));
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    public void testOrderThatCannotBeFilledFailsAloneInItsBatch() throws Exception {
+        // Arrange: eight concurrent checkouts of 2 against 10 in stock, plus one for a missing product
+        int clients = 9;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> results = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Long productId = i == 0 ? -1L : product.getId();
+            results.add(executor.submit(() -> {
+                start.await();
+                return orderBatchWriter.submit(new OrderDraft(user, List.of(item(productId, 2)), "1 Test Street", "Cash", null));
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int written = 0;
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<Order> result : results) {
+            try {
+                assertThat(result.get().getId()).isNotNull();
+                written++;
+            } catch (Exception e) {
+                failures.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(meterRegistry.get("shoplite.order.batch.size").summary().max()).isGreaterThan(1);
+        assertThat(written).isEqualTo(5);
+        assertThat(failures).hasSize(4);
+        assertThat(failures).filteredOn(e -> e instanceof OutOfStockException).hasSize(3);
+        assertThat(failures).filteredOn(e -> e.getMessage().startsWith("Product not found")).hasSize(1);
+        assertThat(orderRepository.findByUser(user)).hasSize(5);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isZero();
+    }
+
+    private static OrderItem item(Long productId, int quantity) {
+        Product product = new Product();
+        product.setId(productId);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
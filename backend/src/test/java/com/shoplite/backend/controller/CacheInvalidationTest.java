@@ -0,0 +1,111 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shoplite.backend.model.Category;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.repository.CategoryRepository;
+import com.shoplite.backend.service.InvalidationBus;
+import com.shoplite.backend.service.LoopbackInvalidationTransport;
+import com.shoplite.backend.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheInvalidationTest extends OrderTestSupport {
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private LoopbackInvalidationTransport transport;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        invalidationBus.flush();
+        transport.subscribe(messages::add, () -> { });
+
+        product = createProduct("Invalidated Vase", "20.00", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryRepository.deleteAll(categories);
+        categoryService.refresh();
+    }
+
+    @Test
+    public void testChangesAreCoalescedPerBatch() throws Exception {
+        // Act: four changes to one product in one batch window
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.updateStock(product.getId(), -1);
+            productService.updateStock(product.getId(), -2);
+        });
+        product.setStockQuantity(3);
+        productService.save(product);
+        transactionTemplate.executeWithoutResult(status -> productService.updateStock(product.getId(), 1));
+        invalidationBus.flush();
+
+        // Assert
+        assertThat(messages).hasSize(1);
+        JsonNode entries = objectMapper.readTree(messages.get(0)).get("entries");
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).get(0).asText()).isEqualTo("Product");
+        assertThat(entries.get(0).get(1).asLong()).isEqualTo(product.getId());
+
+        // A whole-type invalidation replaces the single ids of its batch
+        messages.clear();
+        invalidationBus.invalidate("Product", product.getId());
+        invalidationBus.invalidate("Product", null);
+        invalidationBus.flush();
+        entries = objectMapper.readTree(messages.get(0)).get("entries");
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).get(1).isNull()).isTrue();
+    }
+
+    @Test
+    public void testOtherInstancesRefreshTheCategorySnapshot() throws Exception {
+        // Arrange: rows written behind the snapshot's back, as another instance would
+        assertThat(categoryService.findAll()).isNotNull();
+        Category own = saveBehindSnapshot("Own Echo Lamps");
+        Category remote = saveBehindSnapshot("Remote Lamps");
+
+        // Act / Assert: this instance's own messages come back and are skipped
+        invalidationBus.invalidate("Category", own.getId());
+        invalidationBus.flush();
+        assertThat(messages).hasSize(1);
+        assertThat(categoryService.findByName("Own Echo Lamps")).isEmpty();
+
+        transport.publish("{\"node\":\"other-instance\",\"entries\":[[\"Category\"," + remote.getId() + ",1]]}");
+        assertThat(categoryService.findByName("Remote Lamps")).isPresent();
+        assertThat(categoryService.findByName("Own Echo Lamps")).isPresent();
+    }
+
+    private Category saveBehindSnapshot(String name) {
+        Category category = new Category();
+        category.setName(name);
+        category = categoryRepository.save(category);
+        categories.add(category);
+        return category;
+    }
+}
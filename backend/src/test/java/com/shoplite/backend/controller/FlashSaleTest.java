@@ -0,0 +1,194 @@
+package com.shoplite.backend.controller;
+
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.OrderIntakeJobRepository;
+import com.shoplite.backend.service.FlashSaleService;
+import com.shoplite.backend.service.OrderDraft;
+import com.shoplite.backend.service.OrderIntakeService;
+import com.shoplite.backend.service.OrderService;
+import com.shoplite.backend.service.OutOfStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class FlashSaleTest extends OrderTestSupport {
+
+    private static final String EMAIL = "flash-sale@example.com";
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private OrderIntakeJobRepository orderIntakeJobRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser(EMAIL);
+        product = createProduct("Flash Sale Sneaker", "99.00", 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (flashSaleService.isActive(product.getId())) {
+            flashSaleService.stop(product.getId());
+        }
+    }
+
+    @Test
+    public void testTenThousandConcurrentBuyersNeverOversell() throws Exception {
+        // Arrange
+        flashSaleService.start(product.getId());
+        int buyers = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>(buyers);
+        for (int i = 0; i < buyers; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    flashSaleService.checkAvailable(product.getId(), 1);
+                    orderService.createOrder(user, List.of(item(product.getId(), 1)), "1 Test Street", "Cash", null);
+                    return true;
+                } catch (OutOfStockException e) {
+                    return false;
+                }
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int sold = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                sold++;
+            }
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        flashSaleService.stop(product.getId());
+
+        // Assert
+        assertThat(sold).isEqualTo(500);
+        assertThat(orderRepository.findByUser(user)).hasSize(500);
+        assertThat(productRepository.findStockQuantityById(product.getId())).isZero();
+        assertThat(flashSaleService.getStatus()).noneMatch(sale -> product.getId().equals(sale.get("productId")));
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testRollbacksReturnUnitsAndStockChangesAreReconciled() throws Exception {
+        // Arrange
+        product.setStockQuantity(3);
+        product = productRepository.save(product);
+        flashSaleService.start(product.getId());
+
+        // Act / Assert: an order that fails after taking units gives them back
+        assertThatThrownBy(() -> orderService.createOrder(user,
+            List.of(item(product.getId(), 2), item(-1L, 1)), "1 Test Street", "Cash", null))
+            .hasMessageStartingWith("Product not found");
+        assertThat(available()).isEqualTo(3);
+
+        Order order = orderService.createOrder(user, List.of(item(product.getId(), 3)), "1 Test Street", "Cash", null);
+        assertThat(available()).isZero();
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orderRequest(1)))
+                .andExpect(status().isConflict());
+
+        // Stock is written by the flush; a cancellation puts it back in the column and the counter
+        flashSaleService.flush();
+        assertThat(productRepository.findStockQuantityById(product.getId())).isZero();
+        orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CANCELLED);
+        flashSaleService.flush();
+        assertThat(available()).isEqualTo(3);
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orderRequest(1)))
+                .andExpect(status().isCreated());
+
+        flashSaleService.stop(product.getId());
+        assertThat(productRepository.findStockQuantityById(product.getId())).isEqualTo(2);
+    }
+
+    @Test
+    public void testCheckoutsQueuedBeforeTheSaleTakeItsUnits() {
+        // Arrange: an async order accepted before the sale preloads the same units
+        product.setStockQuantity(3);
+        product = productRepository.save(product);
+        Order queued = orderIntakeService.accept(user, List.of(item(product.getId(), 2)), "1 Test Street", "Cash", null);
+        flashSaleService.start(product.getId());
+
+        // Act / Assert: its allocation takes them from the sale, and a batch leaves the product alone
+        orderIntakeService.allocate(orderIntakeJobRepository.findByOrderId(queued.getId()).orElseThrow().getId());
+        assertThat(available()).isEqualTo(1);
+        List<OrderService.DraftResult> results = orderService.createOrders(List.of(
+            new OrderDraft(user, List.of(item(product.getId(), 1)), "1 Test Street", "Cash", null)));
+        assertThat(results.get(0).error()).isInstanceOf(IllegalStateException.class);
+        flashSaleService.flush();
+        assertThat(productRepository.findStockQuantityById(product.getId())).isEqualTo(1);
+
+        // Units sold around the sale all the same are clamped, not written below zero
+        orderService.createOrder(user, List.of(item(product.getId(), 1)), "1 Test Street", "Cash", null);
+        transactionTemplate.executeWithoutResult(status -> productRepository.decrementStock(product.getId(), 1));
+        flashSaleService.flush();
+        assertThat(productRepository.findStockQuantityById(product.getId())).isZero();
+    }
+
+    private int available() {
+        return flashSaleService.getStatus().stream()
+            .filter(sale -> product.getId().equals(sale.get("productId")))
+            .map(sale -> (Integer) sale.get("available"))
+            .findFirst().orElseThrow();
+    }
+
+    private String orderRequest(int quantity) throws Exception {
+        return objectMapper.writeValueAsString(Map.of(
+            "shippingAddress", "1 Test Street",
+            "paymentMethod", "Cash",
+            "totalAmount", product.getPrice().multiply(new BigDecimal(quantity)),
+            "items", List.of(Map.of("product", Map.of("id", product.getId()), "quantity", quantity))));
+    }
+
+    private static OrderItem item(Long productId, int quantity) {
+        Product product = new Product();
+        product.setId(productId);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,36 @@
+package com.shoplite.backend.controller;
+
+import com.shoplite.backend.model.OutboxEvent;
+import com.shoplite.backend.service.OutboxSink;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects relayed outbox events in memory, and can be told to fail the next
+ * few deliveries to exercise redelivery.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Override
+    public void publish(List<OutboxEvent> batch) {
+        if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            throw new IllegalStateException("Sink unavailable");
+        }
+        events.addAll(batch);
+    }
+
+    public void failNext(int deliveries) {
+        failures.set(deliveries);
+    }
+
+    public List<OutboxEvent> eventsFor(String aggregateType, Long aggregateId) {
+        return events.stream()
+            .filter(e -> e.getAggregateType().equals(aggregateType) && e.getAggregateId().equals(aggregateId))
+            .toList();
+    }
+}
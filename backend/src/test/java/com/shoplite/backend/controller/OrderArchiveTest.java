@@ -0,0 +1,187 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.model.SalesDaily;
+import com.shoplite.backend.repository.ArchivedOrderRepository;
+import com.shoplite.backend.repository.SalesDailyRepository;
+import com.shoplite.backend.service.OrderService;
+import com.shoplite.backend.service.SalesRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class OrderArchiveTest extends OrderTestSupport {
+
+    private static final int OLD_ORDERS = 5;
+    private static final LocalDate LONG_AGO = LocalDate.now().minusDays(200);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SalesDailyRepository salesDailyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Product product;
+    private final List<Order> oldTerminal = new ArrayList<>();
+    private Order oldPending;
+    private Order recentDelivered;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser("archive@example.com");
+        product = createProduct("Archived Kettle", "15.00", 100);
+
+        LocalDateTime longAgo = LONG_AGO.atTime(12, 0);
+        for (int i = 0; i < OLD_ORDERS; i++) {
+            oldTerminal.add(saveOrder(i % 2 == 0 ? Order.OrderStatus.DELIVERED : Order.OrderStatus.CANCELLED, longAgo));
+        }
+        oldPending = saveOrder(Order.OrderStatus.PENDING, longAgo);
+        recentDelivered = saveOrder(Order.OrderStatus.DELIVERED, LocalDateTime.now().minusDays(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        archivedOrderRepository.deleteAll(archivedOrderRepository.findAll().stream()
+            .filter(archived -> archived.getUserId().equals(user.getId()))
+            .toList());
+        for (String table : List.of("sales_daily_product", "sales_daily_category", "sales_daily")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE sales_day BETWEEN ? AND ?", LONG_AGO, LONG_AGO.plusDays(1));
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testArchivesOldTerminalOrdersAndStillFindsThem() throws Exception {
+        // Act
+        JsonNode result = archive();
+
+        // Assert: only the old delivered and cancelled orders leave the live tables
+        assertThat(result.get("orders").asLong()).isEqualTo(OLD_ORDERS);
+        assertThat(result.get("items").asLong()).isEqualTo(OLD_ORDERS * 2);
+        assertThat(result.get("rawBytes").asLong()).isPositive();
+        assertThat(result.get("archivedBytes").asLong()).isPositive();
+        assertThat(result.get("reclaimedBytes").asLong())
+            .isEqualTo(result.get("rawBytes").asLong() - result.get("archivedBytes").asLong());
+        assertThat(orderRepository.findByUser(user)).extracting(Order::getId)
+            .containsExactlyInAnyOrder(oldPending.getId(), recentDelivered.getId());
+
+        // An archived order reads back with its items and product
+        Order archived = orderService.findById(oldTerminal.get(0).getId()).orElseThrow();
+        assertThat(archived.getStatus()).isEqualTo(Order.OrderStatus.DELIVERED);
+        assertThat(archived.getUser().getEmail()).isEqualTo("archive@example.com");
+        assertThat(archived.getTotalAmount()).isEqualByComparingTo("45.00");
+        assertThat(archived.getItems()).extracting(OrderItem::getQuantity).containsExactly(1, 2);
+        assertThat(archived.getItems()).extracting(item -> item.getProduct().getName())
+            .containsOnly("Archived Kettle");
+
+        // Nothing is left to archive
+        assertThat(archive().get("orders").asLong()).isZero();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testArchiveReplacesWhatAnInterruptedRunLeftForALiveOrder() throws Exception {
+        // Arrange: a run stopped after archiving a cancelled order, which was then reopened and delivered
+        Order order = oldTerminal.get(1);
+        jdbcTemplate.update("INSERT INTO orders_archive (order_id, user_id, status, created_at, archived_at, raw_bytes, payload) "
+            + "VALUES (?, ?, 'CANCELLED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 1, ?)", order.getId(), user.getId(), new byte[] {0});
+        jdbcTemplate.update("UPDATE orders SET status = 'DELIVERED' WHERE id = ?", order.getId());
+
+        // Act
+        archive();
+
+        // Assert: the archive holds the order as it was when it left the live tables
+        assertThat(orderRepository.findById(order.getId())).isEmpty();
+        assertThat(archivedOrderRepository.findById(order.getId())).get()
+            .extracting(archived -> archived.getStatus()).isEqualTo(Order.OrderStatus.DELIVERED);
+        assertThat(orderService.findById(order.getId())).get()
+            .extracting(Order::getStatus).isEqualTo(Order.OrderStatus.DELIVERED);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testRejectsCutoffWithinRollupRebuildWindow() throws Exception {
+        mockMvc.perform(post("/api/orders/archive").param("before", LocalDate.now().plusDays(1).toString()))
+            .andExpect(status().isBadRequest());
+        assertThat(orderRepository.findByUser(user)).hasSize(OLD_ORDERS + 2);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testRejectsRebuildOfArchivedDays() throws Exception {
+        // Arrange: the day's rollup counts its delivered and pending orders
+        salesRollupService.rebuild(LONG_AGO, LONG_AGO);
+        SalesDaily before = salesDailyRepository.findById(LONG_AGO).orElseThrow();
+        assertThat(before.getOrders()).isEqualTo(4);
+        archive();
+
+        // Act / Assert: recounting the day from the live orders would drop the archived ones
+        mockMvc.perform(post("/api/stats/sales/rebuild")
+                .param("from", LONG_AGO.toString())
+                .param("to", LONG_AGO.plusDays(1).toString()))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/stats/sales/rebuild")
+                .param("from", LONG_AGO.plusDays(1).toString())
+                .param("to", LONG_AGO.plusDays(1).toString()))
+            .andExpect(status().isOk());
+        SalesDaily after = salesDailyRepository.findById(LONG_AGO).orElseThrow();
+        assertThat(after.getOrders()).isEqualTo(before.getOrders());
+        assertThat(after.getUnits()).isEqualTo(before.getUnits());
+        assertThat(after.getRevenue()).isEqualByComparingTo(before.getRevenue());
+    }
+
+    private JsonNode archive() throws Exception {
+        String body = mockMvc.perform(post("/api/orders/archive"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Order saveOrder(Order.OrderStatus status, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(status);
+        order.setTotalAmount(new BigDecimal("45.00"));
+        order.setShippingAddress("1 Archive Lane");
+        for (int quantity = 1; quantity <= 2; quantity++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(quantity);
+            item.setPriceAtPurchase(new BigDecimal("15.00"));
+            order.getItems().add(item);
+        }
+        order = orderRepository.save(order);
+        // created_at is set on insert; move it back
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", Timestamp.valueOf(createdAt), order.getId());
+        return order;
+    }
+}
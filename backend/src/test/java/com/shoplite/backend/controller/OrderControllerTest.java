@@ -0,0 +1,283 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shoplite.backend.config.QueryCountExtension;
+import com.shoplite.backend.model.Category;
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.OrderSummary;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.OrderSummaryRepository;
+import com.shoplite.backend.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class OrderControllerTest extends OrderTestSupport {
+
+    private static final String EMAIL = "order-history@example.com";
+    private static final int ORDER_COUNT = 50;
+
+    @RegisterExtension
+    QueryCountExtension queries = new QueryCountExtension();
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    private User user;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = createUser(EMAIL);
+        Category category = createCategory("Order History");
+        for (int i = 0; i < 5; i++) {
+            products.add(createProduct("Product " + i, "10.00", 100, category));
+        }
+
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            Order order = new Order();
+            order.setUser(user);
+            order.setStatus(Order.OrderStatus.PENDING);
+            order.setTotalAmount(new BigDecimal("20.00"));
+            order = orderRepository.save(order);
+            for (int j = 0; j < 2; j++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(products.get((i + j) % products.size()));
+                item.setQuantity(1);
+                item.setPriceAtPurchase(new BigDecimal("10.00"));
+                orderItemRepository.save(item);
+            }
+            OrderSummary summary = new OrderSummary();
+            summary.setId(order.getId());
+            summary.setUserId(user.getId());
+            summary.setStatus(order.getStatus());
+            summary.setTotalAmount(order.getTotalAmount());
+            summary.setItemCount(2);
+            summary.setCreatedAt(order.getCreatedAt());
+            orderSummaryRepository.save(summary);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testUserOrdersStayWithinStatementBudget() throws Exception {
+        // Arrange
+        queries.reset();
+
+        // Act
+        mockMvc.perform(get("/api/orders/user"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ORDER_COUNT))
+                .andExpect(jsonPath("$[0].items.length()").value(2))
+                .andExpect(jsonPath("$[0].items[0].product.category.name").value("Order History"));
+
+        // Assert: user lookup, its roles and one query for the orders, whatever the order count
+        queries.assertAtMost(3);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testOrderHistoryPagesWithKeysetCursor() throws Exception {
+        // Arrange
+        Set<Long> seen = new HashSet<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+
+        // Act
+        do {
+            queries.reset();
+            String body = mockMvc.perform(get("/api/orders/user/history")
+                    .param("limit", "20")
+                    .param("cursor", cursor != null ? cursor : ""))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            // user lookup, its roles and one range query over the summaries
+            queries.assertAtMost(3);
+
+            JsonNode page = objectMapper.readTree(body);
+            pageSizes.add(page.get("orders").size());
+            page.get("orders").forEach(order -> {
+                assertThat(order.get("itemCount").asInt()).isEqualTo(2);
+                assertThat(order.has("items")).isFalse();
+                seen.add(order.get("id").asLong());
+            });
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        // Assert
+        assertThat(pageSizes).containsExactly(20, 20, 10);
+        assertThat(seen).hasSize(ORDER_COUNT);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testOrderHistoryFollowsPlacedAndCancelledOrders() throws Exception {
+        // Arrange
+        String created = mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orderRequest(products.get(0), 3)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long orderId = objectMapper.readTree(created).get("id").asLong();
+
+        // Act & Assert: the new order heads the list as soon as it is placed...
+        mockMvc.perform(get("/api/orders/user/history").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].id").value(orderId))
+                .andExpect(jsonPath("$.orders[0].status").value("PENDING"))
+                .andExpect(jsonPath("$.orders[0].itemCount").value(3))
+                .andExpect(jsonPath("$.orders[0].totalAmount").value(30.0));
+
+        // ...and shows its new status once it changes
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.CANCELLED);
+        mockMvc.perform(get("/api/orders/user/history").param("limit", "1"))
+                .andExpect(jsonPath("$.orders[0].id").value(orderId))
+                .andExpect(jsonPath("$.orders[0].status").value("CANCELLED"));
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testOrderHistoryRejectsBadCursor() throws Exception {
+        mockMvc.perform(get("/api/orders/user/history").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "ADMIN")
+    public void testExportStreamsCsvRowPerItem() throws Exception {
+        // Act
+        String csv = export("csv", null);
+
+        // Assert
+        String[] lines = csv.split("\r\n");
+        assertThat(lines[0]).startsWith("order_id,created_at,status,user_id,user_email");
+        assertThat(Arrays.stream(lines).filter(line -> line.contains(EMAIL))).hasSize(ORDER_COUNT * 2);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "ADMIN")
+    public void testExportStreamsNdjsonLinePerOrder() throws Exception {
+        // Act
+        String ndjson = export("ndjson", null);
+
+        // Assert
+        List<JsonNode> orders = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            JsonNode order = objectMapper.readTree(line);
+            if (EMAIL.equals(order.get("userEmail").asText())) {
+                orders.add(order);
+            }
+        }
+        assertThat(orders).hasSize(ORDER_COUNT);
+        assertThat(orders).allSatisfy(order -> assertThat(order.get("items").size()).isEqualTo(2));
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "ADMIN")
+    public void testExportFiltersByDateRange() throws Exception {
+        // Act
+        String csv = export("csv", "2000-01-31");
+
+        // Assert: only the header, since every order was created today
+        assertThat(csv.split("\r\n")).hasSize(1);
+    }
+
+    private String export(String format, String to) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/orders/export")
+                .param("format", format)
+                .param("from", "2000-01-01")
+                .param("to", to != null ? to : LocalDate.now().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", startsWith("attachment")))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testRetriedOrderWithIdempotencyKeyIsCreatedOnce() throws Exception {
+        // Arrange
+        String key = UUID.randomUUID().toString();
+        String request = orderRequest(products.get(0), 3);
+
+        // Act
+        String first = mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String retry = mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        assertThat(objectMapper.readTree(retry).get("id")).isEqualTo(objectMapper.readTree(first).get("id"));
+        assertThat(orderRepository.findByUser(user)).hasSize(ORDER_COUNT + 1);
+        assertThat(productRepository.findById(products.get(0).getId()).orElseThrow().getStockQuantity()).isEqualTo(97);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testIdempotencyKeyCannotBeReusedForDifferentOrder() throws Exception {
+        // Arrange
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orderRequest(products.get(0), 1)))
+                .andExpect(status().isCreated());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orderRequest(products.get(1), 1)))
+                .andExpect(status().isUnprocessableEntity());
+        assertThat(orderRepository.findByUser(user)).hasSize(ORDER_COUNT + 1);
+    }
+
+    private String orderRequest(Product product, int quantity) throws Exception {
+        return objectMapper.writeValueAsString(Map.of(
+            "shippingAddress", "1 Test Street",
+            "paymentMethod", "Cash",
+            "totalAmount", product.getPrice().multiply(BigDecimal.valueOf(quantity)),
+            "items", List.of(Map.of("product", Map.of("id", product.getId()), "quantity", quantity))));
+    }
+}
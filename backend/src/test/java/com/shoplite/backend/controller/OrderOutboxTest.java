@@ -0,0 +1,139 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OutboxEvent;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.service.OrderService;
+import com.shoplite.backend.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+    "outbox.sink=memory",
+    "outbox.relay.enabled=true",
+    "outbox.relay.poll-ms=100"
+})
+public class OrderOutboxTest extends OrderTestSupport {
+
+    private static final String EMAIL = "outbox@example.com";
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    private User user;
+    private Product product;
+
+    @TestConfiguration
+    static class InMemorySinkConfig {
+        @Bean
+        InMemoryOutboxSink inMemoryOutboxSink() {
+            return new InMemoryOutboxSink();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        user = createUser(EMAIL);
+        product = createProduct("Outbox Product", "10.00", 10);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testOrderLifecycleIsRelayedInOrder() throws Exception {
+        // Arrange
+        Long orderId = placeOrder(2);
+
+        // Act
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.CANCELLED);
+
+        // Assert
+        List<OutboxEvent> orderEvents = awaitEvents(OutboxService.ORDER, orderId, 2);
+        assertThat(orderEvents).extracting(OutboxEvent::getEventType)
+            .containsExactly("OrderCreated", "OrderStatusChanged");
+        assertThat(payload(orderEvents.get(0)).get("items").get(0).get("quantity").asInt()).isEqualTo(2);
+        assertThat(payload(orderEvents.get(1)).get("to").asText()).isEqualTo("CANCELLED");
+
+        List<OutboxEvent> stockEvents = awaitEvents(OutboxService.PRODUCT, product.getId(), 2);
+        assertThat(stockEvents).extracting(e -> payload(e).get("delta").asInt()).containsExactly(-2, 2);
+        assertThat(payload(stockEvents.get(1)).get("stockQuantity").asInt()).isEqualTo(10);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testFailedDeliveryIsRetried() throws Exception {
+        // Arrange
+        sink.failNext(2);
+
+        // Act
+        Long orderId = placeOrder(1);
+
+        // Assert
+        List<OutboxEvent> orderEvents = awaitEvents(OutboxService.ORDER, orderId, 1);
+        assertThat(orderEvents.get(0).getEventType()).isEqualTo("OrderCreated");
+    }
+
+    @Test
+    public void testEventsCannotBeWrittenOutsideATransaction() {
+        // Act / Assert
+        assertThatThrownBy(() -> outboxService.stockChanged(product.getId(), 1, 11))
+            .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    private Long placeOrder(int quantity) throws Exception {
+        String request = objectMapper.writeValueAsString(Map.of(
+            "shippingAddress", "1 Test Street",
+            "paymentMethod", "Cash",
+            "totalAmount", product.getPrice().multiply(BigDecimal.valueOf(quantity)),
+            "items", List.of(Map.of("product", Map.of("id", product.getId()), "quantity", quantity))));
+        String body = mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private List<OutboxEvent> awaitEvents(String aggregateType, Long aggregateId, int expected) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<OutboxEvent> events = sink.eventsFor(aggregateType, aggregateId);
+            if (events.size() >= expected) {
+                return events;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Expected " + expected + " events for " + aggregateType + " " + aggregateId
+            + ", got " + sink.eventsFor(aggregateType, aggregateId));
+    }
+
+    private JsonNode payload(OutboxEvent event) {
+        try {
+            return objectMapper.readTree(event.getPayload());
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
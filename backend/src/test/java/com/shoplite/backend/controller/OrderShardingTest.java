@@ -0,0 +1,278 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shoplite.backend.config.OrderShards;
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.SalesDailyProductRepository;
+import com.shoplite.backend.service.OrderExportService;
+import com.shoplite.backend.service.OrderService;
+import com.shoplite.backend.service.SalesRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Three embedded H2 databases serve as the order shards.
+ */
+@TestPropertySource(properties = {
+    "orders.shards.urls=jdbc:h2:mem:orders_shard0;DB_CLOSE_DELAY=-1,"
+        + "jdbc:h2:mem:orders_shard1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:orders_shard2;DB_CLOSE_DELAY=-1",
+    "orders.shards.username=sa",
+    "orders.shards.initialize-schema=true",
+    // Small pages, so resharding takes several
+    "orders.shards.reshard-batch=2"
+})
+public class OrderShardingTest extends OrderTestSupport {
+
+    private static final int USERS = 4;
+
+    @Autowired
+    private OrderShards orderShards;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SalesDailyProductRepository salesDailyProductRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            users.add(createUser("sharded-" + i + "@example.com"));
+        }
+        product = createProduct("Sharded Teapot", "12.50", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (OrderShards.Shard shard : orderShards.all()) {
+            shard.jdbcTemplate().update("DELETE FROM order_items");
+            shard.jdbcTemplate().update("DELETE FROM orders");
+        }
+    }
+
+    @Test
+    public void testOrdersLiveOnTheirUsersShard() throws Exception {
+        // Arrange
+        List<Order> placed = new ArrayList<>();
+        for (User user : users) {
+            placed.add(placeOrder(user, 1));
+            placed.add(placeOrder(user, 2));
+        }
+
+        // Assert: each order is on its user's shard only, and none on the primary
+        for (Order order : placed) {
+            int home = OrderShards.shardOf(order.getUser().getId(), orderShards.count());
+            for (OrderShards.Shard shard : orderShards.all()) {
+                assertThat(countOrders(shard.jdbcTemplate(), order.getId())).isEqualTo(shard.index() == home ? 1 : 0);
+            }
+        }
+        users.forEach(user -> assertThat(orderRepository.findByUser(user)).isEmpty());
+
+        // A user's history comes from their shard, with products attached
+        User first = users.get(0);
+        List<Order> history = orderService.findByUser(first);
+        assertThat(history).hasSize(2);
+        assertThat(history.get(0).getItems()).extracting(item -> item.getProduct().getName()).containsExactly("Sharded Teapot");
+
+        Map<String, Object> page = orderService.findPageByUser(first, null, 1);
+        assertThat((List<?>) page.get("orders")).hasSize(1);
+        Map<String, Object> next = orderService.findPageByUser(first, (String) page.get("nextCursor"), 1);
+        assertThat((List<?>) next.get("orders")).hasSize(1);
+        assertThat(next.get("nextCursor")).isNull();
+
+        // Lookups by id and admin listings gather every shard
+        Order last = placed.get(placed.size() - 1);
+        assertThat(orderService.findById(last.getId())).get()
+            .extracting(order -> order.getUser().getEmail()).isEqualTo("sharded-3@example.com");
+        assertThat(orderService.findAll()).extracting(Order::getId)
+            .containsAll(placed.stream().map(Order::getId).toList()).isSorted();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.export(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1),
+            OrderExportService.Format.NDJSON, out);
+        List<Long> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode record = objectMapper.readTree(line);
+            if (record.get("userEmail").asText().startsWith("sharded-")) {
+                exported.add(record.get("id").asLong());
+            }
+        }
+        assertThat(exported).hasSize(placed.size()).isSorted();
+
+        // Cancelling updates the shard and returns the stock on the primary
+        orderService.updateOrderStatus(last.getId(), Order.OrderStatus.CANCELLED);
+        assertThat(orderService.findById(last.getId())).get()
+            .extracting(Order::getStatus).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(100 - 12 + 2);
+
+        // Rebuilt rollups sum every shard's orders
+        salesRollupService.rebuild(LocalDate.now(), LocalDate.now());
+        assertThat(salesDailyProductRepository.findAll()).filteredOn(row ->
+                row.getDay().equals(LocalDate.now()) && row.getProductId().equals(product.getId()))
+            .singleElement()
+            .satisfies(row -> {
+                assertThat(row.getOrders()).isEqualTo(placed.size() - 1);
+                assertThat(row.getUnits()).isEqualTo(12 - 2);
+            });
+    }
+
+    @Test
+    public void testRolledBackCheckoutLeavesNoOrderOnTheShard() {
+        // Act
+        Order order = transactionTemplate.execute(status -> {
+            Order placed = placeOrder(users.get(0), 3);
+            status.setRollbackOnly();
+            return placed;
+        });
+
+        // Assert
+        assertThat(orderService.findById(order.getId())).isEmpty();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testReshardMovesOrdersToTheirUsersShard() throws Exception {
+        // Arrange: orders kept on the primary from before sharding...
+        List<Order> legacy = new ArrayList<>();
+        for (User user : users) {
+            legacy.add(saveOnPrimary(user, Order.OrderStatus.DELIVERED));
+        }
+        // ...and one on a shard that is not its user's, as after adding shards
+        long misplaced = 9_000_001L;
+        int home = OrderShards.shardOf(users.get(1).getId(), orderShards.count());
+        JdbcTemplate homeShard = orderShards.get(home).jdbcTemplate();
+        JdbcTemplate otherShard = orderShards.get((home + 1) % orderShards.count()).jdbcTemplate();
+        otherShard.update("INSERT INTO orders (id, user_id, status, total_amount, created_at, updated_at) "
+            + "VALUES (?, ?, 'PENDING', 12.50, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", misplaced, users.get(1).getId());
+        otherShard.update("INSERT INTO order_items (id, order_id, product_id, quantity, price_at_purchase) "
+            + "VALUES (?, ?, ?, 1, 12.50)", misplaced, misplaced, product.getId());
+
+        // Act
+        JsonNode result = reshard();
+
+        // Assert
+        assertThat(result.get("moved").asLong()).isEqualTo(USERS + 1);
+        users.forEach(user -> assertThat(orderRepository.findByUser(user)).isEmpty());
+        assertThat(countOrders(homeShard, misplaced)).isEqualTo(1);
+        assertThat(countOrders(otherShard, misplaced)).isZero();
+        for (Order order : legacy) {
+            Order moved = orderService.findById(order.getId()).orElseThrow();
+            assertThat(moved.getItems()).extracting(OrderItem::getQuantity).containsExactly(1);
+            int shard = OrderShards.shardOf(order.getUser().getId(), orderShards.count());
+            assertThat(countOrders(orderShards.get(shard).jdbcTemplate(), order.getId())).isEqualTo(1);
+        }
+
+        // Nothing is left to move
+        assertThat(reshard().get("moved").asLong()).isZero();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testOrdersFromBeforeShardingStayVisibleUntilResharded() throws Exception {
+        // Arrange: orders kept on the primary from before sharding, and one placed since
+        User user = users.get(2);
+        Order legacy = saveOnPrimary(user, Order.OrderStatus.PENDING);
+        Order delivered = saveOnPrimary(users.get(3), Order.OrderStatus.DELIVERED);
+        Order sharded = placeOrder(user, 2);
+
+        // Act / Assert: reads find them next to the sharded orders
+        assertThat(orderService.findById(legacy.getId())).get()
+            .satisfies(order -> assertThat(order.getItems()).extracting(item -> item.getProduct().getName())
+                .containsExactly("Sharded Teapot"));
+        assertThat(orderService.findByUser(user)).extracting(Order::getId)
+            .containsExactly(sharded.getId(), legacy.getId());
+        assertThat(orderService.findAll()).extracting(Order::getId)
+            .contains(legacy.getId(), delivered.getId(), sharded.getId()).isSorted();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.export(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1),
+            OrderExportService.Format.NDJSON, out);
+        List<Long> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode record = objectMapper.readTree(line);
+            if (record.get("userEmail").asText().startsWith("sharded-")) {
+                exported.add(record.get("id").asLong());
+            }
+        }
+        assertThat(exported).containsExactlyInAnyOrder(legacy.getId(), delivered.getId(), sharded.getId()).isSorted();
+
+        // A status change goes to the primary, where the order is
+        orderService.updateOrderStatus(legacy.getId(), Order.OrderStatus.CANCELLED);
+        assertThat(orderRepository.findById(legacy.getId())).get()
+            .extracting(Order::getStatus).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(100 - 2 + 1);
+
+        // Once resharded, they are read from the user's shard alone
+        reshard();
+        assertThat(orderService.findByUser(user)).extracting(Order::getId)
+            .containsExactly(sharded.getId(), legacy.getId());
+        assertThat(orderRepository.findById(legacy.getId())).isEmpty();
+    }
+
+    private JsonNode reshard() throws Exception {
+        String body = mockMvc.perform(post("/api/orders/reshard").param("fromPrimary", "true"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Order saveOnPrimary(User user, Order.OrderStatus status) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(status);
+        order.setTotalAmount(new BigDecimal("12.50"));
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(1);
+        item.setPriceAtPurchase(new BigDecimal("12.50"));
+        order.getItems().add(item);
+        return orderRepository.save(order);
+    }
+
+    private Order placeOrder(User user, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return orderService.createOrder(user, new ArrayList<>(List.of(item)), "1 Shard Street", "CARD", null);
+    }
+
+    private static int countOrders(JdbcTemplate shard, Long orderId) {
+        return shard.queryForObject("SELECT COUNT(*) FROM orders WHERE id = ?", Integer.class, orderId);
+    }
+}
@@ -0,0 +1,156 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shoplite.backend.model.Category;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.Role;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.CartRepository;
+import com.shoplite.backend.repository.OrderIntakeJobRepository;
+import com.shoplite.backend.repository.OrderItemRepository;
+import com.shoplite.backend.repository.OrderRepository;
+import com.shoplite.backend.repository.OrderSummaryRepository;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.repository.RoleRepository;
+import com.shoplite.backend.repository.UserRepository;
+import com.shoplite.backend.service.CategoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Base of the order integration tests: users with ROLE_USER, products and
+ * categories made through it are deleted after each test, the users' orders
+ * and carts first.
+ *
+ * Tests that need nothing beyond these properties share one cached
+ * application context; a test that must run in another mode adds its
+ * properties with {@code @TestPropertySource}, which override these.
+ */
+@SpringBootTest(properties = {
+    "stripe.api.key=test",
+    "outbox.relay.enabled=false",
+    // Jobs the tests run themselves
+    "stats.fold-ms=3600000",
+    "orders.archive.cron=-",
+    "orders.archive.after-days=90",
+    // Small batches, so archiving takes several
+    "orders.archive.batch-size=2",
+    "reservations.sweep-ms=3600000",
+    "reservations.reconcile-ms=3600000",
+    "product-stats.flush-ms=3600000",
+    "invalidation.batch-ms=3600000",
+    // Flush often, so writes and reconciliation run while buyers are still coming in
+    "flash-sale.flush-ms=20",
+    // Small chunks, so a handful of products already spans several statements
+    "products.bulk-chunk-size=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+abstract class OrderTestSupport {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected RoleRepository roleRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected CategoryService categoryService;
+
+    @Autowired
+    protected OrderRepository orderRepository;
+
+    @Autowired
+    protected OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private OrderIntakeJobRepository orderIntakeJobRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+
+    @AfterEach
+    void deleteFixture() {
+        deleteOrders();
+        users.forEach(user -> cartRepository.findByUser(user).ifPresent(cartRepository::delete));
+        products.forEach(productRepository::delete);
+        categories.forEach(category -> categoryService.deleteById(category.getId()));
+        users.forEach(userRepository::delete);
+        products.clear();
+        categories.clear();
+        users.clear();
+    }
+
+    protected User createUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_USER).orElseThrow()));
+        user = userRepository.save(user);
+        users.add(user);
+        return user;
+    }
+
+    protected Product createProduct(String name, String price, int stock) {
+        return createProduct(name, price, stock, null);
+    }
+
+    protected Product createProduct(String name, String price, int stock, Category category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(stock);
+        product.setCategory(category);
+        product = productRepository.save(product);
+        products.add(product);
+        return product;
+    }
+
+    protected Category createCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        category = categoryService.save(category);
+        categories.add(category);
+        return category;
+    }
+
+    /**
+     * Delete the orders of the users made here, with their items, summaries
+     * and intake jobs. Also done after each test.
+     */
+    protected void deleteOrders() {
+        for (User user : users) {
+            orderRepository.findByUser(user).forEach(order -> {
+                orderIntakeJobRepository.findByOrderId(order.getId()).ifPresent(orderIntakeJobRepository::delete);
+                orderSummaryRepository.findById(order.getId()).ifPresent(orderSummaryRepository::delete);
+                orderItemRepository.deleteAll(orderItemRepository.findByOrder(order));
+                orderRepository.delete(order);
+            });
+        }
+    }
+}
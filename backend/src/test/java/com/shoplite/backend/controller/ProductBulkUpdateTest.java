@@ -0,0 +1,141 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shoplite.backend.model.Category;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.repository.OutboxEventRepository;
+import com.shoplite.backend.service.FlashSaleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ProductBulkUpdateTest extends OrderTestSupport {
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private Category category;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        category = createCategory("Bulk Lamps");
+        products.add(createProduct("Desk Lamp", "10.00", 10, category));
+        products.add(createProduct("Floor Lamp", "19.99", 10, category));
+        products.add(createProduct("Wall Lamp", "0.50", 10, category));
+        products.add(createProduct("Unrelated Rug", "40.00", 10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (flashSaleService.isActive(products.get(0).getId())) {
+            flashSaleService.stop(products.get(0).getId());
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testRepriceCategoryInChunksWithOneEvent() throws Exception {
+        // Arrange
+        long events = bulkEvents();
+
+        // Act
+        JsonNode result = bulk(Map.of("categoryId", category.getId(), "pricePercent", 10));
+
+        // Assert
+        assertThat(result.get("updated").asInt()).isEqualTo(3);
+        assertThat(result.get("chunks").asInt()).isEqualTo(2);
+        assertThat(price(0)).isEqualByComparingTo("11.00");
+        assertThat(price(1)).isEqualByComparingTo("21.99");
+        assertThat(price(2)).isEqualByComparingTo("0.55");
+        assertThat(price(3)).isEqualByComparingTo("40.00");
+        assertThat(bulkEvents()).isEqualTo(events + 1);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testApplyListReportsMissingProducts() throws Exception {
+        // Arrange
+        long events = bulkEvents();
+
+        // Act
+        JsonNode result = bulk(Map.of("items", List.of(
+            Map.of("id", products.get(0).getId(), "price", "12.50"),
+            Map.of("id", products.get(1).getId(), "stockQuantity", 0),
+            Map.of("id", -1, "stockQuantity", 3),
+            Map.of("id", products.get(3).getId(), "price", "35.00", "stockQuantity", 7))));
+
+        // Assert
+        assertThat(result.get("updated").asInt()).isEqualTo(3);
+        assertThat(result.get("chunks").asInt()).isEqualTo(2);
+        assertThat(result.get("missing")).hasSize(1);
+        assertThat(result.get("missing").get(0).asLong()).isEqualTo(-1);
+        assertThat(price(0)).isEqualByComparingTo("12.50");
+        assertThat(productRepository.findStockQuantityById(products.get(0).getId())).isEqualTo(10);
+        assertThat(price(1)).isEqualByComparingTo("19.99");
+        assertThat(productRepository.findStockQuantityById(products.get(1).getId())).isZero();
+        assertThat(price(3)).isEqualByComparingTo("35.00");
+        assertThat(productRepository.findStockQuantityById(products.get(3).getId())).isEqualTo(7);
+        assertThat(bulkEvents()).isEqualTo(events + 1);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testRejectsInvalidChanges() throws Exception {
+        // Duplicate ids, negative values and stock of a product in a flash sale are refused as a whole
+        expectStatus(Map.of("items", List.of(
+            Map.of("id", products.get(0).getId(), "price", "1.00"),
+            Map.of("id", products.get(0).getId(), "price", "2.00"))), 400);
+        expectStatus(Map.of("items", List.of(Map.of("id", products.get(0).getId(), "stockQuantity", -1))), 400);
+        expectStatus(Map.of("categoryId", category.getId(), "pricePercent", -95), 400);
+
+        flashSaleService.start(products.get(0).getId());
+        expectStatus(Map.of("items", List.of(
+            Map.of("id", products.get(1).getId(), "price", "1.00"),
+            Map.of("id", products.get(0).getId(), "stockQuantity", 1))), 409);
+
+        assertThat(price(0)).isEqualByComparingTo("10.00");
+        assertThat(price(1)).isEqualByComparingTo("19.99");
+    }
+
+    private JsonNode bulk(Map<String, Object> request) throws Exception {
+        String body = mockMvc.perform(post("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private void expectStatus(Map<String, Object> request, int expectedStatus) throws Exception {
+        mockMvc.perform(post("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().is(expectedStatus));
+    }
+
+    private BigDecimal price(int index) {
+        return productRepository.findById(products.get(index).getId()).orElseThrow().getPrice();
+    }
+
+    private long bulkEvents() {
+        return outboxEventRepository.findAll().stream()
+            .filter(event -> "ProductsBulkUpdated".equals(event.getEventType()))
+            .count();
+    }
+}
@@ -0,0 +1,87 @@
+package com.shoplite.backend.controller;
+
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.StoredFile;
+import com.shoplite.backend.repository.StoredFileRepository;
+import com.shoplite.backend.service.FileStorageService;
+import com.shoplite.backend.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ProductImageReferenceTest extends OrderTestSupport {
+
+    private static final String OLD_SHA = "a".repeat(64);
+    private static final String NEW_SHA = "b".repeat(64);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        storedFile(OLD_SHA);
+        storedFile(NEW_SHA);
+        product = createProduct("Pictured Vase", "25.00", 3);
+        product.setImageUrl(url(OLD_SHA));
+        product = productService.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        storedFileRepository.deleteAllById(List.of(OLD_SHA, NEW_SHA));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testEditingTheImageMovesTheReference() throws Exception {
+        // Arrange
+        assertThat(refCount(OLD_SHA)).isEqualTo(1);
+        String request = objectMapper.writeValueAsString(Map.of(
+            "name", "Pictured Vase",
+            "price", "25.00",
+            "stockQuantity", 3,
+            "imageUrl", url(NEW_SHA)));
+
+        // Act
+        mockMvc.perform(put("/api/products/" + product.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isOk());
+
+        // Assert: the replaced image can be purged, the new one cannot
+        assertThat(refCount(OLD_SHA)).isZero();
+        assertThat(refCount(NEW_SHA)).isEqualTo(1);
+    }
+
+    private void storedFile(String sha256) {
+        StoredFile file = new StoredFile();
+        file.setSha256(sha256);
+        file.setStoragePath(sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256);
+        file.setContentType("image/png");
+        file.setSize(1L);
+        storedFileRepository.save(file);
+    }
+
+    private int refCount(String sha256) {
+        return storedFileRepository.findById(sha256).orElseThrow().getRefCount();
+    }
+
+    private static String url(String sha256) {
+        return FileStorageService.PUBLIC_PATH + sha256 + ".png";
+    }
+}
@@ -0,0 +1,72 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.ProductStats;
+import com.shoplite.backend.repository.ProductStatsRepository;
+import com.shoplite.backend.service.ProductCounterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ProductStatsTest extends OrderTestSupport {
+
+    @Autowired
+    private ProductCounterService productCounterService;
+
+    @Autowired
+    private ProductStatsRepository productStatsRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = createProduct("Counted Kettle", "30.00", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productStatsRepository.deleteById(product.getId());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testViewsAreFlushedInBatches() throws Exception {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/products/" + product.getId())).andExpect(status().isOk());
+        }
+        assertThat(productStatsRepository.findById(product.getId())).isEmpty();
+
+        // Act: the first flush inserts the row, the second adds to it
+        productCounterService.flush();
+        mockMvc.perform(get("/api/products/" + product.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/" + product.getId())).andExpect(status().isOk());
+        productCounterService.flush();
+        productCounterService.flush();
+
+        // Assert
+        ProductStats stats = productStatsRepository.findById(product.getId()).orElseThrow();
+        assertThat(stats.getViews()).isEqualTo(5);
+        assertThat(stats.getAddToCarts()).isZero();
+
+        String body = mockMvc.perform(get("/api/stats/products?limit=100"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        JsonNode entry = null;
+        for (JsonNode node : objectMapper.readTree(body)) {
+            if (node.get("productId").asLong() == product.getId()) {
+                entry = node;
+            }
+        }
+        assertThat(entry).isNotNull();
+        assertThat(entry.get("name").asText()).isEqualTo("Counted Kettle");
+        assertThat(entry.get("views").asLong()).isEqualTo(5);
+    }
+}
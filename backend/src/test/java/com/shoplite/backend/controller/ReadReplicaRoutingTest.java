@@ -0,0 +1,121 @@
+package com.shoplite.backend.controller;
+
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.service.OrderService;
+import com.shoplite.backend.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.TestSecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A second in-memory H2 database stands in for the replica. It gets the
+ * primary's schema but never its rows, as if replication lagged forever, so a
+ * read shows which database answered it.
+ */
+@TestPropertySource(properties = {
+    "replica.datasource.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+    "replica.datasource.username=sa",
+    "replica.sticky-ms=500"
+})
+public class ReadReplicaRoutingTest extends OrderTestSupport {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : new JdbcTemplate(primaryDataSource).queryForList("SCRIPT NODATA", String.class)) {
+            if (!statement.startsWith("CREATE USER")) {
+                replica.execute(statement);
+            }
+        }
+
+        product = createProduct("Replicated Lamp", "15.00", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestSecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testDeclaredReadOnlyWorkGoesToTheReplica() {
+        // Catalog reads are read-only transactions of the service
+        assertThat(productService.searchByName("Replicated Lamp")).isEmpty();
+        assertThat(productService.viewById(product.getId())).isEmpty();
+
+        // A repository call on its own, and anything read-write, stays on the primary
+        assertThat(productRepository.findByNameContainingIgnoreCase("Replicated Lamp")).hasSize(1);
+        assertThat(productService.findById(product.getId())).isPresent();
+    }
+
+    @Test
+    public void testUsersReadTheirOwnWritesForAWhile() throws Exception {
+        // Arrange
+        signIn("replica-alice@example.com");
+        product.setStockQuantity(9);
+        productService.save(product);
+
+        // Act / Assert: Alice's reads follow her write to the primary; Bob's still go to the replica
+        assertThat(productService.searchByName("Replicated Lamp")).extracting(Product::getStockQuantity).containsExactly(9);
+        signIn("replica-bob@example.com");
+        assertThat(productService.searchByName("Replicated Lamp")).isEmpty();
+
+        Thread.sleep(600);
+        signIn("replica-alice@example.com");
+        assertThat(productService.searchByName("Replicated Lamp")).isEmpty();
+    }
+
+    @Test
+    public void testRequestsRouteEachTransactionOnItsOwn() throws Exception {
+        // Arrange: an order on the primary, placed before its buyer signs in so their reads are not sticky
+        User user = createUser("replica-history@example.com");
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(1);
+        orderService.createOrder(user, List.of(item), "1 Test Street", "Cash", null);
+        TestSecurityContextHolder.setAuthentication(
+            new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+
+        // Act / Assert: the user is found on the primary, then the history is read from the replica
+        mockMvc.perform(get("/api/orders/user/history"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders.length()").value(0));
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+}
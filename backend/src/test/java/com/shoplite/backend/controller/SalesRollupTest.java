@@ -0,0 +1,168 @@
+package com.shoplite.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shoplite.backend.model.Category;
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.SalesDailyCategory;
+import com.shoplite.backend.model.SalesDailyProduct;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.SalesDailyCategoryRepository;
+import com.shoplite.backend.repository.SalesDailyProductRepository;
+import com.shoplite.backend.service.OrderService;
+import com.shoplite.backend.service.SalesRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SalesRollupTest extends OrderTestSupport {
+
+    private static final String EMAIL = "sales-rollup@example.com";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SalesDailyProductRepository salesDailyProductRepository;
+
+    @Autowired
+    private SalesDailyCategoryRepository salesDailyCategoryRepository;
+
+    private User user;
+    private Category category;
+    private Product lamp;
+    private Product chair;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser(EMAIL);
+        category = createCategory("Sales Rollup");
+        lamp = createProduct("Rollup Lamp", "12.50", 100, category);
+        chair = createProduct("Rollup Chair", "40.00", 100, category);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteOrders();
+        // Recompute today so the deleted orders do not linger in the rollups
+        salesRollupService.rebuild(LocalDate.now(), LocalDate.now());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testOrdersAndCancellationsUpdateTheRollups() throws Exception {
+        // Arrange
+        JsonNode before = salesStats();
+
+        // Act
+        orderService.createOrder(user, items(lamp, 2, chair, 1), "1 Test Street", "Cash", null);
+        Order cancelled = orderService.createOrder(user, items(lamp, 1), "1 Test Street", "Cash", null);
+        orderService.updateOrderStatus(cancelled.getId(), Order.OrderStatus.CANCELLED);
+
+        // Assert: checkouts leave the rollups alone until the deltas are folded
+        assertThat(salesStats().get("totals")).isEqualTo(before.get("totals"));
+        salesRollupService.foldDeltas();
+        JsonNode after = salesStats();
+        assertThat(after.get("totals").get("orders").asLong() - before.get("totals").get("orders").asLong()).isEqualTo(1);
+        assertThat(after.get("totals").get("units").asLong() - before.get("totals").get("units").asLong()).isEqualTo(3);
+        assertThat(after.get("totals").get("revenue").decimalValue().subtract(before.get("totals").get("revenue").decimalValue()))
+            .isEqualByComparingTo("65.00");
+
+        JsonNode lampStats = find(after.get("topProducts"), "productId", lamp.getId());
+        assertThat(lampStats.get("name").asText()).isEqualTo("Rollup Lamp");
+        assertThat(lampStats.get("orders").asLong()).isEqualTo(1);
+        assertThat(lampStats.get("units").asLong()).isEqualTo(2);
+        assertThat(lampStats.get("revenue").decimalValue()).isEqualByComparingTo("25.00");
+
+        JsonNode categoryStats = find(after.get("categories"), "categoryId", category.getId());
+        assertThat(categoryStats.get("name").asText()).isEqualTo("Sales Rollup");
+        assertThat(categoryStats.get("orders").asLong()).isEqualTo(1);
+        assertThat(categoryStats.get("units").asLong()).isEqualTo(3);
+        assertThat(categoryStats.get("revenue").decimalValue()).isEqualByComparingTo("65.00");
+    }
+
+    @Test
+    public void testRebuildMatchesIncrementalRollups() {
+        // Arrange
+        orderService.createOrder(user, items(lamp, 3), "1 Test Street", "Cash", null);
+        Order reopened = orderService.createOrder(user, items(lamp, 1, chair, 2), "1 Test Street", "Cash", null);
+        orderService.updateOrderStatus(reopened.getId(), Order.OrderStatus.CANCELLED);
+        orderService.updateOrderStatus(reopened.getId(), Order.OrderStatus.PROCESSING);
+        salesRollupService.foldDeltas();
+        List<String> incremental = rollupRows();
+
+        // Act
+        salesRollupService.rebuild(LocalDate.now(), LocalDate.now());
+
+        // Assert
+        assertThat(rollupRows()).containsExactlyInAnyOrderElementsOf(incremental)
+            .contains("product " + lamp.getId() + ": 2 orders, 4 units, 50.00",
+                      "category " + category.getId() + ": 2 orders, 6 units, 130.00");
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testSalesStatsRequireAdmin() throws Exception {
+        // Act / Assert
+        mockMvc.perform(get("/api/stats/sales"))
+                .andExpect(status().isForbidden());
+    }
+
+    private JsonNode salesStats() throws Exception {
+        String body = mockMvc.perform(get("/api/stats/sales").param("top", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static JsonNode find(JsonNode rows, String key, Long id) {
+        for (JsonNode row : rows) {
+            if (row.get(key).asLong() == id) {
+                return row;
+            }
+        }
+        throw new AssertionError("No " + key + " " + id + " in " + rows);
+    }
+
+    private List<String> rollupRows() {
+        List<String> rows = new ArrayList<>();
+        for (SalesDailyProduct row : salesDailyProductRepository.findAll()) {
+            if (row.getDay().equals(LocalDate.now()) && (row.getProductId().equals(lamp.getId()) || row.getProductId().equals(chair.getId()))) {
+                rows.add("product " + row.getProductId() + ": " + row.getOrders() + " orders, " + row.getUnits() + " units, "
+                    + row.getRevenue().setScale(2));
+            }
+        }
+        for (SalesDailyCategory row : salesDailyCategoryRepository.findAll()) {
+            if (row.getDay().equals(LocalDate.now()) && row.getCategoryId().equals(category.getId())) {
+                rows.add("category " + row.getCategoryId() + ": " + row.getOrders() + " orders, " + row.getUnits() + " units, "
+                    + row.getRevenue().setScale(2));
+            }
+        }
+        return rows;
+    }
+
+    private static List<OrderItem> items(Object... productsAndQuantities) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < productsAndQuantities.length; i += 2) {
+            OrderItem item = new OrderItem();
+            item.setProduct((Product) productsAndQuantities[i]);
+            item.setQuantity((Integer) productsAndQuantities[i + 1]);
+            items.add(item);
+        }
+        return items;
+    }
+}
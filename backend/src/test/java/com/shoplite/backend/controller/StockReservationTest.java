@@ -0,0 +1,243 @@
+package com.shoplite.backend.controller;
+
+import com.shoplite.backend.model.Order;
+import com.shoplite.backend.model.OrderItem;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.model.User;
+import com.shoplite.backend.repository.OrderIntakeJobRepository;
+import com.shoplite.backend.repository.StockReservationRepository;
+import com.shoplite.backend.repository.StockShardRepository;
+import com.shoplite.backend.service.CartService;
+import com.shoplite.backend.service.FlashSaleService;
+import com.shoplite.backend.service.OrderDraft;
+import com.shoplite.backend.service.OrderIntakeService;
+import com.shoplite.backend.service.OrderService;
+import com.shoplite.backend.service.OutOfStockException;
+import com.shoplite.backend.service.StockReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StockReservationTest extends OrderTestSupport {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderIntakeJobRepository orderIntakeJobRepository;
+
+    @Autowired
+    private StockShardRepository stockShardRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = createProduct("Reserved Lamp", "20.00", 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            stockReservationRepository.deleteByProductId(product.getId());
+            stockShardRepository.deleteByProductId(product.getId());
+        });
+    }
+
+    @Test
+    public void testCartsHoldUnitsUntilCheckoutOrExpiry() {
+        // Arrange
+        User alice = createUser("reservations-alice@example.com");
+        User bob = createUser("reservations-bob@example.com");
+
+        // Act / Assert: holds are exclusive
+        cartService.addToCart(alice, product.getId(), 3);
+        assertThat(available()).isEqualTo(2);
+        assertThatThrownBy(() -> cartService.addToCart(bob, product.getId(), 3))
+            .isInstanceOf(OutOfStockException.class)
+            .hasMessage("Not enough stock available for: Reserved Lamp");
+        cartService.addToCart(bob, product.getId(), 2);
+        assertThat(available()).isZero();
+
+        // Checkout sells Alice's hold; Bob's hold cannot be bought by anyone else
+        orderService.createOrder(alice, List.of(item(3)), "1 Test Street", "Cash", null);
+        assertThat(productRepository.findStockQuantityById(product.getId())).isEqualTo(2);
+        assertThatThrownBy(() -> orderService.createOrder(alice, List.of(item(1)), "1 Test Street", "Cash", null))
+            .isInstanceOf(OutOfStockException.class);
+
+        // Lowering a cart line gives units back, and an expired hold is released
+        cartService.updateCartItemQuantity(bob, product.getId(), 1);
+        assertThat(available()).isEqualTo(1);
+        assertThat(stockReservationService.releaseExpiredBefore(LocalDateTime.now().plusDays(1))).isEqualTo(1);
+        assertThat(available()).isEqualTo(2);
+        assertThat(stockReservationRepository.sumQuantity(product.getId())).isZero();
+    }
+
+    @Test
+    public void testConcurrentReservationsNeverPromiseMoreThanTheStock() throws Exception {
+        // Arrange: more carts than units, so shards run dry and reservations have to gather from several
+        int clients = 12;
+        List<User> buyers = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            buyers.add(createUser("reservations-" + i + "@example.com"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (User buyer : buyers) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    // As CartController does
+                    stockReservationService.prepare(product.getId());
+                    cartService.addToCart(buyer, product.getId(), 1);
+                    return true;
+                } catch (OutOfStockException e) {
+                    return false;
+                }
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int held = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                held++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(held).isEqualTo(5);
+        assertThat(available()).isZero();
+        assertThat(stockReservationRepository.sumQuantity(product.getId())).isEqualTo(5);
+    }
+
+    @Test
+    public void testReconcilePicksUpStockChangedElsewhere() {
+        // Arrange
+        User alice = createUser("reservations-carol@example.com");
+        cartService.addToCart(alice, product.getId(), 2);
+
+        // Act: stock written around the reservations, as the intake worker or a flash sale does
+        transactionTemplate.executeWithoutResult(status -> productRepository.adjustStock(product.getId(), 4));
+        stockReservationService.reconcile();
+
+        // Assert
+        assertThat(available()).isEqualTo(7);
+        assertThat(stockShardRepository.findAll())
+            .filteredOn(shard -> shard.getProductId().equals(product.getId()))
+            .hasSize(8)
+            .allSatisfy(shard -> assertThat(shard.getAvailable()).isBetween(0, 1));
+    }
+
+    @Test
+    public void testFlashSaleCheckoutEndsTheCartHold() {
+        // Arrange
+        User alice = createUser("reservations-dave@example.com");
+        cartService.addToCart(alice, product.getId(), 3);
+        flashSaleService.start(product.getId());
+
+        // Act: the sale sells two of the three held units
+        try {
+            orderService.createOrder(alice, List.of(item(2)), "1 Test Street", "Cash", null);
+            flashSaleService.flush();
+        } finally {
+            flashSaleService.stop(product.getId());
+        }
+        stockReservationService.reconcile();
+
+        // Assert: the unsold unit stays held, and nothing else is kept from other buyers
+        assertThat(productRepository.findStockQuantityById(product.getId())).isEqualTo(3);
+        assertThat(stockReservationRepository.sumQuantity(product.getId())).isEqualTo(1);
+        assertThat(available()).isEqualTo(2);
+    }
+
+    @Test
+    public void testBatchedCheckoutSellsTheCartHold() {
+        // Arrange
+        User alice = createUser("reservations-erin@example.com");
+        User bob = createUser("reservations-frank@example.com");
+        User carol = createUser("reservations-grace@example.com");
+        cartService.addToCart(alice, product.getId(), 3);
+        cartService.addToCart(bob, product.getId(), 2);
+
+        // Act: one batch, as OrderBatchWriter writes it
+        List<OrderService.DraftResult> results = orderService.createOrders(List.of(
+            new OrderDraft(alice, List.of(item(3)), "1 Test Street", "Cash", null),
+            new OrderDraft(carol, List.of(item(1)), "1 Test Street", "Cash", null)));
+
+        // Assert: Alice buys her hold, Carol cannot buy Bob's, and the batch still commits
+        assertThat(results.get(0).error()).isNull();
+        assertThat(results.get(1).error()).isInstanceOf(OutOfStockException.class);
+        assertThat(productRepository.findStockQuantityById(product.getId())).isEqualTo(2);
+        assertThat(stockReservationRepository.sumQuantity(product.getId())).isEqualTo(2);
+        assertThat(available()).isZero();
+    }
+
+    @Test
+    public void testAsyncAllocationSellsTheCartHold() {
+        // Arrange
+        User alice = createUser("reservations-heidi@example.com");
+        User bob = createUser("reservations-ivan@example.com");
+        User carol = createUser("reservations-judy@example.com");
+        cartService.addToCart(alice, product.getId(), 3);
+        cartService.addToCart(bob, product.getId(), 2);
+        Order aliceOrder = orderIntakeService.accept(alice, List.of(item(3)), "1 Test Street", "Cash", null);
+        Order carolOrder = orderIntakeService.accept(carol, List.of(item(1)), "1 Test Street", "Cash", null);
+
+        // Act: the intake worker allocates each order in turn
+        orderIntakeService.allocate(orderIntakeJobRepository.findByOrderId(aliceOrder.getId()).orElseThrow().getId());
+        Long carolJob = orderIntakeJobRepository.findByOrderId(carolOrder.getId()).orElseThrow().getId();
+
+        // Assert: Alice buys her hold, and Bob's hold cannot be allocated to Carol
+        assertThatThrownBy(() -> orderIntakeService.allocate(carolJob))
+            .isInstanceOf(OutOfStockException.class);
+        assertThat(productRepository.findStockQuantityById(product.getId())).isEqualTo(2);
+        assertThat(stockReservationRepository.sumQuantity(product.getId())).isEqualTo(2);
+        assertThat(available()).isZero();
+    }
+
+    private long available() {
+        return (Long) stockReservationService.getAvailability(product.getId(), 0).get("available");
+    }
+
+    private OrderItem item(int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,66 @@
+package com.shoplite.backend.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latencies and error count for one step of the user flow.
+ */
+class StepStats {
+
+    private final String name;
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private int errors;
+
+    StepStats(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long nanos, boolean success) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    synchronized int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Summary for the report; throughput is over the whole run's wall-clock time.
+     */
+    synchronized Map<String, Object> summarize(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("step", name);
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("errorRate", count == 0 ? 0.0 : (double) errors / count);
+        summary.put("throughputPerSec", count / elapsedSeconds);
+        summary.put("p50Ms", percentileMillis(sorted, 0.50));
+        summary.put("p90Ms", percentileMillis(sorted, 0.90));
+        summary.put("p99Ms", percentileMillis(sorted, 0.99));
+        summary.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+        return summary;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
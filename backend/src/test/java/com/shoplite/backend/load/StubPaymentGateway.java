@@ -0,0 +1,53 @@
+package com.shoplite.backend.load;
+
+import com.shoplite.backend.service.PaymentGateway;
+import com.shoplite.backend.service.PaymentIntentInfo;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for Stripe: succeeds after a fixed delay that approximates the
+ * provider round trip, so payment latency still occupies a request thread.
+ */
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, PaymentIntentInfo> intents = new ConcurrentHashMap<>();
+    private final long latencyMillis;
+
+    public StubPaymentGateway(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public PaymentIntentInfo createPaymentIntent(long amount, String currency) {
+        simulateLatency();
+        String id = "pi_stub_" + sequence.incrementAndGet();
+        PaymentIntentInfo intent = new PaymentIntentInfo(id, id + "_secret", "succeeded", amount, currency);
+        intents.put(id, intent);
+        return intent;
+    }
+
+    @Override
+    public PaymentIntentInfo retrievePaymentIntent(String paymentIntentId) {
+        simulateLatency();
+        PaymentIntentInfo intent = intents.get(paymentIntentId);
+        if (intent == null) {
+            throw new RuntimeException("No such payment intent: " + paymentIntentId);
+        }
+        return intent;
+    }
+
+    private void simulateLatency() {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
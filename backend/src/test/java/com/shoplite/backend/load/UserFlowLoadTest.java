@@ -0,0 +1,254 @@
+package com.shoplite.backend.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shoplite.backend.model.Category;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.repository.CategoryRepository;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.service.PaymentGateway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load harness: boots the app on H2 with a seeded catalog and replays the
+ * register, login, browse, cart, payment and order flow from many concurrent
+ * virtual users over real HTTP. Reports throughput, latency percentiles and
+ * error rate per step, and fails if the error rate exceeds the budget.
+ *
+ * Excluded from the normal build; run with {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "payment.gateway=stub",
+    "security.bcrypt.strength=4",
+    "jwt.secret=loadTestSecretKeyThatIsLongEnoughForHmacSha256",
+    "spring.jpa.show-sql=false",
+    "file.upload.migrate-legacy=false",
+    "logging.level.root=WARN",
+    "logging.level.com.shoplite=WARN",
+    "logging.level.org.springframework.security=WARN"
+})
+class UserFlowLoadTest {
+
+    private static final String[] STEPS = {
+        "register", "login", "browse", "product", "addToCart", "viewCart", "paymentIntent", "createOrder", "clearCart"
+    };
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${orders.intake-mode:sync}")
+    private String intakeMode;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, StepStats> stats = new LinkedHashMap<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private HttpClient httpClient;
+
+    @TestConfiguration
+    static class StubPaymentConfig {
+        @Bean
+        PaymentGateway paymentGateway(@Value("${load.payment-latency-ms:50}") long latencyMillis) {
+            return new StubPaymentGateway(latencyMillis);
+        }
+    }
+
+    @Test
+    void replayUserFlow() throws Exception {
+        int users = Integer.getInteger("load.users", 200);
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+        seedCatalog(Integer.getInteger("load.products", 100));
+
+        for (String step : STEPS) {
+            stats.put(step, new StepStats(step));
+        }
+        httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+        // Launch every virtual user at once; each flow is an async chain, so
+        // thousands of users do not need thousands of client threads
+        AtomicInteger completedFlows = new AtomicInteger();
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> flows = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            flows.add(runUserFlow(i).thenRun(completedFlows::incrementAndGet).exceptionally(e -> null));
+        }
+        CompletableFuture.allOf(flows.toArray(new CompletableFuture[0])).join();
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Map<String, Object> report = report(users, completedFlows.get(), elapsedSeconds);
+        File reportFile = new File(System.getProperty("load.report", "target/load-test-report.json"));
+        reportFile.getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+
+        int requests = stats.values().stream().mapToInt(StepStats::getCount).sum();
+        int errors = stats.values().stream().mapToInt(StepStats::getErrors).sum();
+        assertThat((double) errors / Math.max(1, requests)).isLessThanOrEqualTo(maxErrorRate);
+        assertThat(completedFlows.get()).isGreaterThanOrEqualTo((int) (users * (1 - maxErrorRate)));
+    }
+
+    private CompletableFuture<HttpResponse<String>> runUserFlow(int userIndex) {
+        String email = "load-user-" + userIndex + "@example.com";
+        String password = "password" + userIndex;
+        String[] token = new String[1];
+        long productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+
+        return step("register", 201, post("/api/auth/register", Map.of(
+                "email", email, "password", password, "firstName", "Load", "lastName", "User " + userIndex), null))
+            .thenCompose(r -> step("login", 200, post("/api/auth/login", Map.of("email", email, "password", password), null)))
+            .thenCompose(r -> {
+                token[0] = readJson(r).get("token").asText();
+                return step("browse", 200, get("/api/products", null));
+            })
+            .thenCompose(r -> step("product", 200, get("/api/products/" + productId, null)))
+            .thenCompose(r -> step("addToCart", 200, post("/api/cart/items", Map.of("productId", productId, "quantity", 1), token[0])))
+            .thenCompose(r -> step("viewCart", 200, get("/api/cart", token[0])))
+            .thenCompose(r -> {
+                BigDecimal total = new BigDecimal(readJson(r).get("totalAmount").asText());
+                long cents = total.movePointRight(2).longValueExact();
+                return step("paymentIntent", 200, post("/api/payments/create-payment-intent", Map.of("amount", cents), token[0]))
+                    .thenCompose(p -> {
+                        Map<String, Object> order = new LinkedHashMap<>();
+                        order.put("shippingAddress", "1 Load Test Way");
+                        order.put("paymentMethod", "Credit Card");
+                        order.put("paymentIntentId", readJson(p).get("paymentIntentId").asText());
+                        order.put("totalAmount", total);
+                        order.put("items", List.of(Map.of("product", Map.of("id", productId), "quantity", 1)));
+                        // Async intake answers 202 and allocates stock in the background
+                        int expected = "async".equalsIgnoreCase(intakeMode) ? 202 : 201;
+                        return step("createOrder", expected, post("/api/orders", order, token[0]));
+                    });
+            })
+            .thenCompose(r -> step("clearCart", 204, delete("/api/cart", token[0])));
+    }
+
+    /**
+     * Send one request and record its latency; a wrong status aborts the rest of the flow.
+     */
+    private CompletableFuture<HttpResponse<String>> step(String name, int expectedStatus, HttpRequest request) {
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .handle((response, error) -> {
+                boolean success = error == null && response.statusCode() == expectedStatus;
+                stats.get(name).record(System.nanoTime() - start, success);
+                if (!success) {
+                    throw new CompletionException(new IllegalStateException(name + " failed: "
+                        + (error != null ? error : response.statusCode() + " " + response.body())));
+                }
+                return response;
+            });
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest delete(String path, String token) {
+        return request(path, token).DELETE().build();
+    }
+
+    private HttpRequest post(String path, Object body, String token) {
+        try {
+            return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .timeout(Duration.ofSeconds(120));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private JsonNode readJson(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void seedCatalog(int productCount) {
+        Category category = new Category();
+        category.setName("Load Test");
+        category = categoryRepository.save(category);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setName("Load Product " + i);
+            product.setDescription("Seeded for the load test");
+            product.setPrice(new BigDecimal("19.99"));
+            product.setStockQuantity(1_000_000);
+            product.setCategory(category);
+            products.add(product);
+        }
+        productRepository.saveAll(products).forEach(p -> productIds.add(p.getId()));
+    }
+
+    private Map<String, Object> report(int users, int completedFlows, double elapsedSeconds) {
+        List<Map<String, Object>> steps = new ArrayList<>();
+        System.out.println();
+        System.out.printf("Load test (%s order intake): %d users, %d completed flows in %.1f s (%.1f flows/s)%n",
+            intakeMode, users, completedFlows, elapsedSeconds, completedFlows / elapsedSeconds);
+        System.out.printf("%-14s %9s %7s %10s %9s %9s %9s %9s%n",
+            "step", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (StepStats step : stats.values()) {
+            Map<String, Object> summary = step.summarize(elapsedSeconds);
+            steps.add(summary);
+            System.out.printf("%-14s %9d %7d %10.1f %9.1f %9.1f %9.1f %9.1f%n",
+                summary.get("step"), summary.get("requests"), summary.get("errors"), summary.get("throughputPerSec"),
+                summary.get("p50Ms"), summary.get("p90Ms"), summary.get("p99Ms"), summary.get("maxMs"));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("orderIntakeMode", intakeMode);
+        report.put("users", users);
+        report.put("completedFlows", completedFlows);
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("flowsPerSec", completedFlows / elapsedSeconds);
+        report.put("steps", steps);
+        return report;
+    }
+}
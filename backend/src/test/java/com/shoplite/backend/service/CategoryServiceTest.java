@@ -0,0 +1,98 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Category;
+import com.shoplite.backend.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CategoryServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @InjectMocks
+    private CategoryService categoryService;
+
+    private final List<Category> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        rows.add(category(1L, "Lamps"));
+        rows.add(category(2L, "Chairs"));
+        when(categoryRepository.findAll(any(Sort.class))).thenAnswer(invocation -> new ArrayList<>(rows));
+    }
+
+    @Test
+    void lookupsAreServedFromOneLoad() {
+        // Act
+        List<Category> all = categoryService.findAll();
+        Category lamps = categoryService.findById(1L).orElseThrow();
+        Category chairs = categoryService.findByName("Chairs").orElseThrow();
+
+        // Assert
+        assertThat(all).extracting(Category::getName).containsExactly("Lamps", "Chairs");
+        assertThat(lamps.getName()).isEqualTo("Lamps");
+        assertThat(chairs.getId()).isEqualTo(2L);
+        assertThat(categoryService.findById(3L)).isEmpty();
+        verify(categoryRepository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void changingAReturnedCategoryDoesNotChangeTheSnapshot() {
+        // Arrange
+        Category lamps = categoryService.findById(1L).orElseThrow();
+
+        // Act
+        lamps.setName("Renamed");
+
+        // Assert
+        assertThat(categoryService.findById(1L).orElseThrow().getName()).isEqualTo("Lamps");
+        assertThat(categoryService.findByName("Renamed")).isEmpty();
+    }
+
+    @Test
+    void saveAndDeleteReplaceTheSnapshot() {
+        // Arrange
+        assertThat(categoryService.findAll()).hasSize(2);
+        Category rugs = category(null, "Rugs");
+        when(categoryRepository.save(rugs)).thenAnswer(invocation -> {
+            Category saved = category(3L, "Rugs");
+            rows.add(saved);
+            return saved;
+        });
+
+        // Act / Assert
+        categoryService.save(rugs);
+        assertThat(categoryService.findByName("Rugs")).isPresent();
+
+        rows.remove(0);
+        categoryService.deleteById(1L);
+        assertThat(categoryService.findById(1L)).isEmpty();
+        assertThat(categoryService.findAll()).extracting(Category::getName).containsExactly("Chairs", "Rugs");
+        verify(categoryRepository).deleteById(1L);
+        verify(invalidationBus).invalidate("Category", 3L);
+        verify(invalidationBus).invalidate("Category", 1L);
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,138 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.StoredFile;
+import com.shoplite.backend.model.UploadSession;
+import com.shoplite.backend.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChunkedUploadServiceTest {
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @InjectMocks
+    private ChunkedUploadService chunkedUploadService;
+
+    @TempDir
+    Path tempDir;
+
+    private UploadSession saved;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(chunkedUploadService, "maxSize", DataSize.ofKilobytes(64));
+        ReflectionTestUtils.setField(chunkedUploadService, "defaultChunkSize", DataSize.ofBytes(4));
+
+        when(fileStorageService.tmpDir()).thenReturn(tempDir);
+        when(uploadSessionRepository.save(any(UploadSession.class))).thenAnswer(invocation -> {
+            saved = invocation.getArgument(0);
+            return saved;
+        });
+        when(uploadSessionRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(saved));
+    }
+
+    @Test
+    void chunksArrivingOutOfOrderAreAssembled() throws Exception {
+        // Arrange
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3, 4, 5, 6};
+        UploadSession session = chunkedUploadService.init("image.png", "image/png", png.length);
+        when(fileStorageService.hash(any(Path.class))).thenReturn("hash");
+        when(fileStorageService.commit(any(Path.class), eq("hash"), anyLong(), eq("image/png"))).thenReturn(new StoredFile());
+
+        // Act
+        chunkedUploadService.putChunk(session.getId(), 8, 2, new ByteArrayInputStream(Arrays.copyOfRange(png, 8, 10)));
+        chunkedUploadService.putChunk(session.getId(), 0, 4, new ByteArrayInputStream(Arrays.copyOfRange(png, 0, 4)));
+        chunkedUploadService.putChunk(session.getId(), 4, 4, new ByteArrayInputStream(Arrays.copyOfRange(png, 4, 8)));
+
+        // Assert
+        assertThat(Files.readAllBytes(tempDir.resolve("session-" + session.getId() + ".part"))).isEqualTo(png);
+        chunkedUploadService.complete(session.getId());
+        verify(fileStorageService, times(1)).commit(any(Path.class), eq("hash"), eq(10L), eq("image/png"));
+        verify(uploadSessionRepository, times(1)).delete(session);
+    }
+
+    @Test
+    void completeRejectsMissingChunks() throws Exception {
+        // Arrange
+        UploadSession session = chunkedUploadService.init("image.png", "image/png", 10);
+        chunkedUploadService.putChunk(session.getId(), 0, 4, new ByteArrayInputStream(new byte[4]));
+
+        // Act & Assert
+        assertThatThrownBy(() -> chunkedUploadService.complete(session.getId()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("1 of 3 chunks");
+    }
+
+    @Test
+    void truncatedChunkIsNotMarkedReceived() throws Exception {
+        // Arrange
+        UploadSession session = chunkedUploadService.init("image.png", "image/png", 10);
+
+        // Act & Assert
+        assertThatThrownBy(() -> chunkedUploadService.putChunk(session.getId(), 0, 4, new ByteArrayInputStream(new byte[2])))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("truncated");
+        assertThat(saved.getReceivedChunks()).isEmpty();
+    }
+
+    @Test
+    void initRejectsOversizedOrUnsupportedUploads() {
+        assertThatThrownBy(() -> chunkedUploadService.init("big.png", "image/png", DataSize.ofKilobytes(65).toBytes()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chunkedUploadService.init("script.svg", "image/svg+xml", 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void completeRejectsContentThatIsNotTheDeclaredType() throws Exception {
+        // Arrange
+        UploadSession session = chunkedUploadService.init("fake.png", "image/png", 4);
+        chunkedUploadService.putChunk(session.getId(), 0, 4, new ByteArrayInputStream("<svg".getBytes()));
+
+        // Act & Assert
+        assertThatThrownBy(() -> chunkedUploadService.complete(session.getId()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("does not match");
+    }
+
+    @Test
+    void validateContentChecksTheStreamAndRewindsIt() throws Exception {
+        // Arrange
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 1, 2};
+        BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(png));
+
+        // Act & Assert
+        chunkedUploadService.validateContent(in, "image/png");
+        assertThat(in.readAllBytes()).isEqualTo(png);
+        assertThatThrownBy(() -> chunkedUploadService.validateContent(
+                new BufferedInputStream(new ByteArrayInputStream("<svg onload=alert(1)>".getBytes())), "image/png"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("does not match");
+    }
+}
@@ -0,0 +1,190 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.StoredFile;
+import com.shoplite.backend.model.StoredFileAlias;
+import com.shoplite.backend.repository.ProductRepository;
+import com.shoplite.backend.repository.StoredFileAliasRepository;
+import com.shoplite.backend.repository.StoredFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class FileStorageServiceTest {
+
+    private static final byte[] CONTENT = "not really a png".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private StoredFileRepository storedFileRepository;
+
+    @Mock
+    private StoredFileAliasRepository storedFileAliasRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private FileStorageService fileStorageService;
+
+    @TempDir
+    Path uploadDir;
+
+    private String sha256;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(fileStorageService, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(fileStorageService, "orphanGraceHours", 24L);
+        sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+
+        when(storedFileRepository.save(any(StoredFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void storeWritesNewContentUnderItsShardPath() throws Exception {
+        // Act
+        StoredFile stored = fileStorageService.store(new ByteArrayInputStream(CONTENT), "image/png");
+
+        // Assert
+        String shardPath = sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+        assertThat(stored.getSha256()).isEqualTo(sha256);
+        assertThat(stored.getStoragePath()).isEqualTo(shardPath);
+        assertThat(stored.getSize()).isEqualTo(CONTENT.length);
+        assertThat(uploadDir.resolve(shardPath)).hasBinaryContent(CONTENT);
+        assertThat(fileStorageService.publicFilename(stored, "Photo.PNG")).isEqualTo(sha256 + ".png");
+    }
+
+    @Test
+    void storeOfKnownContentRenewsTheRecordAndKeepsOneCopy() throws Exception {
+        // Arrange
+        fileStorageService.store(new ByteArrayInputStream(CONTENT), "image/png");
+        StoredFile existing = storedFile(0, LocalDateTime.now().minusDays(3));
+        when(storedFileRepository.touch(eq(sha256), any(LocalDateTime.class))).thenReturn(1);
+        when(storedFileRepository.findById(sha256)).thenReturn(Optional.of(existing));
+
+        // Act
+        StoredFile stored = fileStorageService.store(new ByteArrayInputStream(CONTENT), "image/png");
+
+        // Assert: the orphan's grace period restarts, and no second copy or record is made
+        assertThat(stored).isSameAs(existing);
+        verify(storedFileRepository, times(2)).touch(eq(sha256), any(LocalDateTime.class));
+        verify(storedFileRepository, times(1)).save(any(StoredFile.class));
+        assertThat(fileStorageService.resolve(sha256 + ".png")).get().isEqualTo(uploadDir.resolve(existing.getStoragePath()));
+        try (var tmp = Files.list(fileStorageService.tmpDir())) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+
+    @Test
+    void retainAndReleaseCountReferencesByUrl() {
+        // Arrange
+        StoredFileAlias alias = new StoredFileAlias();
+        alias.setFilename("0b5e.png");
+        alias.setSha256(sha256);
+        when(storedFileAliasRepository.findById("0b5e.png")).thenReturn(Optional.of(alias));
+
+        // Act
+        fileStorageService.retain("http://localhost:8080" + FileStorageService.PUBLIC_PATH + sha256 + ".png");
+        fileStorageService.release(FileStorageService.PUBLIC_PATH + "0b5e.png");
+        fileStorageService.retain("https://example.com/elsewhere.png");
+        fileStorageService.release(null);
+
+        // Assert
+        verify(storedFileRepository, times(1)).adjustRefCount(sha256, 1);
+        verify(storedFileRepository, times(1)).adjustRefCount(sha256, -1);
+        verifyNoMoreInteractions(storedFileRepository);
+    }
+
+    @Test
+    void purgeDeletesOnlyFilesThatStillQualifyWhenDeleted() throws Exception {
+        // Arrange: two orphans found by the scan, one retained again before its turn
+        StoredFile orphan = fileStorageService.store(new ByteArrayInputStream(CONTENT), "image/png");
+        StoredFile retained = fileStorageService.store(new ByteArrayInputStream("retained".getBytes(StandardCharsets.UTF_8)), "image/png");
+        when(storedFileRepository.findByRefCountLessThanEqualAndLastStoredAtBefore(eq(0), any(LocalDateTime.class)))
+            .thenReturn(List.of(orphan, retained));
+        when(storedFileRepository.deleteIfUnreferenced(eq(orphan.getSha256()), any(LocalDateTime.class))).thenReturn(1);
+        when(storedFileRepository.deleteIfUnreferenced(eq(retained.getSha256()), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act
+        int purged = fileStorageService.purgeUnreferenced();
+
+        // Assert
+        assertThat(purged).isEqualTo(1);
+        assertThat(uploadDir.resolve(orphan.getStoragePath())).doesNotExist();
+        assertThat(uploadDir.resolve(retained.getStoragePath())).exists();
+        verify(storedFileAliasRepository, times(1)).deleteBySha256(orphan.getSha256());
+        verify(storedFileAliasRepository, never()).deleteBySha256(retained.getSha256());
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(storedFileRepository).deleteIfUnreferenced(eq(orphan.getSha256()), cutoff.capture());
+        assertThat(cutoff.getValue()).isBefore(LocalDateTime.now().minusHours(23));
+    }
+
+    @Test
+    void migrateLegacyFilesMovesFlatUploadsAndKeepsTheirNames() throws Exception {
+        // Arrange
+        Files.write(uploadDir.resolve("0b5e.png"), CONTENT);
+        StoredFileAlias alias = new StoredFileAlias();
+        alias.setFilename("0b5e.png");
+        alias.setSha256(sha256);
+        when(storedFileAliasRepository.findById("0b5e.png")).thenReturn(Optional.of(alias));
+        StoredFile stored = storedFile(0, LocalDateTime.now());
+        when(storedFileRepository.findAll()).thenReturn(List.of(stored));
+        when(productRepository.findAllImageUrls())
+            .thenReturn(List.of(FileStorageService.PUBLIC_PATH + "0b5e.png", FileStorageService.PUBLIC_PATH + "0b5e.png"));
+
+        // Act
+        int migrated = fileStorageService.migrateLegacyFiles();
+
+        // Assert
+        assertThat(migrated).isEqualTo(1);
+        assertThat(uploadDir.resolve("0b5e.png")).doesNotExist();
+        assertThat(uploadDir.resolve(stored.getStoragePath())).hasBinaryContent(CONTENT);
+        ArgumentCaptor<StoredFileAlias> saved = ArgumentCaptor.forClass(StoredFileAlias.class);
+        verify(storedFileAliasRepository).save(saved.capture());
+        assertThat(saved.getValue().getFilename()).isEqualTo("0b5e.png");
+        assertThat(saved.getValue().getSha256()).isEqualTo(sha256);
+        // Two products point at the migrated file
+        assertThat(stored.getRefCount()).isEqualTo(2);
+        verify(storedFileRepository, never()).adjustRefCount(anyString(), anyInt());
+    }
+
+    private StoredFile storedFile(int refCount, LocalDateTime lastStoredAt) {
+        StoredFile file = new StoredFile();
+        file.setSha256(sha256);
+        file.setStoragePath(sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256);
+        file.setSize((long) CONTENT.length);
+        file.setRefCount(refCount);
+        file.setLastStoredAt(lastStoredAt);
+        return file;
+    }
+}
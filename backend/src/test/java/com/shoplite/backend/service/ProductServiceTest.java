@@ -27,6 +27,15 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
     @InjectMocks
     private ProductService productService;
 
@@ -149,6 +158,38 @@ class ProductServiceTest {
         verify(productRepository, times(1)).save(any(Product.class));
     }
 
+    @Test
+    void saveProductWithNewImageUpdatesReferences() {
+        // Arrange
+        String oldUrl = "http://localhost:8080/api/uploads/products/old.jpg";
+        String newUrl = "http://localhost:8080/api/uploads/products/new.jpg";
+        testProduct.setImageUrl(newUrl);
+        when(productRepository.findImageUrlById(1L)).thenReturn(oldUrl);
+        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        
+        // Act
+        productService.save(testProduct);
+        
+        // Assert
+        verify(fileStorageService, times(1)).release(oldUrl);
+        verify(fileStorageService, times(1)).retain(newUrl);
+    }
+
+    @Test
+    void saveProductWithSameImageKeepsReferences() {
+        // Arrange
+        String url = "http://localhost:8080/api/uploads/products/same.jpg";
+        testProduct.setImageUrl(url);
+        when(productRepository.findImageUrlById(1L)).thenReturn(url);
+        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        
+        // Act
+        productService.save(testProduct);
+        
+        // Assert
+        verifyNoInteractions(fileStorageService);
+    }
+
     @Test
     void updateProductStock() {
         // Arrange
@@ -161,6 +202,7 @@ class ProductServiceTest {
         // Assert
         assertThat(testProduct.getStockQuantity()).isEqualTo(15); // 10 + 5
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(outboxService).stockChanged(1L, 5, 15);
     }
 
     @Test
@@ -184,5 +226,6 @@ class ProductServiceTest {
         
         // Assert
         verify(productRepository, times(1)).deleteById(1L);
+        verify(fileStorageService, times(1)).release(null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.shoplite.backend.service;
+
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+class RelatedProductsServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private RelatedProductsService relatedProductsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(relatedProductsService, "maxRowSize", 8);
+        ReflectionTestUtils.setField(relatedProductsService, "maxOrderProducts", 50);
+        when(productRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            for (Object id : invocation.<List<?>>getArgument(0)) {
+                Product product = new Product();
+                product.setId((Long) id);
+                products.add(product);
+            }
+            return products;
+        });
+    }
+
+    @Test
+    void primitiveMapBehavesLikeHashMap() {
+        // Arrange
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        // Act: enough adds and removes to force rehashing and long probe chains
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2000) - 1000;
+            if (random.nextInt(4) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                int delta = random.nextInt(5) + 1;
+                map.addTo(key, delta);
+                expected.merge(key, delta, Integer::sum);
+            }
+        }
+
+        // Assert
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+        for (long key = -1000; key < 1000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+        }
+    }
+
+    @Test
+    void relatedProductsAreRankedByOrdersInCommon() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            relatedProductsService.onOrderPlaced(new OrderPlacedEvent(List.of(Map.of(1L, 1, 2L, 4))));
+        }
+        relatedProductsService.onOrderPlaced(new OrderPlacedEvent(List.of(Map.of(1L, 2, 3L, 1, 4L, 1), Map.of(1L, 1, 3L, 1))));
+        relatedProductsService.onOrderPlaced(new OrderPlacedEvent(List.of(Map.of(5L, 1))));
+
+        // Act
+        List<Map<String, Object>> related = relatedProductsService.getRelated(1L, 3);
+
+        // Assert
+        assertThat(related).extracting(entry -> ((Product) entry.get("product")).getId()).containsExactly(2L, 3L, 4L);
+        assertThat(related).extracting(entry -> entry.get("orders")).containsExactly(3L, 2L, 1L);
+        assertThat(relatedProductsService.getRelated(4L, 3))
+            .extracting(entry -> ((Product) entry.get("product")).getId()).containsExactly(1L, 3L);
+        assertThat(relatedProductsService.getRelated(5L, 3)).isEmpty();
+    }
+
+    @Test
+    void fullRowsDropTheirRarestPairs() {
+        // Arrange: product 1 is bought often with 2 and once each with 100..119
+        for (int i = 0; i < 5; i++) {
+            relatedProductsService.record(new long[] {1, 2}, 2);
+        }
+        for (long other = 100; other < 120; other++) {
+            relatedProductsService.record(new long[] {1, other}, 2);
+        }
+
+        // Act
+        List<long[]> top = relatedProductsService.top(1, 20);
+
+        // Assert
+        assertThat(top.size()).isLessThanOrEqualTo(8);
+        assertThat(top.get(0)).containsExactly(2L, 5L);
+    }
+}
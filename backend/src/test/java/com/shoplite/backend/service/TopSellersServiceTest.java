@@ -0,0 +1,110 @@
+package com.shoplite.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shoplite.backend.model.Product;
+import com.shoplite.backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+class TopSellersServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private TopSellersService topSellersService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        configure(topSellersService);
+        when(productRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            for (Object id : invocation.<List<?>>getArgument(0)) {
+                Product product = new Product();
+                product.setId((Long) id);
+                products.add(product);
+            }
+            return products;
+        });
+    }
+
+    @Test
+    void heavyHittersSurviveALongTailOfProducts() {
+        // Arrange: three popular products among 2000 that sell once each
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            topSellersService.onOrderPlaced(new OrderPlacedEvent(List.of(Map.of(1000L + i, 1))));
+            int popular = random.nextInt(3);
+            topSellersService.onOrderPlaced(new OrderPlacedEvent(List.of(Map.of((long) popular + 1, 3 - popular))));
+        }
+
+        // Act
+        List<Map<String, Object>> top = topSellersService.getTopSellers(TopSellersService.Window.WEEK, 3);
+
+        // Assert
+        assertThat(top).extracting(seller -> ((Product) seller.get("product")).getId()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void olderSalesDecay() {
+        // Arrange
+        long tau = 60_000;
+        DecayingTopK sketch = new DecayingTopK(10, tau, 0);
+        sketch.add(1, 10, 0);
+
+        // Act
+        sketch.add(2, 5, tau);
+
+        // Assert
+        List<DecayingTopK.Entry> top = sketch.top(2, tau);
+        assertThat(top).extracting(DecayingTopK.Entry::key).containsExactly(2L, 1L);
+        assertThat(top.get(1).count()).isCloseTo(10 / Math.E, within(1e-9));
+        // Far past the rescaling point, counts stay finite
+        sketch.add(1, 1, 100 * tau);
+        assertThat(sketch.top(1, 100 * tau).get(0).count()).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void snapshotRestoresRankingsAfterRestart() {
+        // Arrange
+        topSellersService.onOrderPlaced(new OrderPlacedEvent(List.of(Map.of(7L, 5, 8L, 2))));
+        topSellersService.onOrderPlaced(new OrderPlacedEvent(List.of(Map.of(9L, 9))));
+        topSellersService.snapshot();
+
+        // Act
+        TopSellersService restarted = new TopSellersService();
+        ReflectionTestUtils.setField(restarted, "productRepository", productRepository);
+        configure(restarted);
+
+        // Assert
+        assertThat(restarted.getTopSellers(TopSellersService.Window.HOUR, 10))
+            .extracting(seller -> ((Product) seller.get("product")).getId()).containsExactly(9L, 7L, 8L);
+    }
+
+    private void configure(TopSellersService service) {
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "capacity", 20);
+        ReflectionTestUtils.setField(service, "snapshotFile", tempDir.resolve("top-sellers.json").toString());
+        service.init();
+    }
+}
@@ -1,5 +1,5 @@
 import { createApi, fetchBaseQuery } from '@reduxjs/toolkit/query/react';
-import { AuthResponse, LoginRequest, RegisterRequest, Product, Category, Order } from '../../types';
+import { AuthResponse, LoginRequest, RegisterRequest, Product, Category, Order, OrderSummaryPage, SalesStats, TopSeller, RelatedProduct } from '../../types';
 import { RootState } from '../../app/store';
 
 // Base API configuration
@@ -45,6 +45,14 @@ export const apiSlice = createApi({
       query: (id) => `/products/${id}`,
       providesTags: (result, error, id) => [{ type: 'Product', id }],
     }),
+    getRelatedProducts: builder.query<RelatedProduct[], number>({
+      query: (id) => `/products/${id}/related`,
+      providesTags: ['Product'],
+    }),
+    getTopSellers: builder.query<TopSeller[], { window: 'hour' | 'day' | 'week'; limit?: number }>({
+      query: (params) => ({ url: '/products/top-sellers', params }),
+      providesTags: ['Product'],
+    }),
     getProductsByCategory: builder.query<Product[], number>({
       query: (categoryId) => `/products/category/${categoryId}`,
       providesTags: ['Product'],
@@ -65,6 +73,10 @@ export const apiSlice = createApi({
       query: () => '/orders/user',
       providesTags: ['Order'],
     }),
+    getOrderHistory: builder.query<OrderSummaryPage, { cursor?: string; limit?: number } | void>({
+      query: (params) => ({ url: '/orders/user/history', params: params || undefined }),
+      providesTags: ['Order'],
+    }),
     getOrderById: builder.query<Order, number>({
       query: (id) => `/orders/${id}`,
       providesTags: (result, error, id) => [{ type: 'Order', id }],
@@ -77,6 +89,12 @@ export const apiSlice = createApi({
       }),
       invalidatesTags: ['Order'],
     }),
+
+    // Admin statistics
+    getSalesStats: builder.query<SalesStats, { from?: string; to?: string; top?: number } | void>({
+      query: (params) => ({ url: '/stats/sales', params: params || undefined }),
+      providesTags: ['Order'],
+    }),
   }),
 });
 
@@ -86,9 +104,13 @@ export const {
   useGetProductsQuery,
   useGetProductByIdQuery,
   useGetProductsByCategoryQuery,
+  useGetRelatedProductsQuery,
+  useGetTopSellersQuery,
   useGetCategoriesQuery,
   useGetCategoryByIdQuery,
   useGetUserOrdersQuery,
+  useGetOrderHistoryQuery,
   useGetOrderByIdQuery,
   useCreateOrderMutation,
+  useGetSalesStatsQuery,
 } = apiSlice;
\ No newline at end of file
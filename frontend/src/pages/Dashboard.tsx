@@ -14,9 +14,13 @@ import {
   Divider
 } from '@mui/material';
 import { Link } from 'react-router-dom';
+import { useGetSalesStatsQuery } from '../features/api/apiSlice';
 
 const Dashboard: React.FC = () => {
   const { user } = useAppSelector((state: RootState) => state.auth);
+  const isAdmin = !!user?.roles?.some(role => role.name === 'ROLE_ADMIN');
+  // Served from daily rollups, so this stays cheap however many orders there are
+  const { data: salesStats } = useGetSalesStatsQuery(undefined, { skip: !isAdmin });
   
   // Placeholder data until API works correctly
   const placeholderOrders = [
@@ -47,6 +51,78 @@ const Dashboard: React.FC = () => {
         </Grid>
       </Grid>
 
+      {/* Sales (admin only) */}
+      {isAdmin && salesStats && (
+        <>
+          <Box sx={{ mt: 4, mb: 2 }}>
+            <Typography variant="h5" gutterBottom>
+              Sales, {salesStats.from} to {salesStats.to}
+            </Typography>
+          </Box>
+
+          <Grid container spacing={3}>
+            <Grid item xs={12} sm={6} md={4}>
+              <Paper sx={{ p: 3, borderRadius: 2, bgcolor: '#f9f9f9', height: '100%' }}>
+                <Typography variant="subtitle1" color="textSecondary">Revenue</Typography>
+                <Typography variant="h3" sx={{ mt: 2, fontWeight: 'bold' }}>
+                  ${Number(salesStats.totals.revenue).toFixed(2)}
+                </Typography>
+              </Paper>
+            </Grid>
+
+            <Grid item xs={12} sm={6} md={4}>
+              <Paper sx={{ p: 3, borderRadius: 2, bgcolor: '#f9f9f9', height: '100%' }}>
+                <Typography variant="subtitle1" color="textSecondary">Orders</Typography>
+                <Typography variant="h3" sx={{ mt: 2, fontWeight: 'bold' }}>
+                  {salesStats.totals.orders}
+                </Typography>
+              </Paper>
+            </Grid>
+
+            <Grid item xs={12} sm={6} md={4}>
+              <Paper sx={{ p: 3, borderRadius: 2, bgcolor: '#f9f9f9', height: '100%' }}>
+                <Typography variant="subtitle1" color="textSecondary">Units Sold</Typography>
+                <Typography variant="h3" sx={{ mt: 2, fontWeight: 'bold' }}>
+                  {salesStats.totals.units}
+                </Typography>
+              </Paper>
+            </Grid>
+
+            <Grid item xs={12} md={6}>
+              <Card sx={{ borderRadius: 2, height: '100%' }}>
+                <CardContent>
+                  <Typography variant="h6" gutterBottom>Top Products</Typography>
+                  <Divider sx={{ mb: 1 }} />
+                  {salesStats.topProducts.length === 0 && <Typography>No sales yet.</Typography>}
+                  {salesStats.topProducts.map((product) => (
+                    <Box key={product.productId} sx={{ display: 'flex', justifyContent: 'space-between', py: 0.5 }}>
+                      <Typography>{product.name || `Product #${product.productId}`} ({product.units})</Typography>
+                      <Typography>${Number(product.revenue).toFixed(2)}</Typography>
+                    </Box>
+                  ))}
+                </CardContent>
+              </Card>
+            </Grid>
+
+            <Grid item xs={12} md={6}>
+              <Card sx={{ borderRadius: 2, height: '100%' }}>
+                <CardContent>
+                  <Typography variant="h6" gutterBottom>Revenue by Category</Typography>
+                  <Divider sx={{ mb: 1 }} />
+                  {salesStats.categories.length === 0 && <Typography>No sales yet.</Typography>}
+                  {salesStats.categories.map((category) => (
+                    <Box key={category.categoryId} sx={{ display: 'flex', justifyContent: 'space-between', py: 0.5 }}>
+                      <Typography>{category.name}</Typography>
+                      <Typography>${Number(category.revenue).toFixed(2)}</Typography>
+                    </Box>
+                  ))}
+                </CardContent>
+              </Card>
+            </Grid>
+          </Grid>
+        </>
+      )}
+
       {/* Stats Cards */}
       <Box sx={{ mt: 4, mb: 2 }}>
         <Typography variant="h5" gutterBottom>
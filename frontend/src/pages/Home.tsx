@@ -1,6 +1,6 @@
 import React from 'react';
 import { Link as RouterLink } from 'react-router-dom';
-import { useGetProductsQuery } from '../features/api/apiSlice';
+import { useGetProductsQuery, useGetTopSellersQuery } from '../features/api/apiSlice';
 import ProductCard from '../components/products/ProductCard';
 
 // MUI components
@@ -101,6 +101,8 @@ const Home: React.FC = () => {
   const theme = useTheme();
   const { data: products, isLoading, error } = useGetProductsQuery();
 
+  const { data: trending } = useGetTopSellersQuery({ window: 'day', limit: 6 });
+
   // Get featured products (for demonstration, we'll just take the first 6)
   const featuredProducts = products?.slice(0, 6) || [];
 
@@ -244,6 +246,31 @@ const Home: React.FC = () => {
         </Container>
       </Box>
 
+      {/* Trending Now Section: hidden until there are sales to rank */}
+      {trending && trending.length > 0 && (
+        <Box sx={{ py: 8 }}>
+          <Container maxWidth="lg">
+            <Box sx={{ mb: 6 }}>
+              <Typography 
+                variant="h2" 
+                component="h2" 
+              >
+                Trending Now
+              </Typography>
+              <Divider sx={{ width: 80, borderWidth: 2, borderColor: theme.palette.primary.main, mt: 2 }} />
+            </Box>
+
+            <Grid container spacing={4}>
+              {trending.map(({ product }) => (
+                <Grid item xs={12} sm={6} md={4} key={product.id}>
+                  <ProductCard product={product} />
+                </Grid>
+              ))}
+            </Grid>
+          </Container>
+        </Box>
+      )}
+
       {/* Services Feature Boxes */}
       <Box sx={{ py: 8, bgcolor: '#FAFAFA' }}>
         <Container maxWidth="lg">
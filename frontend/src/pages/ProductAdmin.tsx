@@ -50,11 +50,13 @@ const ProductAdmin: React.FC = () => {
   const [success, setSuccess] = useState<string | null>(null);
   const [editMode, setEditMode] = useState(false);
   const [editId, setEditId] = useState<number | null>(null);
+  const [flashSales, setFlashSales] = useState<number[]>([]);
 
   // Fetch categories and products on component mount
   useEffect(() => {
     fetchCategories();
     fetchProducts();
+    fetchFlashSales();
   }, []);
 
   const fetchCategories = async () => {
@@ -82,6 +84,43 @@ const ProductAdmin: React.FC = () => {
     }
   };
 
+  const fetchFlashSales = async () => {
+    try {
+      const response = await fetch('http://localhost:8080/api/products/flash-sales', {
+        headers: {
+          'Authorization': `Bearer ${token}`,
+        },
+      });
+      const data = await response.json();
+      setFlashSales(data.filter((sale: any) => sale.active).map((sale: any) => sale.productId));
+    } catch (err) {
+      console.error(err);
+    }
+  };
+
+  const handleFlashSale = async (id: number) => {
+    const active = flashSales.includes(id);
+    try {
+      const response = await fetch(`http://localhost:8080/api/products/${id}/flash-sale`, {
+        method: active ? 'DELETE' : 'POST',
+        headers: {
+          'Authorization': `Bearer ${token}`,
+        },
+      });
+
+      if (!response.ok) {
+        throw new Error(await response.text());
+      }
+
+      setSuccess(active ? 'Flash sale ended' : 'Flash sale started');
+      fetchFlashSales();
+      fetchProducts();
+    } catch (err) {
+      setError('Failed to update flash sale');
+      console.error(err);
+    }
+  };
+
   const handleInputChange = (e: React.ChangeEvent<HTMLInputElement>) => {
     const { name, value } = e.target;
     setFormData({
@@ -391,6 +430,14 @@ const ProductAdmin: React.FC = () => {
                               >
                                 Delete
                               </Button>
+                              <Button
+                                size="small"
+                                variant={flashSales.includes(product.id) ? 'contained' : 'outlined'}
+                                color="warning"
+                                onClick={() => handleFlashSale(product.id)}
+                              >
+                                {flashSales.includes(product.id) ? 'End Flash Sale' : 'Flash Sale'}
+                              </Button>
                             </Box>
                           </TableCell>
                         </TableRow>
@@ -1,8 +1,9 @@
 import React, { useEffect, useState } from 'react';
 import { useParams } from 'react-router-dom';
-import { useGetProductByIdQuery } from '../features/api/apiSlice';
+import { useGetProductByIdQuery, useGetRelatedProductsQuery } from '../features/api/apiSlice';
 import { useAppDispatch } from '../app/hooks';
 import { addToCart } from '../features/cart/cartSlice';
+import ProductCard from '../components/products/ProductCard';
 
 // MUI Components
 import { 
@@ -39,6 +40,7 @@ const ProductDetail: React.FC = () => {
   const [tabValue, setTabValue] = useState(0);
   
   const { data: product, isLoading, error } = useGetProductByIdQuery(productId);
+  const { data: related } = useGetRelatedProductsQuery(productId, { skip: !productId });
   const dispatch = useAppDispatch();
 
   const handleAddToCart = () => {
@@ -346,6 +348,20 @@ const ProductDetail: React.FC = () => {
             )}
           </Box>
         </Box>
+
+        {/* Frequently Bought Together */}
+        {related && related.length > 0 && (
+          <Box sx={{ mt: 8 }}>
+            <Typography variant="h5" fontWeight={600} mb={3}>Frequently Bought Together</Typography>
+            <Grid container spacing={4}>
+              {related.map(({ product: relatedProduct }) => (
+                <Grid item xs={12} sm={6} md={4} key={relatedProduct.id}>
+                  <ProductCard product={relatedProduct} />
+                </Grid>
+              ))}
+            </Grid>
+          </Box>
+        )}
       </Container>
     </Box>
   );
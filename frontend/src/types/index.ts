@@ -48,6 +48,19 @@ export interface Order {
   updatedAt: string;
 }
 
+export interface OrderSummary {
+  id: number;
+  createdAt: string;
+  status: OrderStatus;
+  totalAmount: number;
+  itemCount: number;
+}
+
+export interface OrderSummaryPage {
+  orders: OrderSummary[];
+  nextCursor: string | null;
+}
+
 export interface OrderItem {
   id: number;
   product: Product;
@@ -92,6 +105,31 @@ export interface AuthResponse {
   user: User;
 }
 
+export interface TopSeller {
+  product: Product;
+  score: number;
+}
+
+export interface RelatedProduct {
+  product: Product;
+  orders: number;
+}
+
+export interface SalesFigures {
+  orders: number;
+  units: number;
+  revenue: number;
+}
+
+export interface SalesStats {
+  from: string;
+  to: string;
+  totals: SalesFigures;
+  days: (SalesFigures & { day: string })[];
+  topProducts: (SalesFigures & { productId: number; name?: string })[];
+  categories: (SalesFigures & { categoryId: number; name: string })[];
+}
+
 export interface ApiError {
   status: number;
   message: string;